@@ -8,79 +8,347 @@
 
 package org.aeonbits.owner.loaders;
 
-import org.apache.curator.RetryPolicy;
-import org.apache.curator.RetrySleeper;
 import org.apache.curator.framework.CuratorFramework;
 import org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.curator.framework.api.BackgroundCallback;
+import org.apache.curator.framework.api.CuratorEvent;
+import org.apache.curator.framework.recipes.cache.ChildData;
+import org.apache.curator.framework.recipes.cache.TreeCache;
+import org.apache.curator.framework.recipes.cache.TreeCacheEvent;
+import org.apache.curator.framework.recipes.cache.TreeCacheListener;
+import org.apache.curator.retry.ExponentialBackoffRetry;
 import org.apache.curator.utils.ZKPaths;
+import org.apache.zookeeper.KeeperException;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InterruptedIOException;
 import java.net.URI;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static java.lang.Integer.parseInt;
 import static java.lang.System.getProperty;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
 /**
+ * Loads the properties from the children of a ZooKeeper node: each child is a property, whose key is the name of the
+ * child and whose value is the data of the child.
+ * <p>
+ * The ZooKeeper clients are shared by all the loaders connecting to the same ensemble, and kept open until the last
+ * loader using them is {@link #close() closed} (which happens when the {@link org.aeonbits.owner.Factory} it is
+ * registered to is closed), so that reloads don't need to connect again. The data of the children is fetched with
+ * asynchronous requests, with at most <tt>owner.zookeeper.max.pending.requests</tt> requests in flight.
+ * </p>
+ * <p>
+ * Watched nodes are mirrored in memory by a {@link TreeCache}, kept up to date by ZooKeeper watches: the changes of
+ * the children are pushed to the config objects as they happen, and the loads of a watched node are served by the
+ * mirror.
+ * </p>
+ *
  * @author Koray Sariteke
  * @author Luigi R. Viggiano
  *
  */
-public class ZooKeeperLoader implements Loader {
+public class ZooKeeperLoader implements WatchableLoader, Closeable {
 
     private static final String SCHEME = "zookeeper";
     private static final String ZOOKEEPER_CONNECTION_TIMEOUT_SECONDS = "owner.zookeeper.connection.timeout.seconds";
+    private static final String ZOOKEEPER_RETRY_BASE_SLEEP_MILLIS = "owner.zookeeper.retry.base.sleep.millis";
+    private static final String ZOOKEEPER_RETRY_MAX_RETRIES = "owner.zookeeper.retry.max.retries";
+    private static final String ZOOKEEPER_MAX_PENDING_REQUESTS = "owner.zookeeper.max.pending.requests";
+
+    private static final Map<String, SharedClient> sharedClients = new HashMap<String, SharedClient>();
 
+    private transient Map<String, SharedClient> clients;
+    private transient Map<URI, Mirror> mirrors;
+    private transient boolean closed = false;
 
     public boolean accept(URI uri) {
         return uri.getScheme().equals(SCHEME);
     }
 
     public void load(Properties result, URI uri) throws IOException {
+        Mirror mirror = getMirror(uri);
+        if (mirror != null && mirror.initialized) {
+            result.putAll(mirror.children());
+            return;
+        }
+
         CuratorFramework client = getClient(uri);
         try {
             connect(client);
 
             String basePath = uri.getPath();
+            List<String> keys = client.getChildren().forPath(basePath);
+            String[] values = getValues(client, basePath, keys);
 
-            for (String key : client.getChildren().forPath(basePath))
-                result.put(key, getValue(client, basePath, key));
+            for (int i = 0; i < values.length; i++)
+                if (values[i] != null)
+                    result.put(keys.get(i), values[i]);
 
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             throw (IOException) new InterruptedIOException().initCause(e);
+        } catch (IOException e) {
+            throw e;
         } catch (Exception e) {
             throw new IOException(e);
-        } finally {
-            client.close();
         }
     }
 
-    private String getValue(CuratorFramework client, String basePath, String key) throws Exception {
-        return new String(client.getData().forPath(ZKPaths.makePath(basePath, key)));
+    /**
+     * Fetches the data of the given children with asynchronous requests, so that the round trips overlap instead of
+     * adding up. Children deleted after being listed are left <code>null</code>.
+     */
+    private String[] getValues(CuratorFramework client, String basePath, List<String> keys) throws Exception {
+        final String[] values = new String[keys.size()];
+        final CountDownLatch done = new CountDownLatch(keys.size());
+        final Semaphore pending = new Semaphore(parseInt(getProperty(ZOOKEEPER_MAX_PENDING_REQUESTS, "64")));
+        final AtomicReference<KeeperException> failure = new AtomicReference<KeeperException>();
+
+        for (int i = 0; i < values.length; i++) {
+            final int index = i;
+            pending.acquire();
+            client.getData().inBackground(new BackgroundCallback() {
+                public void processResult(CuratorFramework client, CuratorEvent event) {
+                    try {
+                        KeeperException.Code code = KeeperException.Code.get(event.getResultCode());
+                        if (code == KeeperException.Code.OK)
+                            values[index] = new String(event.getData());
+                        else if (code != KeeperException.Code.NONODE)
+                            failure.compareAndSet(null, KeeperException.create(code, event.getPath()));
+                    } finally {
+                        pending.release();
+                        done.countDown();
+                    }
+                }
+            }).forPath(ZKPaths.makePath(basePath, keys.get(i)));
+        }
+
+        if (!done.await(connectionTimeout(), SECONDS))
+            throw new IOException("Timed out fetching the children of " + basePath);
+        if (failure.get() != null)
+            throw failure.get();
+        return values;
     }
 
-    private void connect(CuratorFramework client) throws InterruptedException {
-        client.start();
-        int timeout = parseInt(getProperty(ZOOKEEPER_CONNECTION_TIMEOUT_SECONDS, "30"));
-        client.blockUntilConnected(timeout, SECONDS);
+    private void connect(CuratorFramework client) throws InterruptedException, IOException {
+        if (!client.getZookeeperClient().isConnected() && !client.blockUntilConnected(connectionTimeout(), SECONDS))
+            throw new IOException("Can't connect to ZooKeeper at " +
+                    client.getZookeeperClient().getCurrentConnectionString());
     }
 
-    private CuratorFramework getClient(URI uri) {
+    private static int connectionTimeout() {
+        return parseInt(getProperty(ZOOKEEPER_CONNECTION_TIMEOUT_SECONDS, "30"));
+    }
+
+    private synchronized CuratorFramework getClient(URI uri) throws IOException {
         String host = uri.getHost();
         int port = uri.getPort();
 
         String connectString = (port == -1) ? host : host + ":" + port;
-        return CuratorFrameworkFactory.newClient(connectString, new RetryPolicy() {
-            public boolean allowRetry(int retryCount, long elapsedTimeMs, RetrySleeper sleeper) {
-                return false;
+        if (closed)
+            throw new IOException("ZooKeeperLoader has been closed");
+        if (clients == null)
+            clients = new HashMap<String, SharedClient>();
+        SharedClient client = clients.get(connectString);
+        if (client == null) {
+            client = acquire(connectString);
+            clients.put(connectString, client);
+        }
+        return client.curator;
+    }
+
+    private synchronized Mirror getMirror(URI uri) {
+        return mirrors == null ? null : mirrors.get(uri);
+    }
+
+    public synchronized Closeable watch(URI uri, final SourceListener listener) throws IOException {
+        if (mirrors == null)
+            mirrors = new HashMap<URI, Mirror>();
+        Mirror mirror = mirrors.get(uri);
+        if (mirror == null) {
+            mirror = new Mirror(uri, getClient(uri));
+            mirrors.put(uri, mirror);
+            mirror.listeners.add(listener);
+            try {
+                mirror.cache.start();
+            } catch (Exception e) {
+                mirrors.remove(uri);
+                mirror.cache.close();
+                throw new IOException(e);
             }
-        });
+        } else {
+            mirror.listeners.add(listener);
+        }
+
+        final Mirror watched = mirror;
+        return new Closeable() {
+            public void close() {
+                unwatch(watched, listener);
+            }
+        };
+    }
+
+    private synchronized void unwatch(Mirror mirror, SourceListener listener) {
+        mirror.listeners.remove(listener);
+        if (mirror.listeners.isEmpty() && mirrors.get(mirror.uri) == mirror) {
+            mirrors.remove(mirror.uri);
+            mirror.cache.close();
+        }
+    }
+
+    /**
+     * Stops watching the nodes and releases the ZooKeeper clients used by this loader; the clients are closed when no
+     * other loader is using them.
+     */
+    public synchronized void close() {
+        closed = true;
+        if (mirrors != null) {
+            for (Mirror mirror : mirrors.values())
+                mirror.cache.close();
+            mirrors.clear();
+        }
+        if (clients != null) {
+            for (SharedClient client : clients.values())
+                release(client);
+            clients.clear();
+        }
     }
 
     public String defaultSpecFor(String urlPrefix) {
         return null;
     }
+
+    private static SharedClient acquire(String connectString) {
+        synchronized (sharedClients) {
+            SharedClient client = sharedClients.get(connectString);
+            if (client == null) {
+                int baseSleep = parseInt(getProperty(ZOOKEEPER_RETRY_BASE_SLEEP_MILLIS, "100"));
+                int maxRetries = parseInt(getProperty(ZOOKEEPER_RETRY_MAX_RETRIES, "3"));
+                CuratorFramework curator = CuratorFrameworkFactory.newClient(connectString,
+                        new ExponentialBackoffRetry(baseSleep, maxRetries));
+                curator.start();
+                client = new SharedClient(connectString, curator);
+                sharedClients.put(connectString, client);
+            }
+            client.references++;
+            return client;
+        }
+    }
+
+    private static void release(SharedClient client) {
+        synchronized (sharedClients) {
+            if (--client.references == 0) {
+                sharedClients.remove(client.connectString);
+                client.curator.close();
+            }
+        }
+    }
+
+    static int sharedClients() {
+        synchronized (sharedClients) {
+            return sharedClients.size();
+        }
+    }
+
+    private static class SharedClient {
+        private final String connectString;
+        private final CuratorFramework curator;
+        private int references = 0;
+
+        SharedClient(String connectString, CuratorFramework curator) {
+            this.connectString = connectString;
+            this.curator = curator;
+        }
+    }
+
+    /**
+     * Mirrors the children of a node, notifying their changes to the listeners once the initial content is in place.
+     */
+    private static class Mirror implements TreeCacheListener {
+        private final URI uri;
+        private final String basePath;
+        private final TreeCache cache;
+        private final List<SourceListener> listeners = new CopyOnWriteArrayList<SourceListener>();
+        private volatile boolean initialized = false;
+
+        Mirror(URI uri, CuratorFramework client) {
+            this.uri = uri;
+            this.basePath = uri.getPath();
+            this.cache = TreeCache.newBuilder(client, basePath).setMaxDepth(1).setCacheData(true)
+                    .setExecutor(new ThreadFactory() {
+                        public Thread newThread(Runnable r) {
+                            Thread result = new Thread(r, "owner-zookeeper-watch");
+                            result.setDaemon(true);
+                            return result;
+                        }
+                    }).build();
+            cache.getListenable().addListener(this);
+        }
+
+        public void childEvent(CuratorFramework client, TreeCacheEvent event) {
+            switch (event.getType()) {
+                case INITIALIZED:
+                    initialized = true;
+                    // covers any change happened between the first load and the start of the watches.
+                    Map<String, ChildData> children = cache.getCurrentChildren(basePath);
+                    if (children != null)
+                        fire(values(children));
+                    break;
+                case NODE_ADDED:
+                case NODE_UPDATED:
+                    if (initialized && isChild(event.getData()))
+                        fire(Collections.singletonMap(name(event.getData()), value(event.getData())));
+                    break;
+                case NODE_REMOVED:
+                    if (initialized && isChild(event.getData()))
+                        fire(Collections.singletonMap(name(event.getData()), (String) null));
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        private void fire(Map<String, String> changes) {
+            for (SourceListener listener : listeners)
+                listener.sourceChanged(uri, changes);
+        }
+
+        private boolean isChild(ChildData data) {
+            return data != null && ZKPaths.getPathAndNode(data.getPath()).getPath().equals(basePath);
+        }
+
+        private static String name(ChildData data) {
+            return ZKPaths.getNodeFromPath(data.getPath());
+        }
+
+        private static String value(ChildData data) {
+            byte[] bytes = data.getData();
+            return bytes == null ? "" : new String(bytes);
+        }
+
+        Map<String, String> children() throws IOException {
+            Map<String, ChildData> children = cache.getCurrentChildren(basePath);
+            if (children == null)
+                throw new IOException("Node not found: " + basePath);
+            return values(children);
+        }
+
+        private static Map<String, String> values(Map<String, ChildData> children) {
+            Map<String, String> result = new HashMap<String, String>();
+            for (Map.Entry<String, ChildData> child : children.entrySet())
+                result.put(child.getKey(), value(child.getValue()));
+            return result;
+        }
+    }
 }
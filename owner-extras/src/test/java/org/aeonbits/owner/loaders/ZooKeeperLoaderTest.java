@@ -8,9 +8,11 @@
 
 package org.aeonbits.owner.loaders;
 
+import org.aeonbits.owner.Accessible;
 import org.aeonbits.owner.Config;
 import org.aeonbits.owner.ConfigFactory;
 import org.aeonbits.owner.Factory;
+import org.aeonbits.owner.Mutable;
 import org.apache.curator.RetryPolicy;
 import org.apache.curator.RetrySleeper;
 import org.apache.curator.framework.CuratorFramework;
@@ -21,12 +23,21 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
 import java.io.IOException;
+import java.net.URI;
 import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static java.util.Arrays.asList;
+import static java.util.concurrent.TimeUnit.HOURS;
 import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.aeonbits.owner.Config.HotReload;
 import static org.aeonbits.owner.Config.Sources;
+import static org.aeonbits.owner.util.Util.eq;
 import static org.junit.Assert.*;
 
 /**
@@ -67,21 +78,109 @@ public class ZooKeeperLoaderTest {
         assertNull(config.thanks());
     }
 
+    @Test
+    public void shouldFetchManyChildren() throws Exception {
+        CuratorFramework client = newClient();
+        try {
+            for (int i = 0; i < 2000; i++)
+                setDataInZookeperServer(client, "/many", "key" + i, "value" + i);
+        } finally {
+            client.close();
+        }
+
+        ZooKeeperLoader loader = new ZooKeeperLoader();
+        try {
+            Properties result = new Properties();
+            loader.load(result, new URI("zookeeper://127.0.0.1:65403/many"));
+            assertEquals(2000, result.size());
+            assertEquals("value1234", result.getProperty("key1234"));
+        } finally {
+            loader.close();
+        }
+    }
+
+    @Test
+    public void shouldShareClientsUntilTheLastFactoryIsClosed() throws Exception {
+        Factory otherFactory = ConfigFactory.newInstance();
+        otherFactory.registerLoader(new ZooKeeperLoader());
+
+        ZooKeeperConfig config = configFactory.create(ZooKeeperConfig.class);
+        ZooKeeperConfig other = otherFactory.create(ZooKeeperConfig.class);
+        assertEquals("welcome", config.thanks());
+        assertEquals("welcome", other.thanks());
+        assertEquals(1, ZooKeeperLoader.sharedClients());
+
+        otherFactory.close();
+        assertEquals(1, ZooKeeperLoader.sharedClients());
+
+        configFactory.close();
+        assertEquals(0, ZooKeeperLoader.sharedClients());
+    }
+
+    @Sources("zookeeper://127.0.0.1:65403/test")
+    @HotReload(value = 1, unit = HOURS)
+    public static interface ZooKeeperHotReloadConfig extends Mutable, Accessible {
+        String thanks();
+        List<String> greetings();
+        String notAvailable();
+    }
+
+    static class CountingZooKeeperLoader extends ZooKeeperLoader {
+        final AtomicInteger loads = new AtomicInteger();
+
+        @Override
+        public void load(Properties result, URI uri) throws IOException {
+            loads.incrementAndGet();
+            super.load(result, uri);
+        }
+    }
+
+    @Test
+    public void shouldApplyPushedChangesWithoutReloading() throws Exception {
+        CountingZooKeeperLoader loader = new CountingZooKeeperLoader();
+        Factory factory = ConfigFactory.newInstance();
+        factory.registerLoader(loader);
+        final List<String> changedKeys = new CopyOnWriteArrayList<String>();
+        try {
+            ZooKeeperHotReloadConfig config = factory.create(ZooKeeperHotReloadConfig.class);
+            config.addPropertyChangeListener(new PropertyChangeListener() {
+                public void propertyChange(PropertyChangeEvent event) {
+                    changedKeys.add(event.getPropertyName());
+                }
+            });
+            CuratorFramework client = newClient();
+            try {
+                client.setData().forPath("/test/thanks", "thank you".getBytes());
+                waitFor(config, "thanks", "thank you");
+                setDataInZookeperServer(client, "/test", "notAvailable", "now available");
+                waitFor(config, "notAvailable", "now available");
+                client.delete().forPath("/test/greetings");
+                waitFor(config, "greetings", null);
+            } finally {
+                client.close();
+            }
+
+            assertEquals(asList("thanks", "notAvailable", "greetings"), changedKeys);
+            assertEquals(1, loader.loads.get());
+        } finally {
+            factory.close();
+        }
+    }
+
+    private void waitFor(ZooKeeperHotReloadConfig config, String key, String value) throws InterruptedException {
+        long timeout = System.currentTimeMillis() + 10000;
+        while (!eq(value, config.getProperty(key)) && System.currentTimeMillis() < timeout)
+            Thread.sleep(10);
+        assertEquals(value, config.getProperty(key));
+    }
+
     @Before
     public void before() throws Exception {
         server = new TestingServer(65403);
         server.start();
 
-        String connectString = server.getConnectString();
-
-        CuratorFramework client = CuratorFrameworkFactory.newClient(connectString, 50, 50, new RetryPolicy() {
-            public boolean allowRetry(int retryCount, long elapsedTimeMs, RetrySleeper sleeper) {
-                return false;
-            }
-        });
+        CuratorFramework client = newClient();
         try {
-            client.start();
-            client.blockUntilConnected(30, SECONDS);
             String basePath = "/test";
             setDataInZookeperServer(client, basePath, "thanks", "welcome");
             setDataInZookeperServer(client, basePath, "greetings", "hi,bonjour,hiya,hi!");
@@ -93,6 +192,18 @@ public class ZooKeeperLoaderTest {
         configFactory.registerLoader(new ZooKeeperLoader());
     }
 
+    private CuratorFramework newClient() throws InterruptedException {
+        CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), 50, 50,
+                new RetryPolicy() {
+                    public boolean allowRetry(int retryCount, long elapsedTimeMs, RetrySleeper sleeper) {
+                        return false;
+                    }
+                });
+        client.start();
+        client.blockUntilConnected(30, SECONDS);
+        return client;
+    }
+
     private void setDataInZookeperServer(CuratorFramework client,
                                          String basePath, String property, String value) throws Exception {
         String path = ZKPaths.makePath(basePath, property);
@@ -101,6 +212,7 @@ public class ZooKeeperLoaderTest {
 
     @After
     public void after() throws IOException {
+        configFactory.close();
         server.stop();
     }
 }
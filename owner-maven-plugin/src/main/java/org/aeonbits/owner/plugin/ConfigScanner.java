@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner.plugin;
+
+import org.aeonbits.owner.Config;
+import org.aeonbits.owner.ConfigFactory;
+import org.aeonbits.owner.Factory;
+import org.aeonbits.owner.loaders.Loader;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import static java.lang.String.format;
+import static org.aeonbits.owner.util.Util.fileFromURI;
+
+/**
+ * Finds the config interfaces among compiled classes, and checks that their values can be converted to the types
+ * returned by their methods.
+ * <p>
+ * Only the sources bundled in the classpath of the project (i.e. <tt>classpath:</tt> resources) are loaded: the other
+ * ones, like the environment variables, the system properties, the files outside the project or the remote sources,
+ * belong to the build machine, not to the runtime, and are treated as not available.
+ * </p>
+ *
+ * @author Luigi R. Viggiano
+ */
+class ConfigScanner {
+
+    private static final String CLASS_EXTENSION = ".class";
+
+    private final File classesDirectory;
+    private final List<File> classpath;
+    private final ClassLoader classLoader;
+    private final List<String> warnings = new ArrayList<String>();
+
+    /**
+     * @param classesDirectory  the directory of the compiled classes.
+     * @param classpath         the directories and the jars of the classpath, other than the classes directory.
+     * @param classLoader       the class loader loading from the classes directory and from the classpath.
+     */
+    ConfigScanner(File classesDirectory, List<File> classpath, ClassLoader classLoader) {
+        this.classesDirectory = classesDirectory;
+        this.classpath = new ArrayList<File>();
+        this.classpath.add(classesDirectory);
+        this.classpath.addAll(classpath);
+        this.classLoader = classLoader;
+    }
+
+    /**
+     * @return the config interfaces compiled in the classes directory.
+     */
+    List<Class<? extends Config>> scan() {
+        List<Class<? extends Config>> result = new ArrayList<Class<? extends Config>>();
+        scan(classesDirectory, "", result);
+        return result;
+    }
+
+    private void scan(File directory, String packagePrefix, List<Class<? extends Config>> result) {
+        File[] files = directory.listFiles();
+        if (files == null)
+            return;
+        for (File file : files) {
+            String name = file.getName();
+            if (file.isDirectory()) {
+                scan(file, packagePrefix + name + ".", result);
+            } else if (name.endsWith(CLASS_EXTENSION) && !name.contains("-")) {
+                Class<? extends Config> config = configClass(packagePrefix +
+                        name.substring(0, name.length() - CLASS_EXTENSION.length()));
+                if (config != null)
+                    result.add(config);
+            }
+        }
+    }
+
+    private Class<? extends Config> configClass(String className) {
+        try {
+            Class<?> clazz = Class.forName(className, false, classLoader);
+            if (clazz.isInterface() && clazz != Config.class && Config.class.isAssignableFrom(clazz))
+                return clazz.asSubclass(Config.class);
+        } catch (ClassNotFoundException e) {
+            warnings.add(format("%s can't be loaded: %s", className, e));
+        } catch (LinkageError e) {
+            warnings.add(format("%s can't be loaded: %s", className, e));
+        }
+        return null;
+    }
+
+    /**
+     * @return the problems met loading the classes found in the classes directory.
+     */
+    List<String> warnings() {
+        return warnings;
+    }
+
+    /**
+     * Creates an instance of the given config interface, and invokes all its methods not requiring parameters, so that
+     * the default values and the values found in the sources bundled in the classpath are converted to the returned
+     * types.
+     *
+     * @return the errors found, empty if there is none.
+     */
+    List<String> validate(Class<? extends Config> clazz) {
+        List<String> errors = new ArrayList<String>();
+        Factory factory = ConfigFactory.newInstance();
+        factory.registerLoader(new UnbundledSourcesLoader(classpath));
+        try {
+            Config config = factory.create(clazz);
+            // invoking the handler rather than the proxy, missing values of primitive types are not reported: they
+            // may well be provided by the sources available at runtime.
+            InvocationHandler handler = Proxy.getInvocationHandler(config);
+            for (Method method : clazz.getMethods()) {
+                if (isLibraryMethod(method) || method.getParameterTypes().length > 0)
+                    continue;
+                try {
+                    handler.invoke(config, method, null);
+                } catch (Throwable e) {
+                    errors.add(format("%s.%s(): %s", clazz.getName(), method.getName(), e));
+                }
+            }
+        } catch (RuntimeException e) {
+            errors.add(format("%s: %s", clazz.getName(), e));
+        } finally {
+            factory.close();
+        }
+        return errors;
+    }
+
+    private static boolean isLibraryMethod(Method method) {
+        return method.getDeclaringClass().getPackage() == Config.class.getPackage();
+    }
+
+    /**
+     * Takes precedence over the other loaders for the sources not bundled in the classpath, reporting them as not
+     * available.
+     */
+    private static class UnbundledSourcesLoader implements Loader {
+        private final List<File> classpath;
+
+        UnbundledSourcesLoader(List<File> classpath) {
+            this.classpath = classpath;
+        }
+
+        public boolean accept(URI uri) {
+            File file = fileFromURI(uri);
+            return file == null || !isBundled(file);
+        }
+
+        private boolean isBundled(File file) {
+            String path = canonicalPath(file);
+            for (File element : classpath) {
+                String elementPath = canonicalPath(element);
+                if (path.equals(elementPath) || path.startsWith(elementPath + File.separator))
+                    return true;
+            }
+            return false;
+        }
+
+        private static String canonicalPath(File file) {
+            try {
+                return file.getCanonicalPath();
+            } catch (IOException e) {
+                return file.getAbsolutePath();
+            }
+        }
+
+        public void load(Properties result, URI uri) throws IOException {
+            throw new IOException(uri + " is not bundled in the classpath, and is not loaded at build time");
+        }
+
+        public String defaultSpecFor(String uriPrefix) {
+            return null;
+        }
+    }
+
+}
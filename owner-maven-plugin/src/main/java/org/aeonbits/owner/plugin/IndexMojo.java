@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner.plugin;
+
+import org.aeonbits.owner.Config;
+import org.aeonbits.owner.ConfigIndex;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.plugins.annotations.ResolutionScope;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Validates the config interfaces of the project, and packages an index of their default values, read at runtime by
+ * {@link ConfigIndex} in place of the annotations.
+ * <p>
+ * Every method not requiring parameters is invoked on an instance of each config interface, so that the default
+ * values, and the values of the sources bundled in the classpath of the project, are converted to the returned types:
+ * conversion errors make the build fail, unless <tt>failOnError</tt> is set to <tt>false</tt>. The other sources,
+ * like the environment variables or the remote sources, are not loaded at build time. Only the default values are
+ * packaged in the index.
+ * </p>
+ *
+ * @author Luigi R. Viggiano
+ * @since 1.0.13
+ */
+@Mojo(name = "index", defaultPhase = LifecyclePhase.PROCESS_CLASSES,
+        requiresDependencyResolution = ResolutionScope.COMPILE, threadSafe = true)
+public class IndexMojo extends AbstractMojo {
+
+    @Parameter(defaultValue = "${project.build.outputDirectory}", required = true, readonly = true)
+    File classesDirectory;
+
+    @Parameter(defaultValue = "${project.compileClasspathElements}", required = true, readonly = true)
+    List<String> classpathElements;
+
+    /**
+     * Whether the build should fail when a value can't be converted to the type returned by its method.
+     */
+    @Parameter(property = "owner.failOnError", defaultValue = "true")
+    boolean failOnError = true;
+
+    /**
+     * Skips the validation and the indexing.
+     */
+    @Parameter(property = "owner.skip", defaultValue = "false")
+    boolean skip;
+
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        if (skip || !classesDirectory.isDirectory())
+            return;
+
+        ClassLoader classLoader = new URLClassLoader(urls(), getClass().getClassLoader());
+        Thread thread = Thread.currentThread();
+        ClassLoader contextClassLoader = thread.getContextClassLoader();
+        thread.setContextClassLoader(classLoader);
+        try {
+            ConfigScanner scanner = new ConfigScanner(classesDirectory, classpath(), classLoader);
+            List<Class<? extends Config>> classes = scanner.scan();
+            for (String warning : scanner.warnings())
+                getLog().warn(warning);
+
+            List<String> errors = new ArrayList<String>();
+            for (Class<? extends Config> clazz : classes)
+                errors.addAll(scanner.validate(clazz));
+            for (String error : errors)
+                getLog().error(error);
+            if (!errors.isEmpty() && failOnError)
+                throw new MojoFailureException(errors.size() + " invalid config value(s) found, see the log above.");
+
+            if (!classes.isEmpty()) {
+                write(classes);
+                getLog().info("Indexed " + classes.size() + " config interface(s).");
+            }
+        } finally {
+            thread.setContextClassLoader(contextClassLoader);
+        }
+    }
+
+    private List<File> classpath() {
+        List<File> result = new ArrayList<File>();
+        for (String element : classpathElements)
+            result.add(new File(element));
+        return result;
+    }
+
+    private URL[] urls() throws MojoExecutionException {
+        List<URL> result = new ArrayList<URL>();
+        try {
+            result.add(classesDirectory.toURI().toURL());
+            for (String element : classpathElements)
+                result.add(new File(element).toURI().toURL());
+        } catch (MalformedURLException e) {
+            throw new MojoExecutionException("Invalid classpath element", e);
+        }
+        return result.toArray(new URL[result.size()]);
+    }
+
+    private void write(List<Class<? extends Config>> classes) throws MojoExecutionException {
+        File target = new File(classesDirectory, ConfigIndex.RESOURCE);
+        target.getParentFile().mkdirs();
+        try {
+            OutputStream output = new FileOutputStream(target);
+            try {
+                ConfigIndex.write(classes, output);
+            } finally {
+                output.close();
+            }
+        } catch (IOException e) {
+            throw new MojoExecutionException("Failed to write " + target, e);
+        }
+    }
+
+}
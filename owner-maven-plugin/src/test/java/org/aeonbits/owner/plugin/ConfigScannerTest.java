@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner.plugin;
+
+import org.aeonbits.owner.Config;
+import org.aeonbits.owner.Config.Sources;
+import org.aeonbits.owner.Reloadable;
+import org.apache.maven.plugin.MojoFailureException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Luigi R. Viggiano
+ */
+public class ConfigScannerTest {
+    private final File classesDirectory = new File("target/test-classes");
+    private final File index = new File(classesDirectory, "META-INF/owner/index.properties");
+    private ConfigScanner scanner;
+
+    interface ValidConfig extends Config, Reloadable {
+        @DefaultValue("80")
+        int port();
+
+        double ratio();
+
+        @DefaultValue("Hello %s")
+        String greeting(String name);
+    }
+
+    @Sources("classpath:org/aeonbits/owner/plugin/InvalidSourceConfig.properties")
+    interface InvalidSourceConfig extends Config {
+        int port();
+    }
+
+    @Sources({"system:env", "system:properties"})
+    interface BuildMachineConfig extends Config {
+        @DefaultValue("80")
+        int port();
+    }
+
+    interface InvalidDefaultConfig extends Config {
+        @DefaultValue("abc")
+        int port();
+
+        @DefaultValue("valid")
+        String name();
+    }
+
+    @Before
+    public void before() {
+        scanner = new ConfigScanner(classesDirectory, Collections.<File>emptyList(), getClass().getClassLoader());
+    }
+
+    @After
+    public void after() {
+        index.delete();
+    }
+
+    @Test
+    public void shouldFindConfigInterfaces() {
+        List<Class<? extends Config>> classes = scanner.scan();
+
+        assertTrue(classes.contains(ValidConfig.class));
+        assertTrue(classes.contains(InvalidSourceConfig.class));
+        assertTrue(classes.contains(InvalidDefaultConfig.class));
+        assertTrue(classes.contains(BuildMachineConfig.class));
+        assertEquals(4, classes.size());
+        assertTrue(scanner.warnings().isEmpty());
+    }
+
+    @Test
+    public void shouldAcceptValidConfig() {
+        assertEquals(Collections.<String>emptyList(), scanner.validate(ValidConfig.class));
+    }
+
+    @Test
+    public void shouldReportInvalidDefaultValues() {
+        List<String> errors = scanner.validate(InvalidDefaultConfig.class);
+
+        assertEquals(1, errors.size());
+        assertTrue(errors.get(0).contains("InvalidDefaultConfig.port()"));
+    }
+
+    @Test
+    public void shouldReportInvalidSourceValues() {
+        List<String> errors = scanner.validate(InvalidSourceConfig.class);
+
+        assertEquals(1, errors.size());
+        assertTrue(errors.get(0).contains("notanumber"));
+    }
+
+    @Test
+    public void shouldNotLoadSourcesOfTheBuildMachine() {
+        String previous = System.setProperty("port", "notanumber");
+        try {
+            assertEquals(Collections.<String>emptyList(), scanner.validate(BuildMachineConfig.class));
+        } finally {
+            if (previous == null)
+                System.clearProperty("port");
+            else
+                System.setProperty("port", previous);
+        }
+    }
+
+    @Test
+    public void shouldFailTheBuildOnInvalidValues() throws Exception {
+        IndexMojo mojo = mojo();
+        try {
+            mojo.execute();
+            fail("MojoFailureException expected");
+        } catch (MojoFailureException expected) {
+            assertFalse(index.exists());
+        }
+    }
+
+    @Test
+    public void shouldWriteTheIndex() throws Exception {
+        IndexMojo mojo = mojo();
+        mojo.failOnError = false;
+        mojo.execute();
+
+        Properties properties = new Properties();
+        InputStream input = new FileInputStream(index);
+        try {
+            properties.load(input);
+        } finally {
+            input.close();
+        }
+        assertEquals("80", properties.getProperty(ValidConfig.class.getName() + "/port"));
+        assertNotNull(properties.getProperty(ValidConfig.class.getName()));
+    }
+
+    private IndexMojo mojo() {
+        IndexMojo mojo = new IndexMojo();
+        mojo.classesDirectory = classesDirectory;
+        mojo.classpathElements = Collections.emptyList();
+        return mojo;
+    }
+
+}
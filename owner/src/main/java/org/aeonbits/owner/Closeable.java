@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner;
+
+/**
+ * <p>Allows a <code>Config</code> object to release the resources it holds, when it is not needed anymore.</p>
+ *
+ * <p>Example:</p>
+ *
+ * <pre>
+ *     &#64;HotReload(type = HotReloadType.ASYNC)
+ *     public interface MyConfig extends Config, Closeable {
+ *         int someProperty();
+ *     }
+ *
+ *     public void doSomething() {
+ *         MyConfig cfg = ConfigFactory.create(MyConfig.class);
+ *         try {
+ *             int value = cfg.someProperty();
+ *             ...
+ *         } finally {
+ *             cfg.close();
+ *         }
+ *     }
+ * </pre>
+ *
+ * <p>Closing a config object stops the {@link Config.HotReload hot reload}, removes all the registered listeners and
+ * evicts the object from the {@link ConfigCache}. Property values remain accessible after the config object has been
+ * closed, but they won't be updated anymore by the hot reload.</p>
+ *
+ * @author Luigi R. Viggiano
+ * @since 1.0.13
+ */
+public interface Closeable extends Config, java.io.Closeable {
+
+    /**
+     * Releases the resources held by this config object. Invoking this method more than once has no effect.
+     *
+     * @since 1.0.13
+     */
+    void close();
+
+}
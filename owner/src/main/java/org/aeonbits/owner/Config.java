@@ -12,14 +12,14 @@ package org.aeonbits.owner;
 import org.aeonbits.owner.crypto.Decryptor;
 import org.aeonbits.owner.crypto.IdentityDecryptor;
 
-import java.io.IOException;
 import java.io.Serializable;
 import java.lang.annotation.Documented;
 import java.lang.annotation.Retention;
 import java.lang.annotation.Target;
 import java.net.URI;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Properties;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 import static java.lang.annotation.ElementType.METHOD;
@@ -28,13 +28,11 @@ import static java.lang.annotation.RetentionPolicy.RUNTIME;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.aeonbits.owner.Config.HotReloadType.SYNC;
 import static org.aeonbits.owner.Config.LoadType.FIRST;
-import static org.aeonbits.owner.util.Util.ignore;
-import static org.aeonbits.owner.util.Util.reverse;
 /**
  * Marker interface that must be implemented by all Config sub-interfaces.
  * <p>
- * Sub-interfaces may also extend {@link Accessible} to allow some debugging facility, or {@link Reloadable} to allow the
- * user to programmatically reload properties.
+ * Sub-interfaces may also extend {@link Accessible} to allow some debugging facility, {@link Reloadable} to allow the
+ * user to programmatically reload properties, or {@link Closeable} to release the resources held by the config object.
  * </p>
  *
  * @author Luigi R. Viggiano
@@ -54,6 +52,32 @@ public interface Config extends Serializable {
     @Documented
     @interface LoadPolicy {
         LoadType value() default FIRST;
+
+        /**
+         * Specifies whether the sources should be loaded concurrently. When set to <code>true</code>, the sources
+         * are fetched and parsed in parallel by background threads, and then merged in the same order as they would
+         * have been when loaded sequentially. With {@link LoadType#FIRST}, all the sources are tried at the same
+         * time, but the first available one in the specified order is still the one being used.
+         * <p>
+         * This is useful when there are many sources, or when some of them are slow to load (i.e. remote ones).
+         *
+         * @return <code>true</code> if the sources should be loaded concurrently; default is <code>false</code>.
+         * @since 1.0.13
+         */
+        boolean parallel() default false;
+
+        /**
+         * Specifies whether the sources should be loaded at the first access to the config object, instead of when it
+         * is created. When many threads access the config object for the first time concurrently, the sources are
+         * loaded only once, and all the threads wait for that load to complete.
+         * <p>
+         * This is useful for config objects created at startup but only used by features rarely needed.
+         *
+         * @return <code>true</code> if the sources should be loaded at the first access; default is
+         * <code>false</code>.
+         * @since 1.0.13
+         */
+        boolean lazy() default false;
     }
 
     /**
@@ -127,16 +151,17 @@ public interface Config extends Serializable {
          */
         FIRST {
             @Override
-            Properties load(List<URI> uris, LoadersManager loaders) {
-                Properties result = new Properties();
-                for (URI uri : uris)
-                    try {
-                        loaders.load(result, uri);
+            List<LoadedSource> load(List<URI> uris, LoadersManager loaders, boolean parallel,
+                                    Map<URI, LoadedSource> prefetched, boolean reload) {
+                if (parallel)
+                    return loaders.loadFirst(uris, prefetched, reload);
+                List<LoadedSource> result = new ArrayList<LoadedSource>();
+                for (URI uri : uris) {
+                    LoadedSource source = loaders.loadSource(uri, prefetched, reload);
+                    result.add(source);
+                    if (source.isLoaded())
                         break;
-                    } catch (IOException ex) {
-                        // happens when a file specified in the sources is not found or cannot be read.
-                        ignore();
-                    }
+                }
                 return result;
             }
         },
@@ -147,20 +172,28 @@ public interface Config extends Serializable {
          */
         MERGE {
             @Override
-            Properties load(List<URI> uris, LoadersManager loaders) {
-                Properties result = new Properties();
-                for (URI uri :  reverse(uris))
-                    try {
-                        loaders.load(result, uri);
-                    } catch (IOException ex) {
-                        // happens when a file specified in the sources is not found or cannot be read.
-                        ignore();
-                    }
+            List<LoadedSource> load(List<URI> uris, LoadersManager loaders, boolean parallel,
+                                    Map<URI, LoadedSource> prefetched, boolean reload) {
+                if (parallel)
+                    return loaders.loadAll(uris, prefetched, reload);
+                List<LoadedSource> result = new ArrayList<LoadedSource>();
+                for (URI uri : uris)
+                    result.add(loaders.loadSource(uri, prefetched, reload));
                 return result;
             }
         };
 
-        abstract Properties load(List<URI> uris, LoadersManager loaders);
+        /**
+         * Loads the given sources.
+         *
+         * @param prefetched the sources already loaded for the config object, or <code>null</code>.
+         * @param reload <code>true</code> if the sources are explicitly reloaded, so that they are not served from
+         * caches.
+         * @return the sources attempted, in the same order of the given uris; the ones that could not be loaded,
+         * because not found or not readable, are reported as not loaded.
+         */
+        abstract List<LoadedSource> load(List<URI> uris, LoadersManager loaders, boolean parallel,
+                                         Map<URI, LoadedSource> prefetched, boolean reload);
     }
 
     /**
@@ -239,6 +272,10 @@ public interface Config extends Serializable {
          * <p>
          * {@link HotReloadType#ASYNC}: the configuration file is checked by a background thread despite the fact that
          * the config object is used or not.
+         * <p>
+         * {@link HotReloadType#DEFERRED}: like {@link HotReloadType#SYNC}, the configuration file is checked when a
+         * method is invoked on the config object, but the check and the reload are performed by a background thread,
+         * while the invoked method returns the current value without waiting.
          *
          * @return the hot reload type; default is SYNC.
          */
@@ -257,7 +294,16 @@ public interface Config extends Serializable {
         /**
          * The hot reload will happen in background at the specified interval.
          */
-        ASYNC
+        ASYNC,
+
+        /**
+         * The hot reload will happen when one of the methods is invoked on the <code>Config</code> class, but it is
+         * performed in background: the invoked method doesn't wait for the files to be checked and reloaded, and
+         * returns the current value. The new values become visible to the invocations following the reload.
+         *
+         * @since 1.0.13
+         */
+        DEFERRED
     }
 
     /**
@@ -8,22 +8,203 @@
 
 package org.aeonbits.owner;
 
+import java.lang.ref.Reference;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Utility class caching Config instances that can be used as Singletons.
  *
  * This class is designed to be thread safe.
  *
+ * <p>The cache is unbounded by default. It can be bounded with {@link #setMaximumSize(int)}, evicting the instances
+ * chosen by the {@link #setEvictionPolicy(EvictionPolicy) eviction policy}, and instances can be made to expire
+ * when not used for a while with {@link #setExpireAfterAccess(long, TimeUnit)}. Evicted and expired instances are
+ * closed, so that their hot reload is stopped; the instances {@link #remove(Object) removed} or {@link #clear()
+ * cleared} explicitly are not, since the caller may keep using them. The {@link #statistics() statistics} of the cache
+ * can be monitored with JMX.
+ *
+ * <p>An unbounded cache of strongly referenced instances that never expire costs a single hash lookup for each access.
+ * A bounded cache also keeps its instances in the order of the eviction policy, updated on each access, so that the
+ * instances to evict are found without sorting them.</p>
+ *
  * @author Luigi R. Viggiano
  * @since 1.0.6
  */
 public final class ConfigCache {
-    private static final ConcurrentMap<Object, Config> CACHE = new ConcurrentHashMap<Object, Config>();
+    private static final ConcurrentMap<Object, Entry> CACHE = new ConcurrentHashMap<Object, Entry>();
+    private static final ConcurrentMap<Object, FutureTask<Config>> PENDING =
+            new ConcurrentHashMap<Object, FutureTask<Config>>();
+    private static final ConfigCacheStatistics STATISTICS = new ConfigCacheStatistics();
+    private static final Object EVICTION_LOCK = new Object();
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    // the instances of a bounded cache, in eviction order; guarded by EVICTION_LOCK.
+    private static TreeSet<Position> evictionOrder = newOrder(EvictionPolicy.LRU);
+
+    private static volatile int maximumSize = 0;
+    private static volatile EvictionPolicy evictionPolicy = EvictionPolicy.LRU;
+    private static volatile long expireAfterAccess = 0;
+    private static volatile ValueReferences valueReferences = ValueReferences.STRONG;
+    private static volatile boolean referencedWeakly = false;
+
+    /**
+     * Specifies which instances are evicted when the cache exceeds its {@link #setMaximumSize(int) maximum size}.
+     *
+     * @since 1.0.13
+     */
+    public enum EvictionPolicy {
+        /** Evicts the least recently used instance. */
+        LRU {
+            @Override
+            int compare(Position first, Position second) {
+                return compareLong(first.lastAccess, second.lastAccess);
+            }
+        },
+        /** Evicts the least frequently used instance, the least recently used one among the equally used ones. */
+        LFU {
+            @Override
+            int compare(Position first, Position second) {
+                int result = compareLong(first.accesses, second.accesses);
+                return result != 0 ? result : LRU.compare(first, second);
+            }
+        };
+
+        abstract int compare(Position first, Position second);
+    }
+
+    /**
+     * Specifies how the cache references the instances it holds.
+     *
+     * @since 1.0.13
+     */
+    public enum ValueReferences {
+        /** The instances are kept until removed or evicted. */
+        STRONG,
+        /** The instances are removed as soon as they are not referenced anymore outside the cache. */
+        WEAK,
+        /** The instances not referenced anymore outside the cache are removed when memory is needed. */
+        SOFT
+    }
+
+    private static final class Entry {
+        private final Object key;
+        private final Config strongValue;
+        private final Reference<Config> referenceValue;
+        private final long sequence = SEQUENCE.incrementAndGet();
+        private volatile long lastAccess = System.nanoTime();
+        private volatile long accesses = 1;
+        private Position position; // guarded by EVICTION_LOCK, null unless the entry is in the eviction order.
+
+        Entry(Object key, Config value, ValueReferences references) {
+            this.key = key;
+            this.strongValue = references == ValueReferences.STRONG ? value : null;
+            this.referenceValue = references == ValueReferences.WEAK ? new WeakReference<Config>(value) :
+                    references == ValueReferences.SOFT ? new SoftReference<Config>(value) : null;
+        }
+
+        Config value() {
+            return referenceValue == null ? strongValue : referenceValue.get();
+        }
+
+        boolean isExpired(long now) {
+            long expiration = expireAfterAccess;
+            return expiration > 0 && now - lastAccess > expiration;
+        }
+
+        void touch() {
+            lastAccess = System.nanoTime();
+            accesses++; // concurrent accesses may be lost, which doesn't matter for an approximate frequency.
+            if (maximumSize > 0)
+                reorder(this);
+        }
+    }
+
+    /**
+     * The position of an entry in the eviction order, as of its last access. It's replaced, rather than changed, when
+     * the entry is accessed, so that the order is never corrupted by the concurrent accesses.
+     */
+    private static final class Position {
+        private final Entry entry;
+        private final long lastAccess;
+        private final long accesses;
+
+        Position(Entry entry) {
+            this.entry = entry;
+            this.lastAccess = entry.lastAccess;
+            this.accesses = entry.accesses;
+        }
+    }
+
+    private static TreeSet<Position> newOrder(final EvictionPolicy policy) {
+        return new TreeSet<Position>(new Comparator<Position>() {
+            public int compare(Position first, Position second) {
+                int result = policy.compare(first, second);
+                return result != 0 ? result : compareLong(first.entry.sequence, second.entry.sequence);
+            }
+        });
+    }
+
+    /**
+     * Puts the given entry in the eviction order, unless it has been removed from the cache in the meantime.
+     */
+    private static void order(Entry entry) {
+        synchronized (EVICTION_LOCK) {
+            if (entry.position == null && maximumSize > 0 && CACHE.get(entry.key) == entry) {
+                entry.position = new Position(entry);
+                evictionOrder.add(entry.position);
+            }
+        }
+    }
+
+    private static void reorder(Entry entry) {
+        synchronized (EVICTION_LOCK) {
+            if (entry.position != null && evictionOrder.remove(entry.position)) {
+                entry.position = new Position(entry);
+                evictionOrder.add(entry.position);
+            }
+        }
+    }
+
+    private static void unorder(Entry entry) {
+        synchronized (EVICTION_LOCK) {
+            if (entry.position != null) {
+                evictionOrder.remove(entry.position);
+                entry.position = null;
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the eviction order, for the current maximum size and eviction policy.
+     */
+    private static void reorderAll() {
+        synchronized (EVICTION_LOCK) {
+            for (Position position : evictionOrder)
+                position.entry.position = null;
+            evictionOrder = newOrder(evictionPolicy);
+            if (maximumSize > 0)
+                for (Entry entry : CACHE.values())
+                    order(entry);
+        }
+    }
 
     /** Don't let anyone instantiate this class */
     private ConfigCache() {}
@@ -73,6 +254,7 @@ public final class ConfigCache {
 
     /**
      * Gets from the cache or create, an instance of the given class using the given imports.
+     * Concurrent invocations for the same key create the instance only once, and all get the same instance.
      *
      * @param factory   the factory to use to eventually create the instance.
      * @param key       the key object to be used to identify the instance in the cache.
@@ -85,10 +267,118 @@ public final class ConfigCache {
     public static <T extends Config> T getOrCreate(Factory factory, Object key,
                                                    Class<? extends T> clazz, Map<?, ?>... imports) {
         T existing = get(key);
-        if (existing != null) return existing;
-        T created = factory.create(clazz, imports);
-        T raced = add(key, created);
-        return raced != null ? raced : created;
+        if (existing != null) {
+            STATISTICS.recordHit();
+            return existing;
+        }
+        STATISTICS.recordMiss();
+
+        // concurrent callers missing the same key wait for a single creation, rather than creating their own.
+        FutureTask<Config> creation = new FutureTask<Config>(new Creation(factory, key, clazz, imports));
+        FutureTask<Config> inFlight = PENDING.putIfAbsent(key, creation);
+        if (inFlight == null) {
+            inFlight = creation;
+            try {
+                creation.run();
+            } finally {
+                // a failed creation is not kept, so that the next caller tries again.
+                PENDING.remove(key, creation);
+            }
+        }
+        return ConfigCache.<T>await(inFlight);
+    }
+
+    private static class Creation implements Callable<Config> {
+        private final Factory factory;
+        private final Object key;
+        private final Class<? extends Config> clazz;
+        private final Map<?, ?>[] imports;
+
+        Creation(Factory factory, Object key, Class<? extends Config> clazz, Map<?, ?>[] imports) {
+            this.factory = factory;
+            this.key = key;
+            this.clazz = clazz;
+            this.imports = imports;
+        }
+
+        public Config call() {
+            Config existing = get(key);
+            if (existing != null) return existing;
+            Config created = create();
+            Config raced = add(key, created);
+            if (raced == null) return created;
+            close(created);
+            return raced;
+        }
+
+        private Config create() {
+            long start = System.nanoTime();
+            boolean successful = false;
+            try {
+                Config result = factory.create(clazz, imports);
+                successful = true;
+                return result;
+            } finally {
+                STATISTICS.recordLoad(successful, System.nanoTime() - start);
+            }
+        }
+    }
+
+    /**
+     * Releases an instance that is not in the cache anymore, or that lost the race with another one {@link
+     * #add(Object, Config) added} to the cache.
+     */
+    private static void close(Config instance) {
+        PropertiesManager manager = manager(instance);
+        if (manager != null)
+            manager.close();
+    }
+
+    /**
+     * @return the manager of the given instance, or <code>null</code> if it was not created by a {@link Factory} of
+     * this library.
+     */
+    private static PropertiesManager manager(Object instance) {
+        if (instance == null || !Proxy.isProxyClass(instance.getClass())) return null;
+        InvocationHandler handler = Proxy.getInvocationHandler(instance);
+        return handler instanceof PropertiesInvocationHandler ?
+                ((PropertiesInvocationHandler) handler).propertiesManager : null;
+    }
+
+    /**
+     * Records in the manager of the given instance the key it's cached with, so that the instance is {@link
+     * #evict(Object) evicted} by key when closed, or forgets it.
+     */
+    private static void keyed(Object key, Config instance, boolean cached) {
+        PropertiesManager manager = manager(instance);
+        if (manager == null) return;
+        if (cached)
+            manager.addCacheKey(key);
+        else
+            manager.removeCacheKey(key);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends Config> T await(FutureTask<Config> creation) {
+        boolean interrupted = false;
+        try {
+            while (true)
+                try {
+                    return (T) creation.get();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            if (cause instanceof Error)
+                throw (Error) cause;
+            throw new IllegalStateException(cause);
+        } finally {
+            if (interrupted)
+                Thread.currentThread().interrupt();
+        }
     }
 
     /**
@@ -100,7 +390,15 @@ public final class ConfigCache {
      */
     @SuppressWarnings("unchecked")
     public static <T extends Config> T get(Object key) {
-        return (T) CACHE.get(key);
+        Entry entry = CACHE.get(key);
+        if (entry == null) return null;
+        Config value = entry.value();
+        if (value == null || entry.isExpired(System.nanoTime())) {
+            evict(entry, value);
+            return null;
+        }
+        entry.touch();
+        return (T) value;
     }
 
     /**
@@ -114,7 +412,156 @@ public final class ConfigCache {
      */
     @SuppressWarnings("unchecked")
     public static <T extends Config> T add(Object key, T instance) {
-        return (T) CACHE.putIfAbsent(key, instance);
+        Entry entry = new Entry(key, instance, valueReferences);
+        if (entry.referenceValue != null)
+            referencedWeakly = true;
+        keyed(key, instance, true); // before adding it, so that closing it meanwhile evicts it.
+        while (true) {
+            Entry previous = CACHE.putIfAbsent(key, entry);
+            if (previous == null)
+                break;
+            Config value = previous.value();
+            if (value != null && !previous.isExpired(System.nanoTime())) {
+                previous.touch();
+                if (value != instance)
+                    keyed(key, instance, false);
+                return (T) value;
+            }
+            if (CACHE.replace(key, previous, entry)) {
+                unorder(previous);
+                STATISTICS.recordEviction();
+                if (value != null) {
+                    keyed(key, value, false);
+                    close(value);
+                }
+                break;
+            }
+        }
+        if (maximumSize > 0)
+            order(entry);
+        if (maximumSize > 0 || expireAfterAccess > 0 || referencedWeakly)
+            evictIfNeeded(entry);
+        return null;
+    }
+
+    private static void evict(Entry entry, Config value) {
+        if (CACHE.remove(entry.key, entry)) {
+            unorder(entry);
+            STATISTICS.recordEviction();
+            if (value != null) {
+                keyed(entry.key, value, false);
+                close(value);
+            }
+        }
+    }
+
+    /**
+     * Removes the instances reclaimed by the garbage collector and the expired ones, if any may be; then, if the cache
+     * is still larger than its maximum size, the first instances in eviction order, except the one just added.
+     */
+    private static void evictIfNeeded(Entry added) {
+        synchronized (EVICTION_LOCK) {
+            if (expireAfterAccess > 0 || referencedWeakly) {
+                long now = System.nanoTime();
+                for (Entry entry : CACHE.values()) {
+                    Config value = entry.value();
+                    if (value == null || entry.isExpired(now))
+                        evict(entry, value);
+                }
+            }
+
+            int excess = maximumSize > 0 ? CACHE.size() - maximumSize : 0;
+            if (excess <= 0) return;
+            List<Entry> victims = new ArrayList<Entry>(excess);
+            for (Iterator<Position> i = evictionOrder.iterator(); i.hasNext() && victims.size() < excess; ) {
+                Entry entry = i.next().entry;
+                if (entry != added)
+                    victims.add(entry);
+            }
+            for (Entry entry : victims)
+                evict(entry, entry.value());
+        }
+    }
+
+    private static int compareLong(long first, long second) {
+        return first < second ? -1 : first == second ? 0 : 1;
+    }
+
+    /**
+     * Sets the maximum number of instances kept in the cache; when a new instance exceeds it, the instances chosen by
+     * the {@link #setEvictionPolicy(EvictionPolicy) eviction policy} are removed and closed.
+     *
+     * @param size  the maximum number of instances, or <code>0</code> for an unbounded cache (the default).
+     * @since 1.0.13
+     */
+    public static void setMaximumSize(int size) {
+        if (size < 0)
+            throw new IllegalArgumentException("size can't be negative");
+        synchronized (EVICTION_LOCK) {
+            maximumSize = size;
+            reorderAll();
+        }
+        evictIfNeeded(null);
+    }
+
+    /**
+     * Sets which instances are evicted when the cache exceeds its maximum size; the default is {@link
+     * EvictionPolicy#LRU}.
+     *
+     * @param policy    the eviction policy.
+     * @since 1.0.13
+     */
+    public static void setEvictionPolicy(EvictionPolicy policy) {
+        if (policy == null)
+            throw new IllegalArgumentException("policy can't be null");
+        synchronized (EVICTION_LOCK) {
+            evictionPolicy = policy;
+            reorderAll();
+        }
+    }
+
+    /**
+     * Sets how long the instances are kept in the cache after they have been last used; expired instances are
+     * removed and closed.
+     *
+     * @param duration  the time after which unused instances expire, or <code>0</code> for instances that never
+     *                  expire (the default).
+     * @param unit      the unit of the duration.
+     * @since 1.0.13
+     */
+    public static void setExpireAfterAccess(long duration, TimeUnit unit) {
+        if (duration < 0)
+            throw new IllegalArgumentException("duration can't be negative");
+        expireAfterAccess = unit.toNanos(duration);
+        evictIfNeeded(null);
+    }
+
+    /**
+     * Sets how the instances added to the cache from now on are referenced; the default is {@link
+     * ValueReferences#STRONG}. Instances reclaimed by the garbage collector are not closed, but
+     * their hot reload is stopped anyway, since it references them weakly.
+     *
+     * @param references    how the instances are referenced.
+     * @since 1.0.13
+     */
+    public static void setValueReferences(ValueReferences references) {
+        if (references == null)
+            throw new IllegalArgumentException("references can't be null");
+        valueReferences = references;
+    }
+
+    /**
+     * Returns the statistics of the cache, which are updated as the cache is used.
+     *
+     * @return the statistics of the cache.
+     * @since 1.0.13
+     */
+    public static ConfigCacheStatistics statistics() {
+        return STATISTICS;
+    }
+
+    static int size() {
+        return CACHE.size();
     }
 
     /**
@@ -133,9 +580,17 @@ public final class ConfigCache {
     /**
      * Removes all of the cached instances.
      * The cache will be empty after this call returns.
+     *
+     * <p>Unlike the evicted instances, the removed ones are not closed, since they may still be in use.
      */
     public static void clear() {
-        CACHE.clear();
+        synchronized (EVICTION_LOCK) {
+            for (Entry entry : CACHE.values())
+                keyed(entry.key, entry.value(), false);
+            CACHE.clear();
+            reorderAll();
+            referencedWeakly = false;
+        }
     }
 
     /**
@@ -145,7 +600,8 @@ public final class ConfigCache {
      * or <code>null</code> if the cache contained no instance for the given key.
      *
      * <p>The cache will not contain the instance for the specified key once the
-     * call returns.
+     * call returns. Unlike the evicted instances, the removed one is not closed, since
+     * it's returned to the caller.
      *
      * @param <T>   type of the interface.
      * @param key   key whose instance is to be removed from the cache.
@@ -154,7 +610,30 @@ public final class ConfigCache {
      */
     @SuppressWarnings("unchecked")
     public static <T extends Config> T remove(Object key) {
-        return (T) CACHE.remove(key);
+        Entry entry = CACHE.remove(key);
+        if (entry == null)
+            return null;
+        unorder(entry);
+        Config value = entry.value();
+        keyed(entry.key, value, false);
+        return (T) value;
+    }
+
+    /**
+     * Removes the given instance from the cache, whatever key it is associated to. The keys are the ones recorded by
+     * its manager when it was added, so the cache is not scanned.
+     *
+     * @param instance  the instance to be removed from the cache.
+     */
+    static void evict(Object instance) {
+        PropertiesManager manager = manager(instance);
+        if (manager == null) return;
+        for (Object key : manager.cacheKeys()) {
+            Entry entry = CACHE.get(key);
+            if (entry != null && entry.value() == instance && CACHE.remove(key, entry))
+                unorder(entry);
+            manager.removeCacheKey(key);
+        }
     }
 
 }
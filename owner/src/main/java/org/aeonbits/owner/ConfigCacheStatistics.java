@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Statistics of the {@link ConfigCache}, updated as the cache is used.
+ * <p>
+ * This class is a standard MBean, so the statistics can be monitored with JMX registering the object returned by
+ * {@link ConfigCache#statistics()}:
+ * </p>
+ * <pre>
+ *     ManagementFactory.getPlatformMBeanServer().registerMBean(ConfigCache.statistics(),
+ *             new ObjectName("org.aeonbits.owner:type=ConfigCache"));
+ * </pre>
+ *
+ * @author Luigi R. Viggiano
+ * @since 1.0.13
+ */
+public final class ConfigCacheStatistics implements ConfigCacheStatisticsMBean {
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong loadFailures = new AtomicLong();
+    private final AtomicLong loadTime = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    ConfigCacheStatistics() {}
+
+    void recordHit() {
+        hits.incrementAndGet();
+    }
+
+    void recordMiss() {
+        misses.incrementAndGet();
+    }
+
+    void recordLoad(boolean successful, long elapsedTime) {
+        (successful ? loads : loadFailures).incrementAndGet();
+        loadTime.addAndGet(elapsedTime);
+    }
+
+    void recordEviction() {
+        evictions.incrementAndGet();
+    }
+
+    public int getSize() {
+        return ConfigCache.size();
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public double getHitRate() {
+        long hits = getHitCount();
+        long lookups = hits + getMissCount();
+        return lookups == 0 ? 1.0 : (double) hits / lookups;
+    }
+
+    public long getLoadCount() {
+        return loads.get();
+    }
+
+    public long getLoadFailureCount() {
+        return loadFailures.get();
+    }
+
+    public long getTotalLoadTime() {
+        return loadTime.get();
+    }
+
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    public void reset() {
+        hits.set(0);
+        misses.set(0);
+        loads.set(0);
+        loadFailures.set(0);
+        loadTime.set(0);
+        evictions.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ConfigCacheStatistics{size=%d, hits=%d, misses=%d, loads=%d, loadFailures=%d, " +
+                "totalLoadTime=%dns, evictions=%d}", getSize(), getHitCount(), getMissCount(), getLoadCount(),
+                getLoadFailureCount(), getTotalLoadTime(), getEvictionCount());
+    }
+
+}
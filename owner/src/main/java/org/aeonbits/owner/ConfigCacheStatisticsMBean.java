@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner;
+
+/**
+ * Management interface of the {@link ConfigCacheStatistics statistics} of the {@link ConfigCache}.
+ *
+ * @author Luigi R. Viggiano
+ * @since 1.0.13
+ */
+public interface ConfigCacheStatisticsMBean {
+
+    /**
+     * @return the number of instances currently in the cache.
+     */
+    int getSize();
+
+    /**
+     * @return the number of times {@link ConfigCache#getOrCreate(Factory, Object, Class, java.util.Map[])} found
+     * the instance in the cache.
+     */
+    long getHitCount();
+
+    /**
+     * @return the number of times {@link ConfigCache#getOrCreate(Factory, Object, Class, java.util.Map[])} didn't
+     * find the instance in the cache.
+     */
+    long getMissCount();
+
+    /**
+     * @return the ratio of hits over the total lookups, or <code>1.0</code> if there were no lookups.
+     */
+    double getHitRate();
+
+    /**
+     * @return the number of instances created by the cache.
+     */
+    long getLoadCount();
+
+    /**
+     * @return the number of times the creation of an instance failed.
+     */
+    long getLoadFailureCount();
+
+    /**
+     * @return the total time spent creating instances, in nanoseconds.
+     */
+    long getTotalLoadTime();
+
+    /**
+     * @return the number of instances removed from the cache because of its size limit, because they expired or
+     * because they were reclaimed by the garbage collector.
+     */
+    long getEvictionCount();
+
+    /**
+     * Sets all the counters back to zero.
+     */
+    void reset();
+
+}
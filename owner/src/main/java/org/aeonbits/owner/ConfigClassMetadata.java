@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner;
+
+import org.aeonbits.owner.Config.DecryptorClass;
+import org.aeonbits.owner.Config.EncryptedValue;
+import org.aeonbits.owner.Config.HotReload;
+import org.aeonbits.owner.Config.LoadPolicy;
+import org.aeonbits.owner.Config.LoadType;
+import org.aeonbits.owner.Config.Sources;
+import org.aeonbits.owner.crypto.Decryptor;
+import org.aeonbits.owner.crypto.IdentityDecryptor;
+
+import java.lang.annotation.Annotation;
+import java.lang.ref.SoftReference;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.WeakHashMap;
+
+import static org.aeonbits.owner.Config.LoadType.FIRST;
+
+/**
+ * What the config objects need to know about their interface, collected through reflection once per interface and
+ * shared by all the config objects implementing it.
+ * <p>
+ * The metadata is softly referenced, so that it doesn't keep the interfaces from being unloaded: it's kept as long as
+ * some config object implementing the interface uses it, or until memory is needed.
+ * </p>
+ *
+ * @author Luigi R. Viggiano
+ * @since 1.0.13
+ */
+final class ConfigClassMetadata {
+
+    private static final Map<Class<?>, SoftReference<ConfigClassMetadata>> metadata =
+            new WeakHashMap<Class<?>, SoftReference<ConfigClassMetadata>>();
+
+    private final List<String[]> sourceSpecs;
+    private final LoadType loadType;
+    private final boolean parallelLoad;
+    private final boolean lazyLoad;
+    private final HotReload hotReload;
+    private final Class<? extends Decryptor> decryptorClass;
+    private final Map<Method, Class<? extends Decryptor>> encryptedValues;
+    private final Properties defaults;
+
+    private ConfigClassMetadata(Class<? extends Config> clazz) {
+        List<String[]> sourceSpecs = new ArrayList<String[]>();
+        sourceSpecs.add(specs(clazz.getAnnotation(Sources.class)));
+        for (Class<?> inter : clazz.getInterfaces())
+            sourceSpecs.add(specs(inter.getAnnotation(Sources.class)));
+        this.sourceSpecs = Collections.unmodifiableList(sourceSpecs);
+
+        LoadPolicy loadPolicy = annotation(clazz, LoadPolicy.class);
+        loadType = (loadPolicy != null) ? loadPolicy.value() : FIRST;
+        parallelLoad = loadPolicy != null && loadPolicy.parallel();
+        lazyLoad = loadPolicy != null && loadPolicy.lazy();
+        hotReload = annotation(clazz, HotReload.class);
+
+        DecryptorClass decryptor = clazz.getAnnotation(DecryptorClass.class);
+        decryptorClass = decryptor != null ? decryptor.value() : IdentityDecryptor.class;
+        Map<Method, Class<? extends Decryptor>> encryptedValues = new HashMap<Method, Class<? extends Decryptor>>();
+        for (Method method : clazz.getMethods())
+            if (PropertiesMapper.isEncryptedValue(method))
+                encryptedValues.put(method, method.getAnnotation(EncryptedValue.class).value());
+        this.encryptedValues = Collections.unmodifiableMap(encryptedValues);
+
+        defaults = new Properties();
+        ConfigIndex.defaults(defaults, clazz);
+    }
+
+    /**
+     * Returns the metadata of the given interface, collecting it if this wasn't done yet.
+     */
+    static ConfigClassMetadata of(Class<? extends Config> clazz) {
+        synchronized (metadata) {
+            SoftReference<ConfigClassMetadata> reference = metadata.get(clazz);
+            ConfigClassMetadata result = reference != null ? reference.get() : null;
+            if (result == null) {
+                result = new ConfigClassMetadata(clazz);
+                metadata.put(clazz, new SoftReference<ConfigClassMetadata>(result));
+            }
+            return result;
+        }
+    }
+
+    private static String[] specs(Sources sources) {
+        return sources != null ? sources.value() : null;
+    }
+
+    private static <A extends Annotation> A annotation(Class<?> clazz, Class<A> annotationClass) {
+        A result = clazz.getAnnotation(annotationClass);
+        if (result == null)
+            for (Class<?> inter : clazz.getInterfaces()) {
+                result = inter.getAnnotation(annotationClass);
+                if (result != null)
+                    break;
+            }
+        return result;
+    }
+
+    /**
+     * @return the specs of the {@link Sources} of the interface followed by the ones of the interfaces it extends;
+     * an element is <code>null</code> when the corresponding interface is not annotated, and the default specs apply.
+     */
+    List<String[]> sourceSpecs() {
+        return sourceSpecs;
+    }
+
+    LoadType loadType() {
+        return loadType;
+    }
+
+    boolean parallelLoad() {
+        return parallelLoad;
+    }
+
+    boolean lazyLoad() {
+        return lazyLoad;
+    }
+
+    /**
+     * @return the {@link HotReload} annotation of the interface, or <code>null</code> if it's not hot reloaded.
+     */
+    HotReload hotReload() {
+        return hotReload;
+    }
+
+    Class<? extends Decryptor> decryptorClass() {
+        return decryptorClass;
+    }
+
+    /**
+     * @return the methods annotated with {@link EncryptedValue}, along with the decryptor class they specify.
+     */
+    Map<Method, Class<? extends Decryptor>> encryptedValues() {
+        return encryptedValues;
+    }
+
+    /**
+     * @return the default values of the properties, shared by all the config objects: they must not be modified.
+     */
+    Properties defaults() {
+        return defaults;
+    }
+
+}
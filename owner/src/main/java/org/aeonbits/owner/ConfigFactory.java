@@ -10,13 +10,15 @@ package org.aeonbits.owner;
 
 import org.aeonbits.owner.loaders.Loader;
 
+import java.io.File;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.ThreadFactory;
 
-import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
-
 /**
  * A static factory class to instantiate {@link Config} instances.
  * <p>
@@ -39,11 +41,14 @@ public final class ConfigFactory {
 
     /**
      * Returns a new instance of a config Factory object.
+     * <p>
+     * The returned factory should be {@link Factory#close() closed} when it is not needed anymore, to release the
+     * thread used by the {@link Config.HotReloadType#ASYNC asynchronous hot reload}.
      *
      * @return a new instance of a config Factory object.
      */
     public static Factory newInstance() {
-        ScheduledExecutorService scheduler = newSingleThreadScheduledExecutor(new ThreadFactory() {
+        ScheduledExecutorService scheduler = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
             public Thread newThread(Runnable r) {
                 Thread result = new Thread(r);
                 result.setDaemon(true);
@@ -73,6 +78,33 @@ public final class ConfigFactory {
         return INSTANCE.create(clazz, imports);
     }
 
+    /**
+     * Creates the {@link Config} instances for all the specified interfaces at once, loading their sources
+     * concurrently.
+     *
+     * @param warmUp  <code>true</code> to invoke all the methods without arguments of the created instances.
+     * @param classes the interfaces extending from {@link Config} that you want to instantiate.
+     * @return the created instances, in the same order of the given interfaces.
+     * @see Factory#createAll(boolean, Class[])
+     * @since 1.0.13
+     */
+    public static List<Config> createAll(boolean warmUp, Class<? extends Config>... classes) {
+        return INSTANCE.createAll(warmUp, classes);
+    }
+
+    /**
+     * Same as {@link #createAll(boolean, Class[])}, but performed in background.
+     *
+     * @param warmUp  <code>true</code> to invoke all the methods without arguments of the created instances.
+     * @param classes the interfaces extending from {@link Config} that you want to instantiate.
+     * @return the future result of {@link #createAll(boolean, Class[])}.
+     * @see Factory#createAllAsync(boolean, Class[])
+     * @since 1.0.13
+     */
+    public static Future<List<Config>> createAllAsync(boolean warmUp, Class<? extends Config>... classes) {
+        return INSTANCE.createAllAsync(warmUp, classes);
+    }
+
     /**
      * Set a property in the ConfigFactory. Those properties will be used to expand variables specified in the `@Source`
      * annotation, or by the ConfigFactory to configure its own behavior.
@@ -161,4 +193,16 @@ public final class ConfigFactory {
     public static void removeTypeConverter(Class<?> type){
         INSTANCE.removeTypeConverter(type);
     }
+
+    /**
+     * Sets the directory where to keep a snapshot of the properties loaded by the {@link Config} instances created by
+     * the default factory from then on.
+     *
+     * @param directory the directory where to save the snapshots, or <code>null</code> to disable them.
+     * @see Factory#setSnapshotDirectory(File)
+     * @since 1.0.13
+     */
+    public static void setSnapshotDirectory(File directory) {
+        INSTANCE.setSnapshotDirectory(directory);
+    }
 }
@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.LinkedHashSet;
+import java.util.Properties;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.zip.CRC32;
+
+import static org.aeonbits.owner.util.Util.ignore;
+
+/**
+ * An index of the default values of the config interfaces, precomputed at build time (i.e. by the
+ * <tt>owner-maven-plugin</tt>) and packaged as the {@link #RESOURCE} resource, so that the default values don't need
+ * to be collected through reflection every time a config object is loaded.
+ * <p>
+ * For every indexed interface, the resource contains an entry whose key is the name of the interface and whose value
+ * is its {@link #fingerprint(Class) fingerprint}, plus one entry for each default value, keyed by the name of the
+ * interface and the property key, separated by a slash. The fingerprint is a checksum of the class files of the
+ * interface and of the interfaces it extends: the index of an interface is ignored if any of them changed, even only in
+ * the annotations, so that a stale index can't be used in place of the actual annotations.
+ * </p>
+ *
+ * @author Luigi R. Viggiano
+ * @since 1.0.13
+ */
+public final class ConfigIndex {
+
+    /**
+     * The name of the resource containing the index.
+     */
+    public static final String RESOURCE = "META-INF/owner/index.properties";
+
+    private static final Map<ClassLoader, Map<String, Entry>> indexes =
+            new WeakHashMap<ClassLoader, Map<String, Entry>>();
+
+    // Suppresses default constructor, ensuring no one instantiate this class.
+    private ConfigIndex() {}
+
+    /**
+     * Writes the index of the given config interfaces.
+     *
+     * @param classes the config interfaces to index.
+     * @param output the stream where to write the index to.
+     * @throws IOException if an I/O error occurs.
+     */
+    public static void write(Collection<Class<? extends Config>> classes, OutputStream output) throws IOException {
+        Properties index = new Properties();
+        for (Class<? extends Config> clazz : classes) {
+            String fingerprint = fingerprint(clazz);
+            if (fingerprint == null)
+                continue;
+            index.setProperty(clazz.getName(), fingerprint);
+            Properties defaults = new Properties();
+            PropertiesMapper.defaults(defaults, clazz);
+            for (String key : defaults.stringPropertyNames())
+                index.setProperty(clazz.getName() + '/' + key, defaults.getProperty(key));
+        }
+        index.store(output, "OWNER config index");
+    }
+
+    /**
+     * Puts the default values of the given config interface into the given properties, taking them from the index if
+     * available, or from the annotations otherwise.
+     */
+    static void defaults(Properties properties, Class<? extends Config> clazz) {
+        Properties indexed = indexed(clazz, clazz.getClassLoader());
+        if (indexed != null)
+            properties.putAll(indexed);
+        else
+            PropertiesMapper.defaults(properties, clazz);
+    }
+
+    static Properties indexed(Class<? extends Config> clazz, ClassLoader classLoader) {
+        if (classLoader == null)
+            return null;
+        Entry entry = index(classLoader).get(clazz.getName());
+        if (entry == null || entry.fingerprint == null || !entry.fingerprint.equals(fingerprint(clazz)))
+            return null;
+        return entry.defaults;
+    }
+
+    /**
+     * @return the checksum of the class files of the given interface and of the interfaces it extends, except the ones
+     * of the JDK, or <code>null</code> if any of them can't be read.
+     */
+    static String fingerprint(Class<?> clazz) {
+        Set<Class<?>> hierarchy = new LinkedHashSet<Class<?>>();
+        hierarchy(clazz, hierarchy);
+        CRC32 checksum = new CRC32();
+        byte[] buffer = new byte[8192];
+        try {
+            for (Class<?> type : hierarchy) {
+                ClassLoader classLoader = type.getClassLoader();
+                if (classLoader == null)
+                    continue;
+                InputStream input = classLoader.getResourceAsStream(type.getName().replace('.', '/') + ".class");
+                if (input == null)
+                    return null;
+                try {
+                    int read;
+                    while ((read = input.read(buffer)) != -1)
+                        checksum.update(buffer, 0, read);
+                } finally {
+                    input.close();
+                }
+            }
+        } catch (IOException e) {
+            return null;
+        }
+        return Long.toHexString(checksum.getValue());
+    }
+
+    private static void hierarchy(Class<?> clazz, Set<Class<?>> result) {
+        if (result.add(clazz))
+            for (Class<?> parent : clazz.getInterfaces())
+                hierarchy(parent, result);
+    }
+
+    private static class Entry {
+        private String fingerprint;
+        private final Properties defaults = new Properties();
+    }
+
+    private static Map<String, Entry> index(ClassLoader classLoader) {
+        synchronized (indexes) {
+            Map<String, Entry> index = indexes.get(classLoader);
+            if (index == null) {
+                index = read(classLoader);
+                indexes.put(classLoader, index);
+            }
+            return index;
+        }
+    }
+
+    private static Map<String, Entry> read(ClassLoader classLoader) {
+        Map<String, Entry> result = new HashMap<String, Entry>();
+        try {
+            Enumeration<URL> resources = classLoader.getResources(RESOURCE);
+            while (resources.hasMoreElements()) {
+                Properties index = new Properties();
+                InputStream input = resources.nextElement().openStream();
+                try {
+                    index.load(input);
+                } finally {
+                    input.close();
+                }
+                for (String key : index.stringPropertyNames()) {
+                    int slash = key.indexOf('/');
+                    String className = slash < 0 ? key : key.substring(0, slash);
+                    Entry entry = result.get(className);
+                    if (entry == null) {
+                        entry = new Entry();
+                        result.put(className, entry);
+                    }
+                    if (slash < 0)
+                        entry.fingerprint = index.getProperty(key);
+                    else
+                        entry.defaults.setProperty(key.substring(slash + 1), index.getProperty(key));
+                }
+            }
+        } catch (IOException e) {
+            ignore(/* the index is an optimization, reflection is used for any interface not indexed */);
+        }
+        return result;
+    }
+
+}
@@ -11,12 +11,26 @@ package org.aeonbits.owner;
 import org.aeonbits.owner.loaders.Loader;
 
 import javax.management.DynamicMBean;
+import java.io.File;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.ScheduledExecutorService;
 
 import static java.lang.reflect.Proxy.newProxyInstance;
 import static org.aeonbits.owner.util.Reflection.isClassAvailable;
+import static org.aeonbits.owner.util.Reflection.isDefault;
 
 /**
  * Default implementation for {@link Factory}.
@@ -26,22 +40,81 @@ import static org.aeonbits.owner.util.Reflection.isClassAvailable;
 class DefaultFactory implements Factory {
 
     private static final boolean isJMXAvailable = isClassAvailable("javax.management.DynamicMBean");
+    private static final Set<Class<?>> LIBRARY_INTERFACES = new HashSet<Class<?>>(Arrays.<Class<?>>asList(
+            Config.class, Accessible.class, Mutable.class, Reloadable.class, Closeable.class, Derivable.class,
+            Overridable.class));
     private final ScheduledExecutorService scheduler;
     private Properties props;
     final LoadersManager loadersManager;
+    final WatchRegistry watchRegistry;
+    private volatile boolean closed = false;
+    private volatile File snapshotDirectory;
 
     DefaultFactory(ScheduledExecutorService scheduler, Properties props) {
         this.scheduler = scheduler;
         this.props = props;
         this.loadersManager = new LoadersManager();
+        this.watchRegistry = new WatchRegistry(scheduler);
     }
 
-    @SuppressWarnings("unchecked")
     public <T extends Config> T create(Class<? extends T> clazz, Map<?, ?>... imports) {
-        Class<?>[] interfaces = interfaces(clazz);
+        checkOpen();
+        return newProxy(clazz, newManager(clazz, imports));
+    }
+
+    public List<Config> createAll(boolean warmUp, Class<? extends Config>... classes) {
+        checkOpen();
+        List<PropertiesManager> managers = new ArrayList<PropertiesManager>(classes.length);
+        Set<URI> uris = new LinkedHashSet<URI>();
+        for (Class<? extends Config> clazz : classes) {
+            PropertiesManager manager = newManager(clazz);
+            managers.add(manager);
+            if (manager.loadsSourcesOnCreation())
+                uris.addAll(manager.uris());
+        }
+
+        Map<URI, LoadedSource> prefetched = loadersManager.prefetch(uris);
+        List<Config> result = new ArrayList<Config>(classes.length);
+        for (int i = 0; i < classes.length; i++) {
+            PropertiesManager manager = managers.get(i);
+            if (manager.loadsSourcesOnCreation())
+                manager.setPrefetched(prefetched);
+            result.add(newProxy(classes[i], manager));
+        }
+
+        if (warmUp)
+            for (Config config : result)
+                warmUp(config);
+        return result;
+    }
+
+    public Future<List<Config>> createAllAsync(final boolean warmUp, final Class<? extends Config>... classes) {
+        checkOpen();
+        FutureTask<List<Config>> result = new FutureTask<List<Config>>(new Callable<List<Config>>() {
+            public List<Config> call() {
+                return createAll(warmUp, classes);
+            }
+        });
+        loadersManager.execute(result);
+        return result;
+    }
+
+    private void checkOpen() {
+        if (closed)
+            throw new IllegalStateException("factory has been closed");
+    }
+
+    private PropertiesManager newManager(Class<? extends Config> clazz, Map<?, ?>... imports) {
         VariablesExpander expander = new VariablesExpander(props);
-        PropertiesManager manager = new PropertiesManager(clazz, new Properties(), scheduler, expander, loadersManager,
+        PropertiesManager manager = new PropertiesManager(clazz, new LayeredProperties(), watchRegistry, expander, loadersManager,
                 imports);
+        manager.setSnapshotDirectory(snapshotDirectory);
+        return manager;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T extends Config> T newProxy(Class<? extends T> clazz, PropertiesManager manager) {
+        Class<?>[] interfaces = interfaces(clazz);
         Object jmxSupport = getJMXSupport(clazz, manager);
         PropertiesInvocationHandler handler = new PropertiesInvocationHandler(manager, jmxSupport);
         T proxy = (T) newProxyInstance(clazz.getClassLoader(), interfaces, handler);
@@ -49,6 +122,30 @@ class DefaultFactory implements Factory {
         return proxy;
     }
 
+    /**
+     * Invokes all the methods mapping properties of the given config object, so that the values are resolved and
+     * converted once, and the invocation path is exercised, before the config object is actually used.
+     */
+    private static void warmUp(Config config) {
+        for (Class<?> clazz : config.getClass().getInterfaces())
+            for (Method method : clazz.getMethods()) {
+                if (!isPropertyMethod(method))
+                    continue;
+                try {
+                    method.invoke(config);
+                } catch (IllegalAccessException e) {
+                    throw new IllegalStateException(e);
+                } catch (InvocationTargetException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof RuntimeException)
+                        throw (RuntimeException) cause;
+                    if (cause instanceof Error)
+                        throw (Error) cause;
+                    throw new IllegalStateException(cause);
+                }
+            }
+    }
+
     public String setProperty(String key, String value) {
         checkKey(key);
         return (String) props.setProperty(key, value);
@@ -84,6 +181,10 @@ class DefaultFactory implements Factory {
         Converters.removeTypeConverter(type);
     }
 
+    public void setSnapshotDirectory(File directory) {
+        snapshotDirectory = directory;
+    }
+
     public String getProperty(String key) {
         checkKey(key);
         return props.getProperty(key);
@@ -94,6 +195,20 @@ class DefaultFactory implements Factory {
         return (String) props.remove(key);
     }
 
+    public void close() {
+        if (closed) return;
+        closed = true;
+        watchRegistry.close();
+        scheduler.shutdownNow();
+        loadersManager.close();
+    }
+
+    private static boolean isPropertyMethod(Method method) {
+        Class<?> declaringClass = method.getDeclaringClass();
+        return Config.class.isAssignableFrom(declaringClass) && !LIBRARY_INTERFACES.contains(declaringClass)
+                && method.getParameterTypes().length == 0 && method.getReturnType() != void.class && !isDefault(method);
+    }
+
     private Object getJMXSupport(Class<?> clazz, PropertiesManager manager) {
         if (isJMXAvailable)
             return new JMXSupport(clazz, manager);
@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner;
+
+import java.util.Map;
+
+/**
+ * <p>Allows a <code>Config</code> object to derive other config objects from itself, with some properties
+ * overridden.</p>
+ *
+ * <p>Example:</p>
+ *
+ * <pre>
+ *     public interface MyConfig extends Config, Derivable {
+ *         int timeout();
+ *     }
+ *
+ *     public void doSomething() {
+ *         MyConfig cfg = ConfigFactory.create(MyConfig.class);
+ *
+ *         Map&lt;String, String&gt; overrides = new HashMap&lt;String, String&gt;();
+ *         overrides.put("timeout", "5000");
+ *         MyConfig slow = cfg.derive(overrides);
+ *     }
+ * </pre>
+ *
+ * <p>Deriving a config object doesn't load anything: the derived object shares the properties of the original one,
+ * and keeps only the overrides, so it's cheap to derive one for each request or for each test. The properties of the
+ * original config object and of the derived ones can change independently afterwards: derived config objects see the
+ * sources as they were when derived, even if the original config object is hot reloaded or gets the changes pushed
+ * by a watched source. Derived config objects are not hot reloaded, but they reload the same sources of the original
+ * one, with the overrides on top, when {@link Reloadable#reload() reload} is invoked.</p>
+ *
+ * @author Luigi R. Viggiano
+ * @since 1.0.13
+ */
+public interface Derivable extends Config {
+
+    /**
+     * Returns a config object of the same interface of this one, with the given properties overriding the ones of
+     * this config object.
+     *
+     * @param overrides the properties to override; neither the keys nor the values can be <code>null</code>.
+     * @param <T> the type of the config object.
+     * @return the derived config object.
+     * @since 1.0.13
+     */
+    <T extends Config> T derive(Map<String, String> overrides);
+
+}
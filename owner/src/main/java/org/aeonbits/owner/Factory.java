@@ -10,16 +10,27 @@ package org.aeonbits.owner;
 
 import org.aeonbits.owner.loaders.Loader;
 
+import java.io.File;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.Future;
 
 /**
  * Interface for factory implementation used to instantiate {@link Config} instances.
+ * <p>
+ * <b>Compatibility note:</b> since 1.0.13 this interface extends {@link java.io.Closeable}, and declares the methods
+ * {@link #createAll(boolean, Class[])}, {@link #createAllAsync(boolean, Class[])}, {@link
+ * #setSnapshotDirectory(File)} and {@link #close()}. Classes implementing it outside of this library must implement
+ * these methods to compile against this version, and throw {@link AbstractMethodError} when they are invoked if
+ * compiled against a previous one. Implementations wrapping the factory returned by {@link
+ * ConfigFactory#newInstance()} can delegate these methods to it.
+ * </p>
  *
  * @author Luigi R. Viggiano
  * @since 1.0.5
  */
-public interface Factory {
+public interface Factory extends java.io.Closeable {
 
     /**
      * Creates a {@link Config} instance from the specified interface
@@ -32,6 +43,33 @@ public interface Factory {
      */
     <T extends Config> T create(Class<? extends T> clazz, Map<?, ?>... imports);
 
+    /**
+     * Creates the {@link Config} instances for all the specified interfaces at once, typically before the application
+     * starts serving requests.
+     * <p>
+     * The sources of all the interfaces are loaded concurrently, and the sources shared by more interfaces are loaded
+     * only once. When <code>warmUp</code> is <code>true</code>, all the methods without arguments of the returned
+     * instances are invoked once, so that every property is resolved and converted, and conversion errors are thrown
+     * right away rather than at the first usage.
+     * </p>
+     *
+     * @param warmUp  <code>true</code> to invoke all the methods without arguments of the created instances.
+     * @param classes the interfaces extending from {@link Config} that you want to instantiate.
+     * @return the created instances, in the same order of the given interfaces.
+     * @since 1.0.13
+     */
+    List<Config> createAll(boolean warmUp, Class<? extends Config>... classes);
+
+    /**
+     * Same as {@link #createAll(boolean, Class[])}, but performed in background.
+     *
+     * @param warmUp  <code>true</code> to invoke all the methods without arguments of the created instances.
+     * @param classes the interfaces extending from {@link Config} that you want to instantiate.
+     * @return the future result of {@link #createAll(boolean, Class[])}.
+     * @since 1.0.13
+     */
+    Future<List<Config>> createAllAsync(boolean warmUp, Class<? extends Config>... classes);
+
     /**
      * Returns the value for a given property.
      *
@@ -104,4 +142,33 @@ public interface Factory {
      * @since 1.0.10
      */
     void removeTypeConverter(Class<?> type);
+
+    /**
+     * Sets the directory where to keep a snapshot of the properties loaded by the {@link Config} instances created by
+     * this factory from then on.
+     * <p>
+     * The snapshot of a config is updated every time all its sources are loaded successfully (local files may be
+     * missing). When a config is created and a snapshot for it exists, its properties are served from the snapshot
+     * right away while the sources are loaded in background, and then applied as a {@link Reloadable#reload()
+     * reload}; so that the startup doesn't depend on how long remote sources take to respond. When some remote source
+     * can't be loaded, the last known good properties in the snapshot are used for the keys the sources didn't
+     * provide.
+     * </p>
+     *
+     * @param directory the directory where to save the snapshots, or <code>null</code> to disable them.
+     * @since 1.0.13
+     */
+    void setSnapshotDirectory(File directory);
+
+    /**
+     * Releases the resources held by this factory: the background checks performed by the {@link
+     * Config.HotReloadType#ASYNC asynchronous hot reload} of all the {@link Config} instances created by this factory
+     * are cancelled, and the thread used to perform them is shut down.
+     * <p>
+     * Once closed, the factory cannot create new {@link Config} instances. Invoking this method more than once has no
+     * effect.
+     *
+     * @since 1.0.13
+     */
+    void close();
 }
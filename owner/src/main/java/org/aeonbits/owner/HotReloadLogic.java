@@ -10,17 +10,23 @@ package org.aeonbits.owner;
 
 import org.aeonbits.owner.Config.HotReload;
 import org.aeonbits.owner.Config.HotReloadType;
+import org.aeonbits.owner.loaders.HttpLoader;
+import org.aeonbits.owner.loaders.Loader;
+import org.aeonbits.owner.util.SystemPropertiesWatcher;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.net.URI;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.aeonbits.owner.Config.HotReloadType.ASYNC;
+import static org.aeonbits.owner.Config.HotReloadType.DEFERRED;
 import static org.aeonbits.owner.Config.HotReloadType.SYNC;
 import static org.aeonbits.owner.util.Util.fileFromURI;
 import static org.aeonbits.owner.util.Util.now;
-import static org.aeonbits.owner.util.Util.system;
 
 /**
  * @author Luigi R. Viggiano
@@ -31,13 +37,14 @@ class HotReloadLogic implements Serializable {
     private final long interval;
     private final HotReloadType type;
     private volatile long lastCheckTime = now();
+    private final AtomicBoolean checkPending = new AtomicBoolean(false);
     private final List<WatchableResource> watchableResources = new ArrayList<WatchableResource>();
 
-    private interface WatchableResource extends Serializable {
+    interface WatchableResource extends Serializable {
         boolean isChanged();
     }
 
-    private static class WatchableFile implements WatchableResource {
+    static class WatchableFile implements WatchableResource {
         private final File file;
         private long lastModifiedTime;
 
@@ -53,39 +60,113 @@ class HotReloadLogic implements Serializable {
                 lastModifiedTime = lastModifiedTimeNow;
             return changed;
         }
-    }
 
-    private static class WatchableSystemProperties implements WatchableResource {
-        private final Properties props;
-        private int lastHashCode;
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof WatchableFile && file.equals(((WatchableFile) obj).file);
+        }
+
+        @Override
+        public int hashCode() {
+            return file.hashCode();
+        }
+    }
 
+    static class WatchableSystemProperties implements WatchableResource {
+        private long lastVersion;
 
         WatchableSystemProperties() {
-            props = system().getProperties();
-            lastHashCode = props.hashCode();
+            lastVersion = SystemPropertiesWatcher.version();
         }
 
         public boolean isChanged() {
-            int newHashCode = props.hashCode();
-            boolean changed = lastHashCode != newHashCode;
+            long newVersion = SystemPropertiesWatcher.version();
+            boolean changed = lastVersion != newVersion;
             if (changed)
-                lastHashCode = newHashCode;
+                lastVersion = newVersion;
             return changed;
         }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof WatchableSystemProperties;
+        }
+
+        @Override
+        public int hashCode() {
+            return WatchableSystemProperties.class.hashCode();
+        }
+    }
+
+    /**
+     * Detects the changes of an HTTP source with conditional requests, which don't transfer the source when it didn't
+     * change. The version of the source is compared with the one loaded by the config object, which is unknown until
+     * the config object is loaded, and after it's deserialized: then the first check just takes the version.
+     */
+    static class WatchableHttpSource implements WatchableResource {
+        private static final long UNKNOWN = -1;
+
+        private final HttpLoader loader;
+        private final URI uri;
+        private transient volatile long lastVersion = UNKNOWN;
+
+        WatchableHttpSource(HttpLoader loader, URI uri) {
+            this.loader = loader;
+            this.uri = uri;
+        }
+
+        /**
+         * Takes the version of the source just loaded by the config object; <tt>0</tt> if the source could not be
+         * loaded, so that it's reloaded as soon as it's available.
+         */
+        void loaded() {
+            lastVersion = loader.version(uri);
+        }
+
+        public boolean isChanged() {
+            long previousVersion = lastVersion;
+            try {
+                lastVersion = loader.check(uri);
+            } catch (IOException e) {
+                return false; // the source will be checked again at the next interval.
+            }
+            return previousVersion != UNKNOWN && lastVersion != previousVersion;
+        }
+
+        private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+            in.defaultReadObject();
+            lastVersion = UNKNOWN;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof WatchableHttpSource)) return false;
+            WatchableHttpSource other = (WatchableHttpSource) obj;
+            return loader == other.loader && uri.equals(other.uri);
+        }
+
+        @Override
+        public int hashCode() {
+            return uri.hashCode();
+        }
     }
 
-    HotReloadLogic(HotReload hotReload, List<URI> uris, PropertiesManager manager) {
+    HotReloadLogic(HotReload hotReload, List<URI> uris, PropertiesManager manager, LoadersManager loaders) {
         this.manager = manager;
         type = hotReload.type();
         interval = hotReload.unit().toMillis(hotReload.value());
-        setupWatchableResources(uris);
+        setupWatchableResources(uris, loaders);
     }
 
-    private void setupWatchableResources(List<URI> uris) {
+    private void setupWatchableResources(List<URI> uris, LoadersManager loaders) {
         Set<File> files = new LinkedHashSet<File>();
         for (URI uri : uris) {
             if (uri.toString().equals("system:properties")) {
                 watchableResources.add(new WatchableSystemProperties());
+            } else if (isHttp(uri)) {
+                Loader loader = loaders.findLoader(uri);
+                if (loader instanceof HttpLoader)
+                    watchableResources.add(new WatchableHttpSource((HttpLoader) loader, uri));
             } else {
                 File file = fileFromURI(uri);
                 if (file != null)
@@ -96,11 +177,52 @@ class HotReloadLogic implements Serializable {
             watchableResources.add(new WatchableFile(file));
     }
 
+    private static boolean isHttp(URI uri) {
+        return "http".equalsIgnoreCase(uri.getScheme()) || "https".equalsIgnoreCase(uri.getScheme());
+    }
+
+    /**
+     * To be called after the sources have been loaded, so that their changes are detected from the versions loaded.
+     */
+    void sourcesLoaded() {
+        for (WatchableResource resource : watchableResources)
+            if (resource instanceof WatchableHttpSource)
+                ((WatchableHttpSource) resource).loaded();
+    }
+
     synchronized void checkAndReload() {
         if (needsReload())
             manager.reload();
     }
 
+    /**
+     * Hands the check over to the background worker of the given registry, when the interval is elapsed. The caller
+     * never waits for the resources to be checked or reloaded, and at most one check is pending at any time.
+     */
+    void checkAndReloadInBackground(WatchRegistry registry) {
+        if (now() < lastCheckTime + interval || !checkPending.compareAndSet(false, true))
+            return;
+        boolean submitted = registry.execute(new Runnable() {
+            public void run() {
+                try {
+                    checkAndReload();
+                } finally {
+                    checkPending.set(false);
+                }
+            }
+        });
+        if (!submitted)
+            checkPending.set(false);
+    }
+
+    /**
+     * Reloads the properties after a change has been detected by the {@link WatchRegistry}.
+     */
+    synchronized void reload() {
+        if (!manager.isLoading() && !manager.isClosed())
+            manager.reload();
+    }
+
     private boolean needsReload() {
         if (manager.isLoading()) return false;
 
@@ -126,4 +248,16 @@ class HotReloadLogic implements Serializable {
         return type == SYNC;
     }
 
+    boolean isDeferred() {
+        return type == DEFERRED;
+    }
+
+    long interval() {
+        return interval;
+    }
+
+    List<WatchableResource> watchableResources() {
+        return watchableResources;
+    }
+
 }
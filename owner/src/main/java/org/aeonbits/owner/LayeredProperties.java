@@ -0,0 +1,360 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Properties resolved through an ordered chain of layers (the imports, the sources, the default values...), rather
+ * than merged by copying all of them into one table.
+ * <p>
+ * The layers are referenced, not copied, so that the layers shared by many config objects (like the default values
+ * of an interface, or the properties of a file loaded once for all of them) are kept in memory only once. A key is
+ * looked up walking the layers, highest priority first, and the value found is remembered, so that the following
+ * lookups of the same key are a single hash lookup; the keys not found are walked again at each lookup.
+ * </p>
+ * <p>
+ * The layers must not be modified while in use, since they may be shared with copies of these properties; a layer
+ * that needs to change is {@link #replaceLayer(Map, Map, Collection) replaced} by a modified copy instead. The changes
+ * made through the {@link Properties} methods are kept as runtime overrides, taking priority over all the layers, in a
+ * {@link PersistentMap}: a copy of the properties, as a snapshot or to {@link #derive(Map) derive} other properties
+ * from them, shares everything with the original.
+ * </p>
+ * <p>
+ * Lookups don't lock: the layers, the overrides and the remembered values are replaced at once on every change.
+ * </p>
+ *
+ * @author Luigi R. Viggiano
+ * @since 1.0.13
+ */
+class LayeredProperties extends Properties {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final Object REMOVED = new Object();
+    private static final Map<?, ?>[] NO_LAYERS = new Map<?, ?>[0];
+
+    private transient volatile State state = new State(NO_LAYERS, PersistentMap.empty(), false);
+
+    private static final class State {
+        private final Map<?, ?>[] layers;
+        private final PersistentMap<Object, Object> overrides;
+        private final boolean cleared;
+        private final ConcurrentMap<Object, Object> winners = new ConcurrentHashMap<Object, Object>();
+        private volatile Map<Object, Object> view;
+
+        State(Map<?, ?>[] layers, PersistentMap<Object, Object> overrides, boolean cleared) {
+            this.layers = layers;
+            this.overrides = overrides;
+            this.cleared = cleared;
+        }
+
+        Object get(Object key) {
+            Object winner = winners.get(key);
+            if (winner == null) {
+                winner = resolve(key);
+                // the missing keys are not remembered, since the keys looked up (i.e. built expanding variables, or
+                // formatting the arguments) are not bound to the ones of the layers.
+                if (winner != null)
+                    winners.put(key, winner);
+            }
+            return winner;
+        }
+
+        private Object resolve(Object key) {
+            Object value = overrides.get(key);
+            if (value != null)
+                return value == REMOVED ? null : value;
+            if (cleared)
+                return null;
+            for (Map<?, ?> layer : layers) {
+                value = layer.get(key);
+                if (value != null)
+                    return value;
+            }
+            return null;
+        }
+
+        /**
+         * @return all the properties, merged only when some operation needs to iterate over them.
+         */
+        Map<Object, Object> view() {
+            Map<Object, Object> result = view;
+            if (result == null) {
+                result = new HashMap<Object, Object>();
+                if (!cleared)
+                    for (int i = layers.length - 1; i >= 0; i--)
+                        result.putAll(layers[i]);
+                for (Map.Entry<Object, Object> override : overrides)
+                    if (override.getValue() == REMOVED)
+                        result.remove(override.getKey());
+                    else
+                        result.put(override.getKey(), override.getValue());
+                view = result = Collections.unmodifiableMap(result);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Replaces all the layers, discarding the runtime overrides.
+     *
+     * @param layers the layers, highest priority first.
+     */
+    synchronized void setLayers(List<? extends Map<?, ?>> layers) {
+        state = new State(layers.toArray(new Map<?, ?>[layers.size()]), PersistentMap.empty(), false);
+    }
+
+    /**
+     * @return the layers, highest priority first.
+     */
+    List<Map<?, ?>> layers() {
+        return Collections.unmodifiableList(Arrays.asList(state.layers));
+    }
+
+    /**
+     * Replaces the given layer with a modified copy of it: the runtime overrides of the given keys, the ones changed
+     * by the copy, are discarded, so that the new values apply. The copies of these properties, like the {@link
+     * #derive(Map) derived} ones, keep resolving through the old layer.
+     */
+    synchronized void replaceLayer(Map<?, ?> layer, Map<?, ?> replacement, Collection<?> keys) {
+        State current = state;
+        Map<?, ?>[] layers = current.layers.clone();
+        for (int i = 0; i < layers.length; i++)
+            if (layers[i] == layer)
+                layers[i] = replacement;
+        state = new State(layers, without(current.overrides, keys), current.cleared);
+    }
+
+    private static PersistentMap<Object, Object> without(PersistentMap<Object, Object> overrides,
+                                                         Collection<?> keys) {
+        for (Object key : keys)
+            overrides = overrides.minus(key);
+        return overrides;
+    }
+
+    private void override(Object key, Object value) {
+        override(state.overrides.plus(key, value));
+    }
+
+    private void override(PersistentMap<Object, Object> overrides) {
+        State current = state;
+        if (overrides != current.overrides)
+            state = new State(current.layers, overrides, current.cleared);
+    }
+
+    /**
+     * Returns new properties resolved through the same layers and runtime overrides of these ones, further overridden
+     * by the given properties. Nothing is copied but the given properties, and the properties returned are independent
+     * of these ones: the changes of either don't affect the other, since the layers are never modified but {@link
+     * #replaceLayer(Map, Map, Collection) replaced}, and the replacement applies only to the properties it's made on.
+     */
+    LayeredProperties derive(Map<?, ?> overrides) {
+        LayeredProperties result = (LayeredProperties) clone();
+        result.putAll(overrides);
+        return result;
+    }
+
+    @Override
+    public String getProperty(String key) {
+        Object value = state.get(key);
+        return value instanceof String ? (String) value : null;
+    }
+
+    @Override
+    public String getProperty(String key, String defaultValue) {
+        String value = getProperty(key);
+        return value == null ? defaultValue : value;
+    }
+
+    @Override
+    public Object get(Object key) {
+        return state.get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return state.get(key) != null;
+    }
+
+    @Override
+    public synchronized Object put(Object key, Object value) {
+        if (key == null || value == null)
+            throw new NullPointerException();
+        Object previous = state.get(key);
+        override(key, value);
+        return previous;
+    }
+
+    @Override
+    public synchronized void putAll(Map<?, ?> map) {
+        override(state.overrides.plusAll(map));
+    }
+
+    @Override
+    public synchronized Object remove(Object key) {
+        Object previous = state.get(key);
+        if (previous != null)
+            override(key, REMOVED);
+        return previous;
+    }
+
+    @Override
+    public synchronized void clear() {
+        state = new State(state.layers, PersistentMap.empty(), true);
+    }
+
+    @Override
+    public int size() {
+        return state.view().size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return state.view().isEmpty();
+    }
+
+    @Override
+    public boolean contains(Object value) {
+        return containsValue(value);
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        if (value == null)
+            throw new NullPointerException();
+        return state.view().containsValue(value);
+    }
+
+    @Override
+    public Enumeration<Object> keys() {
+        return Collections.enumeration(state.view().keySet());
+    }
+
+    @Override
+    public Enumeration<Object> elements() {
+        return Collections.enumeration(state.view().values());
+    }
+
+    @Override
+    public Enumeration<?> propertyNames() {
+        return keys();
+    }
+
+    @Override
+    public Set<String> stringPropertyNames() {
+        Set<String> result = new LinkedHashSet<String>();
+        for (Map.Entry<Object, Object> entry : state.view().entrySet())
+            if (entry.getKey() instanceof String && entry.getValue() instanceof String)
+                result.add((String) entry.getKey());
+        return Collections.unmodifiableSet(result);
+    }
+
+    @Override
+    public Set<Object> keySet() {
+        return state.view().keySet();
+    }
+
+    @Override
+    public Set<Map.Entry<Object, Object>> entrySet() {
+        return state.view().entrySet();
+    }
+
+    @Override
+    public Collection<Object> values() {
+        return state.view().values();
+    }
+
+    @Override
+    public void list(PrintStream out) {
+        toProperties().list(out);
+    }
+
+    @Override
+    public void list(PrintWriter out) {
+        toProperties().list(out);
+    }
+
+    @Override
+    public void store(OutputStream out, String comments) throws IOException {
+        toProperties().store(out, comments);
+    }
+
+    @Override
+    public void store(Writer writer, String comments) throws IOException {
+        toProperties().store(writer, comments);
+    }
+
+    @Override
+    public void storeToXML(OutputStream os, String comment) throws IOException {
+        toProperties().storeToXML(os, comment);
+    }
+
+    @Override
+    public void storeToXML(OutputStream os, String comment, String encoding) throws IOException {
+        toProperties().storeToXML(os, comment, encoding);
+    }
+
+    private Properties toProperties() {
+        Properties result = new Properties();
+        result.putAll(state.view());
+        return result;
+    }
+
+    @Override
+    public synchronized Object clone() {
+        LayeredProperties result = (LayeredProperties) super.clone();
+        result.state = state;
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o == this || o instanceof Map && state.view().equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        return state.view().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return state.view().toString();
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeObject(new HashMap<Object, Object>(state.view()));
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        state = new State(new Map<?, ?>[] {(Map<?, ?>) in.readObject()}, PersistentMap.empty(), false);
+    }
+
+}
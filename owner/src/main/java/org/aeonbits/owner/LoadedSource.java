@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.net.URI;
+import java.util.Properties;
+
+/**
+ * The outcome of loading a single source: the properties loaded from the {@link URI}, or the error occurred trying to
+ * load it, along with the time it took.
+ * <p>
+ * The outcome of the last load of a config object is returned by {@link Reloadable#loadedSources()}, so that slow or
+ * failing sources can be told apart.
+ * </p>
+ *
+ * @author Luigi R. Viggiano
+ * @since 1.0.13
+ */
+public final class LoadedSource implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final URI uri;
+    private final Properties properties;
+    private final IOException error;
+    private final long elapsedTime;
+
+    LoadedSource(URI uri, Properties properties, IOException error, long elapsedTime) {
+        this.uri = uri;
+        this.properties = properties;
+        this.error = error;
+        this.elapsedTime = elapsedTime;
+    }
+
+    /**
+     * @return the URI of the source.
+     */
+    public URI uri() {
+        return uri;
+    }
+
+    /**
+     * @return the loaded properties, or <code>null</code> if the source could not be loaded. The returned properties
+     * may be shared with other config objects, and must not be modified.
+     */
+    Properties properties() {
+        return properties;
+    }
+
+    /**
+     * @return the error occurred loading the source, or <code>null</code> if it was loaded.
+     */
+    public IOException error() {
+        return error;
+    }
+
+    /**
+     * @return <code>true</code> if the source was loaded, <code>false</code> if it was not found or could not be read.
+     */
+    public boolean isLoaded() {
+        return error == null;
+    }
+
+    /**
+     * @return the time spent loading the source, in nanoseconds.
+     */
+    public long elapsedTime() {
+        return elapsedTime;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %s in %d ms", uri, isLoaded() ? "loaded" : "not loaded",
+                elapsedTime / 1000000L);
+    }
+
+}
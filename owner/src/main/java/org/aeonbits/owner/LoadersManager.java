@@ -8,20 +8,37 @@
 
 package org.aeonbits.owner;
 
+import org.aeonbits.owner.loaders.BinaryLoader;
+import org.aeonbits.owner.loaders.HttpLoader;
 import org.aeonbits.owner.loaders.Loader;
 import org.aeonbits.owner.loaders.PropertiesLoader;
 import org.aeonbits.owner.loaders.SystemLoader;
 import org.aeonbits.owner.loaders.XMLLoader;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.Serializable;
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.aeonbits.owner.util.Util.ignore;
 import static org.aeonbits.owner.util.Util.unsupported;
 
 
@@ -34,13 +51,20 @@ import static org.aeonbits.owner.util.Util.unsupported;
  */
 class LoadersManager implements Serializable {
 
+    private static final int LOADER_THREADS = Math.max(4, 2 * Runtime.getRuntime().availableProcessors());
+
     private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
     private final List<Loader> loaders = new LinkedList<Loader>();
+    private transient ExecutorService executor;
+    private transient SourceCache sourceCache;
+    private transient boolean closed = false;
 
     LoadersManager() {
         registerLoader(new PropertiesLoader());
         registerLoader(new XMLLoader());
         registerLoader(new SystemLoader());
+        registerLoader(new BinaryLoader());
+        registerLoader(new HttpLoader());
     }
 
     void load(Properties result, URI uri) throws IOException {
@@ -48,6 +72,188 @@ class LoadersManager implements Serializable {
         loader.load(result, uri);
     }
 
+    /**
+     * Loads the given source; sources backed by files are parsed only when changed, or when explicitly reloaded, and
+     * the resulting properties are shared with all the other config objects loading the same source.
+     *
+     * @param prefetched  the sources already {@link #prefetch(Collection) prefetched}, or <code>null</code>.
+     * @param reload      <code>true</code> if the source is explicitly reloaded, so that it's not served from caches.
+     */
+    LoadedSource loadSource(URI uri, Map<URI, LoadedSource> prefetched, boolean reload) {
+        LoadedSource source = prefetched == null || reload ? null : prefetched.get(uri);
+        if (source != null)
+            return source;
+        long start = System.nanoTime();
+        try {
+            Properties properties = sourceCache().load(findLoader(uri), uri, reload);
+            return new LoadedSource(uri, properties, null, System.nanoTime() - start);
+        } catch (IOException e) {
+            // happens when a file specified in the sources is not found or cannot be read.
+            return new LoadedSource(uri, null, e, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Loads the given sources concurrently, so that the sources shared by many config objects created together are
+     * loaded only once, and then passed to each of the config objects loading them.
+     *
+     * @return the sources successfully loaded, by uri.
+     */
+    Map<URI, LoadedSource> prefetch(Collection<URI> uris) {
+        Map<URI, LoadedSource> result = new HashMap<URI, LoadedSource>();
+        for (LoadedSource source : loadAll(new ArrayList<URI>(uris), null, false))
+            if (source.isLoaded())
+                result.put(source.uri(), source);
+        return result;
+    }
+
+    /**
+     * Runs the given task in background, on the threads loading the sources; or in the calling thread, if they have
+     * been stopped.
+     */
+    void execute(Runnable task) {
+        ExecutorService executor = executor();
+        if (executor != null)
+            try {
+                executor.execute(task);
+                return;
+            } catch (RejectedExecutionException e) {
+                ignore(/* stopped in the meantime */);
+            }
+        task.run();
+    }
+
+    /**
+     * Loads all the given sources concurrently.
+     *
+     * @return the loaded sources, in the same order of the given uris.
+     */
+    List<LoadedSource> loadAll(List<URI> uris, Map<URI, LoadedSource> prefetched, boolean reload) {
+        List<FutureTask<LoadedSource>> tasks = start(uris, prefetched, reload);
+        List<LoadedSource> result = new ArrayList<LoadedSource>(uris.size());
+        for (int i = 0; i < tasks.size(); i++)
+            result.add(await(uris.get(i), tasks.get(i)));
+        return result;
+    }
+
+    /**
+     * Loads the given sources concurrently, until the first one (in the given order) is successfully loaded. The
+     * sources following it are discarded, even if they are loaded before it.
+     *
+     * @return the sources attempted, in the same order of the given uris, the last one being the loaded one.
+     */
+    List<LoadedSource> loadFirst(List<URI> uris, Map<URI, LoadedSource> prefetched, boolean reload) {
+        List<FutureTask<LoadedSource>> tasks = start(uris, prefetched, reload);
+        List<LoadedSource> result = new ArrayList<LoadedSource>(uris.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            LoadedSource source = await(uris.get(i), tasks.get(i));
+            result.add(source);
+            if (source.isLoaded()) {
+                for (FutureTask<LoadedSource> discarded : tasks.subList(i + 1, tasks.size()))
+                    discarded.cancel(false);
+                break;
+            }
+        }
+        return result;
+    }
+
+    private List<FutureTask<LoadedSource>> start(List<URI> uris, final Map<URI, LoadedSource> prefetched,
+                                                 final boolean reload) {
+        List<FutureTask<LoadedSource>> tasks = new ArrayList<FutureTask<LoadedSource>>(uris.size());
+        for (final URI uri : uris)
+            tasks.add(new FutureTask<LoadedSource>(new Callable<LoadedSource>() {
+                public LoadedSource call() {
+                    return loadSource(uri, prefetched, reload);
+                }
+            }));
+
+        // the first source is going to be loaded by the calling thread, the others are handed over to the executor.
+        ExecutorService executor = executor();
+        if (executor != null)
+            for (FutureTask<LoadedSource> task : tasks.subList(Math.min(1, tasks.size()), tasks.size()))
+                try {
+                    executor.execute(task);
+                } catch (RejectedExecutionException e) {
+                    break; // the remaining tasks are going to be run by the calling thread.
+                }
+        return tasks;
+    }
+
+    /**
+     * @return the source loaded by the given task; or, if the calling thread is interrupted while waiting for it, the
+     * given source reported as not loaded.
+     */
+    private LoadedSource await(URI uri, FutureTask<LoadedSource> task) {
+        // if the executor didn't start the task yet, the calling thread runs it, so nobody waits on a queued task.
+        task.run();
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new LoadedSource(uri, null, (IOException) new InterruptedIOException().initCause(e), 0);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            if (cause instanceof Error)
+                throw (Error) cause;
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    synchronized SourceCache sourceCache() {
+        if (sourceCache == null)
+            sourceCache = new SourceCache();
+        return sourceCache;
+    }
+
+    private synchronized ExecutorService executor() {
+        if (executor == null && !closed) {
+            ThreadPoolExecutor result = new ThreadPoolExecutor(LOADER_THREADS, LOADER_THREADS, 60, SECONDS,
+                    new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                private final AtomicInteger threads = new AtomicInteger();
+
+                public Thread newThread(Runnable r) {
+                    Thread result = new Thread(r, "owner-loader-" + threads.incrementAndGet());
+                    result.setDaemon(true);
+                    return result;
+                }
+            });
+            result.allowCoreThreadTimeOut(true);
+            executor = result;
+        }
+        return executor;
+    }
+
+    /**
+     * Stops the threads used to load sources concurrently; sources will be loaded by the calling thread from now on.
+     * Registered loaders holding resources (i.e. connections) are closed.
+     */
+    synchronized void close() {
+        closed = true;
+        if (executor != null)
+            executor.shutdownNow();
+        executor = null;
+        if (sourceCache != null)
+            sourceCache.clear();
+        lock.readLock().lock();
+        try {
+            for (Loader loader : loaders)
+                if (loader instanceof java.io.Closeable)
+                    close((java.io.Closeable) loader);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static void close(java.io.Closeable loader) {
+        try {
+            loader.close();
+        } catch (IOException e) {
+            ignore(/* the loader won't be used anymore */);
+        }
+    }
+
     Loader findLoader(URI uri) {
         lock.readLock().lock();
         try {
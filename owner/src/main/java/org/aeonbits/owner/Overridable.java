@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * <p>Allows a <code>Config</code> object to have some properties overridden for the current thread only, while a
+ * task runs.</p>
+ *
+ * <p>Example:</p>
+ *
+ * <pre>
+ *     public interface MyConfig extends Config, Overridable {
+ *         int maxConnections();
+ *     }
+ *
+ *     public void serve(final Request request) {
+ *         Map&lt;String, String&gt; overrides = tenantOverrides(request.getTenant());
+ *         cfg.withOverrides(overrides, new Runnable() {
+ *             public void run() {
+ *                 // cfg.maxConnections() returns the value of the tenant, if overridden, here.
+ *                 handle(request);
+ *             }
+ *         });
+ *     }
+ * </pre>
+ *
+ * <p>The overrides are seen only by the thread running the task, while it runs: by the methods of the config interface
+ * mapping properties, in the variables expanded in their keys and values as well, and by the
+ * <code>getProperty</code> methods of {@link Accessible}. The properties of the config object are not changed: the
+ * other methods of {@link Accessible}, listing or storing them, don't see the overrides, and no event is fired.
+ * Nested overrides take precedence over the outer ones. When no overrides are bound, by any thread, looking up the
+ * properties costs a single volatile read more.</p>
+ *
+ * @author Luigi R. Viggiano
+ * @since 1.0.13
+ */
+public interface Overridable extends Config {
+
+    /**
+     * Runs the given task with the given properties overridden, for the current thread.
+     *
+     * @param overrides the properties to override; neither the keys nor the values can be <code>null</code>.
+     * @param task the task to run.
+     * @param <V> the type of the result of the task.
+     * @return the result of the task.
+     * @throws Exception the exception thrown by the task.
+     * @since 1.0.13
+     */
+    <V> V withOverrides(Map<String, String> overrides, Callable<V> task) throws Exception;
+
+    /**
+     * Runs the given task with the given properties overridden, for the current thread.
+     *
+     * @param overrides the properties to override; neither the keys nor the values can be <code>null</code>.
+     * @param task the task to run.
+     * @since 1.0.13
+     */
+    void withOverrides(Map<String, String> overrides, Runnable task);
+
+}
@@ -0,0 +1,295 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable map, implemented as a hash array mapped trie: adding or removing a key returns a new map that shares
+ * all of its structure with the original one, except the path to the key. So each change costs O(log n) in time and
+ * memory, and keeping the old versions around, as snapshots, costs nothing.
+ * <p>
+ * Neither the keys nor the values can be <code>null</code>.
+ * </p>
+ *
+ * @author Luigi R. Viggiano
+ * @since 1.0.13
+ */
+final class PersistentMap<K, V> implements Iterable<Map.Entry<K, V>> {
+
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+    private static final PersistentMap<?, ?> EMPTY = new PersistentMap<Object, Object>(null, 0);
+
+    private final Node root;
+    private final int size;
+
+    private PersistentMap(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <K, V> PersistentMap<K, V> empty() {
+        return (PersistentMap<K, V>) EMPTY;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(Object key) {
+        return root == null ? null : (V) root.get(key, hash(key), 0);
+    }
+
+    /**
+     * @return a map with the given key mapped to the given value, or this map if it already was.
+     */
+    PersistentMap<K, V> plus(K key, V value) {
+        if (key == null || value == null)
+            throw new NullPointerException();
+        int hash = hash(key);
+        if (root == null)
+            return new PersistentMap<K, V>(BitmapNode.EMPTY.plus(key, hash, value, 0, new boolean[1]), 1);
+        boolean[] added = new boolean[1];
+        Node newRoot = root.plus(key, hash, value, 0, added);
+        return newRoot == root ? this : new PersistentMap<K, V>(newRoot, added[0] ? size + 1 : size);
+    }
+
+    /**
+     * @return a map with all the mappings of this map and of the given one, the latter taking precedence.
+     */
+    PersistentMap<K, V> plusAll(Map<? extends K, ? extends V> map) {
+        PersistentMap<K, V> result = this;
+        for (Map.Entry<? extends K, ? extends V> entry : map.entrySet())
+            result = result.plus(entry.getKey(), entry.getValue());
+        return result;
+    }
+
+    /**
+     * @return a map without the given key, or this map if it didn't contain it.
+     */
+    PersistentMap<K, V> minus(Object key) {
+        if (root == null || key == null)
+            return this;
+        Node newRoot = root.minus(key, hash(key), 0);
+        if (newRoot == root)
+            return this;
+        return size == 1 ? PersistentMap.<K, V>empty() : new PersistentMap<K, V>(newRoot, size - 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    public Iterator<Map.Entry<K, V>> iterator() {
+        List<Map.Entry<K, V>> entries = new ArrayList<Map.Entry<K, V>>(size);
+        if (root != null)
+            root.collect((List) entries);
+        return entries.iterator();
+    }
+
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private static abstract class Node {
+        abstract Object get(Object key, int hash, int shift);
+
+        abstract Node plus(Object key, int hash, Object value, int shift, boolean[] added);
+
+        /**
+         * @return the node without the given key, <code>null</code> if it's left empty.
+         */
+        abstract Node minus(Object key, int hash, int shift);
+
+        abstract void collect(List<Map.Entry<Object, Object>> entries);
+    }
+
+    /**
+     * A node with up to 32 slots, one for each value of the next 5 bits of the hash, of which only the used ones are
+     * allocated. Each slot holds either a key and its value, or a <code>null</code> key and the child node of the keys
+     * sharing those bits.
+     */
+    private static final class BitmapNode extends Node {
+        static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+
+        private final int bitmap;
+        private final Object[] array;
+
+        BitmapNode(int bitmap, Object[] array) {
+            this.bitmap = bitmap;
+            this.array = array;
+        }
+
+        private int index(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        Object get(Object key, int hash, int shift) {
+            int bit = 1 << ((hash >>> shift) & MASK);
+            if ((bitmap & bit) == 0)
+                return null;
+            int index = index(bit);
+            Object slotKey = array[2 * index];
+            Object slotValue = array[2 * index + 1];
+            if (slotKey == null)
+                return ((Node) slotValue).get(key, hash, shift + BITS);
+            return key.equals(slotKey) ? slotValue : null;
+        }
+
+        Node plus(Object key, int hash, Object value, int shift, boolean[] added) {
+            int bit = 1 << ((hash >>> shift) & MASK);
+            int index = index(bit);
+            if ((bitmap & bit) == 0) {
+                Object[] newArray = new Object[array.length + 2];
+                System.arraycopy(array, 0, newArray, 0, 2 * index);
+                newArray[2 * index] = key;
+                newArray[2 * index + 1] = value;
+                System.arraycopy(array, 2 * index, newArray, 2 * index + 2, array.length - 2 * index);
+                added[0] = true;
+                return new BitmapNode(bitmap | bit, newArray);
+            }
+            Object slotKey = array[2 * index];
+            Object slotValue = array[2 * index + 1];
+            if (slotKey == null) {
+                Node child = ((Node) slotValue).plus(key, hash, value, shift + BITS, added);
+                return child == slotValue ? this : with(index, null, child);
+            }
+            if (key.equals(slotKey))
+                return value.equals(slotValue) ? this : with(index, slotKey, value);
+            added[0] = true;
+            return with(index, null, node(shift + BITS, slotKey, hash(slotKey), slotValue, key, hash, value));
+        }
+
+        private BitmapNode with(int index, Object key, Object value) {
+            Object[] newArray = array.clone();
+            newArray[2 * index] = key;
+            newArray[2 * index + 1] = value;
+            return new BitmapNode(bitmap, newArray);
+        }
+
+        private Node without(int bit, int index) {
+            if (bitmap == bit)
+                return null;
+            Object[] newArray = new Object[array.length - 2];
+            System.arraycopy(array, 0, newArray, 0, 2 * index);
+            System.arraycopy(array, 2 * index + 2, newArray, 2 * index, newArray.length - 2 * index);
+            return new BitmapNode(bitmap & ~bit, newArray);
+        }
+
+        Node minus(Object key, int hash, int shift) {
+            int bit = 1 << ((hash >>> shift) & MASK);
+            if ((bitmap & bit) == 0)
+                return this;
+            int index = index(bit);
+            Object slotKey = array[2 * index];
+            Object slotValue = array[2 * index + 1];
+            if (slotKey == null) {
+                Node child = ((Node) slotValue).minus(key, hash, shift + BITS);
+                if (child == slotValue)
+                    return this;
+                return child == null ? without(bit, index) : with(index, null, child);
+            }
+            return key.equals(slotKey) ? without(bit, index) : this;
+        }
+
+        void collect(List<Map.Entry<Object, Object>> entries) {
+            for (int i = 0; i < array.length; i += 2)
+                if (array[i] == null)
+                    ((Node) array[i + 1]).collect(entries);
+                else
+                    entries.add(new SimpleImmutableEntry<Object, Object>(array[i], array[i + 1]));
+        }
+    }
+
+    /**
+     * The keys whose hashes are the same in all the bits, compared one by one.
+     */
+    private static final class CollisionNode extends Node {
+        private final Object[] keys;
+        private final Object[] values;
+
+        CollisionNode(Object[] keys, Object[] values) {
+            this.keys = keys;
+            this.values = values;
+        }
+
+        private int indexOf(Object key) {
+            for (int i = 0; i < keys.length; i++)
+                if (key.equals(keys[i]))
+                    return i;
+            return -1;
+        }
+
+        Object get(Object key, int hash, int shift) {
+            int index = indexOf(key);
+            return index < 0 ? null : values[index];
+        }
+
+        Node plus(Object key, int hash, Object value, int shift, boolean[] added) {
+            int index = indexOf(key);
+            if (index >= 0) {
+                if (value.equals(values[index]))
+                    return this;
+                Object[] newValues = values.clone();
+                newValues[index] = value;
+                return new CollisionNode(keys, newValues);
+            }
+            Object[] newKeys = new Object[keys.length + 1];
+            Object[] newValues = new Object[values.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, keys.length);
+            System.arraycopy(values, 0, newValues, 0, values.length);
+            newKeys[keys.length] = key;
+            newValues[values.length] = value;
+            added[0] = true;
+            return new CollisionNode(newKeys, newValues);
+        }
+
+        Node minus(Object key, int hash, int shift) {
+            int index = indexOf(key);
+            if (index < 0)
+                return this;
+            if (keys.length == 1)
+                return null;
+            Object[] newKeys = new Object[keys.length - 1];
+            Object[] newValues = new Object[values.length - 1];
+            System.arraycopy(keys, 0, newKeys, 0, index);
+            System.arraycopy(values, 0, newValues, 0, index);
+            System.arraycopy(keys, index + 1, newKeys, index, newKeys.length - index);
+            System.arraycopy(values, index + 1, newValues, index, newValues.length - index);
+            return new CollisionNode(newKeys, newValues);
+        }
+
+        void collect(List<Map.Entry<Object, Object>> entries) {
+            for (int i = 0; i < keys.length; i++)
+                entries.add(new SimpleImmutableEntry<Object, Object>(keys[i], values[i]));
+        }
+    }
+
+    private static Node node(int shift, Object key1, int hash1, Object value1, Object key2, int hash2, Object value2) {
+        if (shift >= Integer.SIZE)
+            return new CollisionNode(new Object[] {key1, key2}, new Object[] {value1, value2});
+        int bit1 = 1 << ((hash1 >>> shift) & MASK);
+        int bit2 = 1 << ((hash2 >>> shift) & MASK);
+        if (bit1 == bit2)
+            return new BitmapNode(bit1, new Object[] {null, node(shift + BITS, key1, hash1, value1, key2, hash2, value2)});
+        if (Integer.bitCount(bit1 - 1) < Integer.bitCount(bit2 - 1))
+            return new BitmapNode(bit1 | bit2, new Object[] {key1, value1, key2, value2});
+        return new BitmapNode(bit1 | bit2, new Object[] {key2, value2, key1, value1});
+    }
+
+}
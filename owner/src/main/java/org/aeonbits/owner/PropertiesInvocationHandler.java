@@ -12,8 +12,14 @@ import java.io.IOException;
 import java.io.Serializable;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
-import java.util.LinkedList;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
 
 import static org.aeonbits.owner.Config.DisableableFeature.PARAMETER_FORMATTING;
 import static org.aeonbits.owner.Config.DisableableFeature.VARIABLE_EXPANSION;
@@ -41,9 +47,11 @@ import static org.aeonbits.owner.util.Reflection.isDefault;
 class PropertiesInvocationHandler implements InvocationHandler, Serializable {
 
     private static final long serialVersionUID = 5432212884255718342L;
+    private static final Map<Class<?>, List<Method>> DELEGATE_METHODS = new HashMap<Class<?>, List<Method>>();
     private transient List<DelegateMethodHandle> delegates;
     private final Object jmxSupport;
     private final StrSubstitutor substitutor;
+    private final StrSubstitutor scopedSubstitutor;
     final PropertiesManager propertiesManager;
 
 
@@ -51,10 +59,14 @@ class PropertiesInvocationHandler implements InvocationHandler, Serializable {
         this.propertiesManager = manager;
         this.jmxSupport = jmxSupport;
         delegates = findDelegates(manager, jmxSupport);
-        this.substitutor = new StrSubstitutor(manager.load());
+        Properties properties = manager.initialLoad();
+        this.substitutor = new StrSubstitutor(properties);
+        this.scopedSubstitutor = new ScopedSubstitutor(manager, properties);
     }
 
     public Object invoke(Object proxy, Method invokedMethod, Object... args) throws Throwable {
+        if (!isLifecycleMethod(invokedMethod))
+            propertiesManager.ensureLoaded();
         propertiesManager.syncReloadCheck();
 
         if (isDefault(invokedMethod))
@@ -64,7 +76,16 @@ class PropertiesInvocationHandler implements InvocationHandler, Serializable {
         if (delegate != null)
             return delegate.invoke(args);
 
-        return resolveProperty(invokedMethod, args);
+        return resolveProperty(true, invokedMethod, args);
+    }
+
+    /**
+     * Closing or reloading a config object doesn't require its properties to be loaded first.
+     */
+    private static boolean isLifecycleMethod(Method method) {
+        Class<?> declaringClass = method.getDeclaringClass();
+        return declaringClass == Closeable.class && method.getName().equals("close") ||
+                declaringClass == Reloadable.class && method.getName().equals("reload");
     }
 
     private DelegateMethodHandle getDelegateMethod(Method invokedMethod) {
@@ -74,26 +95,78 @@ class PropertiesInvocationHandler implements InvocationHandler, Serializable {
         return null;
     }
 
-    private Object resolveProperty(Method method, Object... args) {
-        String key = expandKey(method, args);
-        String value = propertiesManager.getProperty(key);
+    /**
+     * Resolves the value of the given method mapping a property without parameters, as seen by all the threads, that is
+     * ignoring the {@link ScopedOverrides overrides bound to the current thread}.
+     */
+    Object resolve(Method method) {
+        return resolveProperty(false, method);
+    }
+
+    /**
+     * Returns the keys the value of the given method, as {@link #resolve(Method) resolved}, depends on: its key, and the
+     * keys of the variables expanded in the key and in the value, so that the value needs to be resolved again only
+     * when one of them changes.
+     */
+    Set<String> dependencies(Method method) {
+        Set<String> result = new HashSet<String>();
+        String key = key(method);
+        result.add(key);
+        if (isFeatureDisabled(method, VARIABLE_EXPANSION))
+            return result;
+        String expandedKey = expandKey(false, method);
+        result.add(expandedKey);
+        substitutor.collectVariables(key, result);
+        substitutor.collectVariables(propertiesManager.getSharedProperty(expandedKey), result);
+        substitutor.collectVariables(propertiesManager.getSharedProperty(key), result);
+        return result;
+    }
+
+    private Object resolveProperty(boolean scoped, Method method, Object... args) {
+        String key = expandKey(scoped, method, args);
+        String value = getProperty(scoped, key);
 
         // TODO: this if should go away! See #84 and #86
         if (value == null && !isFeatureDisabled(method, VARIABLE_EXPANSION)) {
             String unexpandedKey = key(method);
-            value = propertiesManager.getProperty(unexpandedKey);
+            value = getProperty(scoped, unexpandedKey);
         }
         if (value == null)
             return null;
         value = preProcess(method, value);
         Object result = convert(method, method.getReturnType(),
                 format(method, propertiesManager
-                    .decryptIfNecessary(method, expandVariables(method, value)),
+                    .decryptIfNecessary(method, expandVariables(scoped, method, value)),
                     args));
         if (result == NULL) return null;
         return result;
     }
 
+    /**
+     * Looks up the given key in the {@link ScopedOverrides overrides bound to the current thread} first, if scoped.
+     */
+    private String getProperty(boolean scoped, String key) {
+        return scoped ? propertiesManager.getProperty(key) : propertiesManager.getSharedProperty(key);
+    }
+
+    /**
+     * Expands the variables looking them up in the {@link ScopedOverrides overrides bound to the current thread} first.
+     */
+    private static class ScopedSubstitutor extends StrSubstitutor {
+        private final PropertiesManager manager;
+
+        ScopedSubstitutor(PropertiesManager manager, Properties values) {
+            super(values);
+            this.manager = manager;
+        }
+
+        @Override
+        String lookup(String var) {
+            String value = ScopedOverrides.get(manager, var);
+            return value != null ? value : super.lookup(var);
+        }
+    }
+
     private String preProcess(Method method, String value) {
         List<Preprocessor> preprocessors = resolvePreprocessors(method);
         String result = value;
@@ -102,11 +175,11 @@ class PropertiesInvocationHandler implements InvocationHandler, Serializable {
         return result;
     }
 
-    private String expandKey(Method method, Object... args) {
+    private String expandKey(boolean scoped, Method method, Object... args) {
         String key = key(method);
         if (isFeatureDisabled(method, VARIABLE_EXPANSION))
             return key;
-        return substitutor.replace(key, args);
+        return substitutor(scoped).replace(key, args);
     }
 
     private String format(Method method, String format, Object... args) {
@@ -132,29 +205,59 @@ class PropertiesInvocationHandler implements InvocationHandler, Serializable {
             }
     }
 
-    private String expandVariables(Method method, String value) {
+    private String expandVariables(boolean scoped, Method method, String value) {
         if (isFeatureDisabled(method, VARIABLE_EXPANSION))
             return value;
-        return substitutor.replace(value);
+        return substitutor(scoped).replace(value);
+    }
+
+    private StrSubstitutor substitutor(boolean scoped) {
+        return scoped ? scopedSubstitutor : substitutor;
     }
 
     private List<DelegateMethodHandle> findDelegates(Object... targets) {
-        List<DelegateMethodHandle> result = new LinkedList<DelegateMethodHandle>();
+        List<DelegateMethodHandle> result = new ArrayList<DelegateMethodHandle>();
         for (Object target : targets) {
             if (target == null)
                 continue;
-            Method[] methods = target.getClass().getMethods();
-            for (Method m : methods)
-                if (m.getAnnotation(Delegate.class) != null)
-                    result.add(new DelegateMethodHandle(target, m));
+            for (Method m : delegateMethods(target.getClass()))
+                result.add(new DelegateMethodHandle(target, m));
         }
         return result;
     }
 
+    /**
+     * The delegates are always instances of the same few classes, so their methods are looked up once per class.
+     */
+    private static List<Method> delegateMethods(Class<?> clazz) {
+        synchronized (DELEGATE_METHODS) {
+            List<Method> result = DELEGATE_METHODS.get(clazz);
+            if (result == null) {
+                result = new ArrayList<Method>();
+                for (Method m : clazz.getMethods())
+                    if (m.getAnnotation(Delegate.class) != null)
+                        result.add(m);
+                DELEGATE_METHODS.put(clazz, result);
+            }
+            return result;
+        }
+    }
+
     public <T extends Config> void setProxy(T proxy) {
         propertiesManager.setProxy(proxy);
     }
 
+    /**
+     * Creates a config object implementing the given interfaces, like the one handled by this, for the given manager.
+     */
+    Object newProxy(Class<? extends Config> clazz, Class<?>[] interfaces, PropertiesManager manager) {
+        Object newJMXSupport = jmxSupport != null ? new JMXSupport(clazz, manager) : null;
+        PropertiesInvocationHandler handler = new PropertiesInvocationHandler(manager, newJMXSupport);
+        Object result = Proxy.newProxyInstance(clazz.getClassLoader(), interfaces, handler);
+        handler.setProxy((Config) result);
+        return result;
+    }
+
     private void readObject(java.io.ObjectInputStream in)
             throws IOException, ClassNotFoundException {
         in.defaultReadObject();
@@ -11,25 +11,30 @@ package org.aeonbits.owner;
 import org.aeonbits.owner.crypto.Decryptor;
 import org.aeonbits.owner.crypto.IdentityDecryptor;
 import org.aeonbits.owner.event.*;
+import org.aeonbits.owner.loaders.Loader;
+import org.aeonbits.owner.loaders.WatchableLoader;
+import org.aeonbits.owner.loaders.WatchableLoader.SourceListener;
 import org.aeonbits.owner.util.Util;
 
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.io.*;
+import java.lang.ref.WeakReference;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock.ReadLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock.WriteLock;
 
 import static java.util.Collections.synchronizedList;
-import static org.aeonbits.owner.Config.LoadType.FIRST;
-import static org.aeonbits.owner.PropertiesMapper.defaults;
 import static org.aeonbits.owner.util.Util.*;
 
 /**
@@ -37,24 +42,42 @@ import static org.aeonbits.owner.util.Util.*;
  *
  * @author Luigi R. Viggiano
  */
-class PropertiesManager implements Reloadable, Accessible, Mutable {
+class PropertiesManager implements Reloadable, Accessible, Mutable, Closeable, Derivable, Overridable {
     private final Class<? extends Config> clazz;
+    private transient ConfigClassMetadata metadata;
     private final Map<?, ?>[] imports;
     private final Properties properties;
     private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
     private final ReadLock readLock = lock.readLock();
     private final WriteLock writeLock = lock.writeLock();
+    // serializes the loads, so that the sources are loaded without holding the write lock; taken before the write lock.
+    private final ReentrantLock loadLock = new ReentrantLock();
 
     private final LoadType loadType;
+    private final boolean parallelLoad;
+    private final boolean lazyLoad;
+    private volatile boolean loaded = false;
+    private volatile List<LoadedSource> loadedSources = Collections.emptyList();
+    private transient volatile Map<URI, LoadedSource> prefetched;
     private final List<URI> uris;
     private final HotReloadLogic hotReloadLogic;
 
     private volatile boolean loading = false;
+    private volatile boolean closed = false;
+    private volatile long generation = 0;
+    private final Map<String, Long> keyGenerations = new ConcurrentHashMap<String, Long>();
+    private transient volatile long[] cachedHashCode;
 
     final List<ReloadListener> reloadListeners = synchronizedList(new LinkedList<ReloadListener>());
 
     private Object proxy;
     private final LoadersManager loaders;
+    private final transient WatchRegistry watchRegistry;
+    private final transient List<java.io.Closeable> sourceWatches = new ArrayList<java.io.Closeable>();
+    private transient volatile ValueChangeSubscriptions valueChangeSubscriptions;
+    private transient Set<String> unnotifiedKeys; // guarded by the write lock.
+    private transient Set<Object> cacheKeys; // guarded by this.
+    private Snapshot snapshot;
 
 
     /**
@@ -83,76 +106,89 @@ class PropertiesManager implements Reloadable, Accessible, Mutable {
 
     PropertiesManager(Class<? extends Config> clazz, Properties properties, ScheduledExecutorService scheduler,
                       VariablesExpander expander, LoadersManager loaders, Map<?, ?>... imports) {
+        this(clazz, properties, new WatchRegistry(scheduler), expander, loaders, imports);
+    }
+
+    PropertiesManager(Class<? extends Config> clazz, Properties properties, WatchRegistry watchRegistry,
+                      VariablesExpander expander, LoadersManager loaders, Map<?, ?>... imports) {
         this.clazz = clazz;
         this.properties = properties;
         this.loaders = loaders;
+        this.watchRegistry = watchRegistry;
         this.imports = imports;
+        ConfigClassMetadata metadata = metadata();
         ConfigURIFactory urlFactory = new ConfigURIFactory(clazz.getClassLoader(), expander);
-        uris = toURIs(clazz.getAnnotation(Sources.class), urlFactory);
-
-        for (Class<?> inter : clazz.getInterfaces()) {
-            this.uris.addAll(toURIs(inter.getAnnotation(Sources.class), urlFactory));
-        }
+        uris = new ArrayList<URI>();
+        for (String[] specs : metadata.sourceSpecs())
+            uris.addAll(toURIs(specs, urlFactory));
 
-        LoadPolicy loadPolicy = clazz.getAnnotation(LoadPolicy.class);
-        if (loadPolicy == null) {
-            for (Class<?> inter : clazz.getInterfaces()) {
-                loadPolicy = inter.getAnnotation(LoadPolicy.class);
-                if (loadPolicy != null) {
-                    break;
-                }
-            }
-        }
-        loadType = (loadPolicy != null) ? loadPolicy.value() : FIRST;
+        loadType = metadata.loadType();
+        parallelLoad = metadata.parallelLoad();
+        lazyLoad = metadata.lazyLoad();
 
-        HotReload hotReload = clazz.getAnnotation(HotReload.class);
-        if (hotReload == null) {
-            for (Class<?> inter : clazz.getInterfaces()) {
-                hotReload = inter.getAnnotation(HotReload.class);
-                if (hotReload != null) {
-                    break;
-                }
-            }
-        }
+        HotReload hotReload = metadata.hotReload();
         if (hotReload != null) {
-            hotReloadLogic = new HotReloadLogic(hotReload, uris, this);
+            hotReloadLogic = new HotReloadLogic(hotReload, uris, this, loaders);
 
             if (hotReloadLogic.isAsync())
-                scheduler.scheduleAtFixedRate(new Runnable() {
-                    public void run() {
-                        hotReloadLogic.checkAndReload();
-                    }
-                }, hotReload.value(), hotReload.value(), hotReload.unit());
+                watchRegistry.subscribe(hotReloadLogic);
+            watchSources();
         } else {
             hotReloadLogic = null;
         }
 
-        // We try to identify the DecryptorClass annotation, to assign the Decryptor to this configuration.
-        // If it isn't present then we assign the IdentityDecryptor.
-        DecryptorClass decryptorManager = clazz.getAnnotation(DecryptorClass.class);
-        Class<? extends Decryptor> decryptorClazz;
-        if (decryptorManager != null) {
-            decryptorClazz = decryptorManager.value();
+        newDecryptors();
+    }
+
+    /**
+     * Creates a manager sharing the properties and the sources of the given one, with the given properties overriding
+     * them; it's not hot reloaded.
+     */
+    private PropertiesManager(PropertiesManager parent, Map<String, String> overrides) {
+        clazz = parent.clazz;
+        metadata = parent.metadata();
+        imports = new Map<?, ?>[parent.imports.length + 1];
+        imports[0] = new HashMap<String, String>(overrides);
+        System.arraycopy(parent.imports, 0, imports, 1, parent.imports.length);
+        if (parent.properties instanceof LayeredProperties) {
+            properties = ((LayeredProperties) parent.properties).derive(overrides);
         } else {
-            decryptorClazz = IdentityDecryptor.class;
-        }
-        Decryptor classDecryptor = Util.newInstance(decryptorClazz);
-
-        // Reflection is slow, so we will cache all methods with EncryptedValue annotation.
-        Method[] methods = clazz.getMethods();
-        for (Method method : methods) {
-            if (PropertiesMapper.isEncryptedValue(method)) {
-                EncryptedValue encriptedKey = method.getAnnotation(EncryptedValue.class);
-                decryptorClazz = encriptedKey.value();
-                if (decryptorClazz != IdentityDecryptor.class) {
-                    encryptedKeys.put(method, Util.newInstance(decryptorClazz));
-                } else {
-                    encryptedKeys.put(method, classDecryptor);
-                }
-            }
+            LayeredProperties layered = new LayeredProperties();
+            layered.setLayers(Arrays.<Map<?, ?>>asList(imports[0], (Properties) parent.properties.clone()));
+            properties = layered;
+        }
+        loaders = parent.loaders;
+        watchRegistry = parent.watchRegistry;
+        uris = parent.uris;
+        loadType = parent.loadType;
+        parallelLoad = parent.parallelLoad;
+        lazyLoad = false;
+        loaded = true;
+        generation = 1;
+        loadedSources = parent.loadedSources;
+        hotReloadLogic = null;
+        newDecryptors();
+    }
+
+    private void newDecryptors() {
+        // The decryptors are instantiated for each config object, since they may not be thread safe.
+        ConfigClassMetadata metadata = metadata();
+        Decryptor classDecryptor = Util.newInstance(metadata.decryptorClass());
+        for (Map.Entry<Method, Class<? extends Decryptor>> entry : metadata.encryptedValues().entrySet()) {
+            Class<? extends Decryptor> decryptorClazz = entry.getValue();
+            if (decryptorClazz != IdentityDecryptor.class)
+                encryptedKeys.put(entry.getKey(), Util.newInstance(decryptorClazz));
+            else
+                encryptedKeys.put(entry.getKey(), classDecryptor);
         }
     }
 
+    private ConfigClassMetadata metadata() {
+        if (metadata == null) // after deserialization
+            metadata = ConfigClassMetadata.of(clazz);
+        return metadata;
+    }
+
     /**
      * If method contains the EncryptedValue annotation it Decrypts the value with the associated {@link Decryptor}.
      *
@@ -171,8 +207,178 @@ class PropertiesManager implements Reloadable, Accessible, Mutable {
         return value;
     }
 
-    private List<URI> toURIs(Sources sources, ConfigURIFactory uriFactory) {
-        String[] specs = specs(sources, uriFactory);
+    /**
+     * Subscribes to the changes pushed by the loaders of the sources, so that they are applied as soon as they happen,
+     * regardless of the hot reload interval.
+     */
+    private void watchSources() {
+        for (URI uri : new LinkedHashSet<URI>(uris)) {
+            Loader loader = loaders.findLoader(uri);
+            if (loader instanceof WatchableLoader) {
+                SourceChangeHandler handler = new SourceChangeHandler(this, watchRegistry);
+                try {
+                    handler.watch = ((WatchableLoader) loader).watch(uri, handler);
+                    sourceWatches.add(handler.watch);
+                } catch (IOException e) {
+                    ignore(/* changes will be detected by the hot reload checks only */);
+                }
+            }
+        }
+    }
+
+    /**
+     * Hands the changes over to the background worker of the factory. It doesn't prevent the config object from being
+     * garbage collected, and stops watching the source once that happened.
+     */
+    private static class SourceChangeHandler implements SourceListener {
+        private final WeakReference<PropertiesManager> manager;
+        private final WatchRegistry registry;
+        private volatile java.io.Closeable watch;
+
+        SourceChangeHandler(PropertiesManager manager, WatchRegistry registry) {
+            this.manager = new WeakReference<PropertiesManager>(manager);
+            this.registry = registry;
+        }
+
+        public void sourceChanged(final URI uri, final Map<String, String> changes) {
+            final PropertiesManager target = manager.get();
+            if (target == null || target.isClosed()) {
+                close(watch);
+                return;
+            }
+            registry.execute(new Runnable() {
+                public void run() {
+                    target.applySourceChanges(uri, changes);
+                }
+            });
+        }
+    }
+
+    private static void close(java.io.Closeable closeable) {
+        if (closeable == null)
+            return;
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            ignore(/* the source won't be watched anymore */);
+        }
+    }
+
+    /**
+     * Updates the properties changed in the given source, leaving the other properties and sources untouched. The whole
+     * config is reloaded instead if the source was not available at the last load, or if its properties may be shared
+     * with other config objects.
+     */
+    void applySourceChanges(URI uri, Map<String, String> changes) {
+        if (closed)
+            return;
+        loadLock.lock();
+        try {
+            if (!applyToLoadedSource(uri, changes))
+                reload();
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    /**
+     * @return <code>false</code> if the whole config is to be reloaded instead, which can't be done holding the write
+     * lock.
+     */
+    private boolean applyToLoadedSource(URI uri, Map<String, String> changes) {
+        writeLock.lock();
+        try {
+            List<LoadedSource> sources = new ArrayList<LoadedSource>(loadedSources);
+            boolean found = false;
+            for (LoadedSource source : sources)
+                if (source.uri().equals(uri)) {
+                    if (!source.isLoaded() || fileFromURI(uri) != null || !(properties instanceof LayeredProperties))
+                        return false;
+                    found = true;
+                }
+            if (!found)
+                return true; // not loaded yet, or not used because a previous source has been loaded.
+
+            Properties oldValues = new Properties();
+            for (String key : changes.keySet()) {
+                String oldValue = properties.getProperty(key);
+                if (oldValue != null)
+                    oldValues.put(key, oldValue);
+            }
+            // the loaded properties may be shared with derived config objects, so they are replaced, not modified.
+            for (int i = 0; i < sources.size(); i++) {
+                LoadedSource source = sources.get(i);
+                if (!source.uri().equals(uri))
+                    continue;
+                Properties sourceProperties = (Properties) source.properties().clone();
+                for (Map.Entry<String, String> change : changes.entrySet())
+                    if (change.getValue() == null)
+                        sourceProperties.remove(change.getKey());
+                    else
+                        sourceProperties.put(change.getKey(), change.getValue());
+                sources.set(i, new LoadedSource(uri, sourceProperties, null, source.elapsedTime()));
+                ((LayeredProperties) properties).replaceLayer(source.properties(), sourceProperties,
+                        changes.keySet());
+            }
+            loadedSources = sources;
+
+            update(changes.keySet(), oldValues);
+        } catch (RollbackBatchException e) {
+            ignore();
+        } finally {
+            unlockAndNotify();
+        }
+        return true;
+    }
+
+    /**
+     * Fires the change events for the given keys, whose new values have already been applied to the sources; the
+     * values of the changes vetoed by the listeners are restored. The reload event is fired only if some listener is
+     * interested in it, since it requires to copy all the properties.
+     */
+    private void update(Set<String> keys, Properties oldValues) throws RollbackBatchException {
+        List<PropertyChangeEvent> events = Collections.emptyList();
+        ReloadEvent reloadEvent = null;
+        try {
+            events = fireBeforePropertyChangeEvents(keys, oldValues, properties);
+            if (!events.isEmpty() && !reloadListeners.isEmpty()) {
+                Properties oldProperties = new Properties();
+                oldProperties.putAll(properties);
+                for (PropertyChangeEvent event : events)
+                    if (event.getOldValue() == null)
+                        oldProperties.remove(event.getPropertyName());
+                    else
+                        oldProperties.put(event.getPropertyName(), event.getOldValue());
+                reloadEvent = fireBeforeReloadEvent(events, oldProperties, properties);
+            }
+        } catch (RollbackBatchException e) {
+            restoreRejected(keys, Collections.<PropertyChangeEvent>emptyList(), oldValues);
+            throw e;
+        }
+        restoreRejected(keys, events, oldValues);
+        changed(events);
+        firePropertyChangeEvents(events);
+        if (reloadEvent != null)
+            fireReloadEvent(reloadEvent);
+    }
+
+    /**
+     * Restores the old values of the given keys, except the ones changed by the given events, as runtime overrides.
+     */
+    private void restoreRejected(Set<?> keys, List<PropertyChangeEvent> accepted, Properties oldValues) {
+        Set<String> changed = new HashSet<String>();
+        for (PropertyChangeEvent event : accepted)
+            changed.add(event.getPropertyName());
+        for (Object key : keys)
+            if (!changed.contains(key)) {
+                String oldValue = oldValues.getProperty((String) key);
+                if (!eq(oldValue, properties.getProperty((String) key)))
+                    performSetProperty((String) key, oldValue);
+            }
+    }
+
+    private List<URI> toURIs(String[] sourceSpecs, ConfigURIFactory uriFactory) {
+        String[] specs = sourceSpecs != null ? sourceSpecs : defaultSpecs(uriFactory);
         List<URI> result = new ArrayList<URI>();
         for (String spec : specs) {
             try {
@@ -186,53 +392,217 @@ class PropertiesManager implements Reloadable, Accessible, Mutable {
         return result;
     }
 
-    private String[] specs(Sources sources, ConfigURIFactory uriFactory) {
-        if (sources != null) return sources.value();
-        return defaultSpecs(uriFactory);
-    }
-
     private String[] defaultSpecs(ConfigURIFactory uriFactory) {
         String prefix = uriFactory.toClasspathURLSpec(clazz.getName());
         return loaders.defaultSpecs(prefix);
     }
 
+    /**
+     * Keeps the last known good properties loaded from the sources in the given directory, to serve them right away at
+     * the next start, and whenever the sources fail to load.
+     */
+    void setSnapshotDirectory(File directory) {
+        snapshot = directory == null ? null : new Snapshot(directory, clazz, uris);
+    }
+
+    List<URI> uris() {
+        return uris;
+    }
+
+    /**
+     * @return <code>true</code> if the {@link #initialLoad() initial load} is going to load the sources, that is when
+     * the config object is neither lazy nor served from a snapshot.
+     */
+    boolean loadsSourcesOnCreation() {
+        return !lazyLoad && (snapshot == null || snapshot.read() == null);
+    }
+
+    /**
+     * Sets the sources already loaded for this config object, to be used by its next load in place of loading them
+     * again.
+     */
+    void setPrefetched(Map<URI, LoadedSource> sources) {
+        prefetched = sources;
+    }
+
+    /**
+     * Loads the properties, unless the config object is lazy, or derived from a loaded one.
+     *
+     * @return the properties of the config object, which a lazy config object fills at the first access.
+     */
+    Properties initialLoad() {
+        return lazyLoad || loaded ? properties : load();
+    }
+
+    /**
+     * Loads the properties of a lazy config object, if this wasn't done yet. Concurrent callers wait for the same load.
+     */
+    void ensureLoaded() {
+        if (loaded)
+            return;
+        loadLock.lock();
+        try {
+            if (!loaded)
+                load();
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    /**
+     * Loads the properties; if a snapshot is available, the properties are served from it, and the sources are loaded
+     * in background, on the threads of the loaders, then applied as a reload.
+     */
     Properties load() {
-        writeLock.lock();
+        loadLock.lock();
         try {
-            return load(properties);
+            boolean fromSnapshot = snapshot != null && snapshot.read() != null;
+            Properties result;
+            writeLock.lock();
+            try {
+                result = fromSnapshot ? loadSnapshot(properties) : load(properties, false);
+                generation++;
+            } finally {
+                unlockAndNotify();
+            }
+            if (fromSnapshot)
+                loaders.execute(new Runnable() {
+                    public void run() {
+                        if (!closed)
+                            reload();
+                    }
+                });
+            return result;
         } finally {
-            writeLock.unlock();
+            loadLock.unlock();
         }
     }
 
-    private Properties load(Properties props) {
+    /**
+     * Loads the properties from the snapshot, while the sources are loaded in background.
+     */
+    private Properties loadSnapshot(Properties props) {
+        List<Map<?, ?>> layers = importLayers();
+        layers.add(snapshot.read());
+        layers.add(metadata().defaults());
+        setLayers(props, layers);
+        loaded = true;
+        return props;
+    }
+
+    /**
+     * @param reload    <code>true</code> if the properties are explicitly reloaded, so that the sources are not served
+     *                  from caches.
+     */
+    private Properties load(Properties props, boolean reload) {
         try {
             loading = true;
-            defaults(props, clazz);
-            Properties loadedFromFile = doLoad();
-            merge(props, loadedFromFile);
-            merge(props, reverse(imports));
+            List<Map<?, ?>> layers = importLayers();
+            List<Properties> loadedFromFile = doLoad(reload);
+            if (hotReloadLogic != null)
+                hotReloadLogic.sourcesLoaded();
+            layers.addAll(loadedFromFile);
+            if (snapshot != null) {
+                Properties lastKnownGood = lastKnownGood(loadedFromFile);
+                if (lastKnownGood != null)
+                    layers.add(lastKnownGood);
+            }
+            layers.add(metadata().defaults());
+            setLayers(props, layers);
+            loaded = true;
             return props;
         } finally {
             loading = false;
         }
     }
 
+    /**
+     * @return a copy of each import, since the caller may change them afterwards.
+     */
+    private List<Map<?, ?>> importLayers() {
+        List<Map<?, ?>> result = new ArrayList<Map<?, ?>>();
+        for (Map<?, ?> map : imports)
+            result.add(new HashMap<Object, Object>(map));
+        return result;
+    }
+
+    /**
+     * Resolves the given properties through the given layers, highest priority first; plain properties, which can't
+     * reference the layers, are filled with their content instead.
+     */
+    private static void setLayers(Properties props, List<Map<?, ?>> layers) {
+        if (props instanceof LayeredProperties)
+            ((LayeredProperties) props).setLayers(layers);
+        else
+            for (Map<?, ?> layer : reverse(layers))
+                props.putAll(layer);
+    }
+
+    /**
+     * Saves the loaded properties in the snapshot; if some remote source could not be loaded, the snapshot is left as
+     * is, and its properties are used where the sources didn't provide a value.
+     *
+     * @return the properties of the snapshot to use where the sources didn't provide a value, or <code>null</code>.
+     */
+    private Properties lastKnownGood(List<Properties> loaded) {
+        boolean anyLoaded = false;
+        boolean remoteFailed = false;
+        for (LoadedSource source : loadedSources)
+            if (source.isLoaded())
+                anyLoaded = true;
+            else if (isRemote(source.uri()))
+                remoteFailed = true;
+
+        if (anyLoaded && !remoteFailed) {
+            Properties merged = new Properties();
+            for (Properties source : reverse(loaded))
+                merged.putAll(source);
+            snapshot.write(merged);
+            return null;
+        }
+        return snapshot.read();
+    }
+
+    private static boolean isRemote(URI uri) {
+        String scheme = uri.getScheme();
+        return !"file".equalsIgnoreCase(scheme) && !"jar".equalsIgnoreCase(scheme) &&
+                !"system".equalsIgnoreCase(scheme);
+    }
+
     @Delegate
     public void reload() {
+        loadLock.lock();
+        try {
+            Properties loaded = load(new LayeredProperties(), true);
+            swap(loaded);
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    /**
+     * Replaces the properties with the given ones, just loaded from the sources, firing the change events.
+     */
+    private void swap(Properties loaded) {
         writeLock.lock();
         try {
-            Properties loaded = load(new Properties());
-            List<PropertyChangeEvent> events =
-                    fireBeforePropertyChangeEvents(keys(properties, loaded), properties, loaded);
+            Set<?> keys = keys(properties, loaded);
+            List<PropertyChangeEvent> events = fireBeforePropertyChangeEvents(keys, properties, loaded);
             ReloadEvent reloadEvent = fireBeforeReloadEvent(events, properties, loaded);
-            applyPropertyChangeEvents(events);
+            if (properties instanceof LayeredProperties) {
+                Properties oldValues = (Properties) properties.clone();
+                ((LayeredProperties) properties).setLayers(((LayeredProperties) loaded).layers());
+                restoreRejected(keys, events, oldValues);
+            } else {
+                applyPropertyChangeEvents(events);
+            }
+            changed(events);
             firePropertyChangeEvents(events);
             fireReloadEvent(reloadEvent);
         } catch (RollbackBatchException e) {
             ignore();
         } finally {
-            writeLock.unlock();
+            unlockAndNotify();
         }
     }
 
@@ -275,6 +645,50 @@ class PropertiesManager implements Reloadable, Accessible, Mutable {
             reloadListeners.remove(listener);
     }
 
+    @Delegate
+    public <T> void addValueChangeListener(String methodName, ValueChangeListener<T> listener) {
+        if (methodName == null || listener == null)
+            return;
+        Method method = propertyMethod(methodName);
+        ValueChangeSubscriptions.checkType(method, listener);
+        writeLock.lock();
+        try {
+            PropertiesInvocationHandler handler = handler();
+            Set<String> keys = handler.dependencies(method);
+            Object value;
+            try {
+                value = handler.resolve(method);
+            } catch (RuntimeException e) {
+                value = null; // the listener will be notified when the value becomes valid.
+            }
+            if (valueChangeSubscriptions == null)
+                valueChangeSubscriptions = new ValueChangeSubscriptions();
+            valueChangeSubscriptions.add(method, value, keys, listener);
+        } finally {
+            unlockAndNotify();
+        }
+    }
+
+    private Method propertyMethod(String methodName) {
+        try {
+            Method method = clazz.getMethod(methodName);
+            boolean libraryMethod = method.getDeclaringClass().isAssignableFrom(PropertiesManager.class);
+            if (method.getReturnType() != void.class && !libraryMethod)
+                return method;
+        } catch (NoSuchMethodException e) {
+            ignore();
+        }
+        throw new IllegalArgumentException(
+                String.format("No method %s() mapping a property in %s", methodName, clazz.getName()));
+    }
+
+    @Delegate
+    public void removeValueChangeListener(ValueChangeListener<?> listener) {
+        ValueChangeSubscriptions subscriptions = valueChangeSubscriptions;
+        if (listener != null && subscriptions != null)
+            subscriptions.remove(listener);
+    }
+
     @Delegate
     public void addPropertyChangeListener(PropertyChangeListener listener) {
         if (listener != null)
@@ -335,17 +749,46 @@ class PropertiesManager implements Reloadable, Accessible, Mutable {
         }
     }
 
-    private Properties doLoad() {
-        return loadType.load(uris, loaders);
+    /**
+     * @return the properties of the loaded sources, highest priority first.
+     */
+    private List<Properties> doLoad(boolean reload) {
+        Map<URI, LoadedSource> prefetched = this.prefetched;
+        this.prefetched = null;
+        List<LoadedSource> sources = loadType.load(uris, loaders, parallelLoad, prefetched, reload);
+        loadedSources = sources;
+        List<Properties> result = new ArrayList<Properties>();
+        for (LoadedSource source : sources)
+            if (source.isLoaded())
+                result.add(source.properties());
+        return result;
     }
 
-    private static void merge(Properties results, Map<?, ?>... inputs) {
-        for (Map<?, ?> input : inputs)
-            results.putAll(input);
+    @Delegate
+    public List<LoadedSource> loadedSources() {
+        return loadedSources;
+    }
+
+    /**
+     * @return the layers the properties are resolved through, highest priority first; empty if the properties are not
+     * layered.
+     */
+    List<Map<?, ?>> layers() {
+        return properties instanceof LayeredProperties ?
+                ((LayeredProperties) properties).layers() : Collections.<Map<?, ?>>emptyList();
     }
 
     @Delegate
     public String getProperty(String key) {
+        String value = ScopedOverrides.get(this, key);
+        return value != null ? value : getSharedProperty(key);
+    }
+
+    /**
+     * Returns the value of the given key as seen by all the threads, that is ignoring the {@link ScopedOverrides
+     * overrides bound to the current thread}.
+     */
+    String getSharedProperty(String key) {
         readLock.lock();
         try {
             return properties.getProperty(key);
@@ -354,19 +797,99 @@ class PropertiesManager implements Reloadable, Accessible, Mutable {
         }
     }
 
-    void syncReloadCheck() {
-        if (hotReloadLogic != null && hotReloadLogic.isSync())
-            hotReloadLogic.checkAndReload();
-    }
-
     @Delegate
-    public String getProperty(String key, String defaultValue) {
+    @SuppressWarnings("unchecked")
+    public <T extends Config> T derive(Map<String, String> overrides) {
+        PropertiesManager derived;
         readLock.lock();
         try {
-            return properties.getProperty(key, defaultValue);
+            derived = new PropertiesManager(this, overrides);
         } finally {
             readLock.unlock();
         }
+        return (T) handler().newProxy(clazz, proxy.getClass().getInterfaces(), derived);
+    }
+
+    @Delegate
+    public <V> V withOverrides(Map<String, String> overrides, Callable<V> task) throws Exception {
+        return ScopedOverrides.call(this, overrides, task);
+    }
+
+    @Delegate
+    public void withOverrides(Map<String, String> overrides, final Runnable task) {
+        try {
+            ScopedOverrides.call(this, overrides, new Callable<Void>() {
+                public Void call() {
+                    task.run();
+                    return null;
+                }
+            });
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e); // can't happen, Runnable doesn't throw checked exceptions.
+        }
+    }
+
+    void syncReloadCheck() {
+        if (hotReloadLogic == null || closed)
+            return;
+        if (hotReloadLogic.isSync())
+            hotReloadLogic.checkAndReload();
+        else if (hotReloadLogic.isDeferred())
+            deferredReloadCheck();
+    }
+
+    private void deferredReloadCheck() {
+        if (watchRegistry != null)
+            hotReloadLogic.checkAndReloadInBackground(watchRegistry);
+        else
+            hotReloadLogic.checkAndReload(); // deserialized objects have no background worker to use.
+    }
+
+    @Delegate
+    public void close() {
+        if (closed) return;
+        closed = true;
+        if (hotReloadLogic != null && watchRegistry != null)
+            watchRegistry.unsubscribe(hotReloadLogic);
+        if (sourceWatches != null)
+            for (java.io.Closeable watch : sourceWatches)
+                close(watch);
+        reloadListeners.clear();
+        propertyChangeListeners.clear();
+        ValueChangeSubscriptions subscriptions = valueChangeSubscriptions;
+        if (subscriptions != null)
+            subscriptions.clear();
+        ConfigCache.evict(proxy);
+    }
+
+    /**
+     * Records a key this config object has been added to the {@link ConfigCache} with, so that closing it removes it
+     * from the cache by key.
+     */
+    synchronized void addCacheKey(Object key) {
+        if (cacheKeys == null)
+            cacheKeys = new HashSet<Object>();
+        cacheKeys.add(key);
+    }
+
+    synchronized void removeCacheKey(Object key) {
+        if (cacheKeys != null)
+            cacheKeys.remove(key);
+    }
+
+    /**
+     * @return a copy of the keys this config object has been added to the {@link ConfigCache} with.
+     */
+    synchronized List<Object> cacheKeys() {
+        return cacheKeys == null ? Collections.<Object>emptyList() : new ArrayList<Object>(cacheKeys);
+    }
+
+    @Delegate
+    public String getProperty(String key, String defaultValue) {
+        String value = getProperty(key);
+        return value != null ? value : defaultValue;
     }
 
     @Delegate
@@ -445,13 +968,14 @@ class PropertiesManager implements Reloadable, Accessible, Mutable {
                 PropertyChangeEvent event = new PropertyChangeEvent(proxy, key, oldValue, newValue);
                 fireBeforePropertyChange(event);
                 String result = performSetProperty(key, newValue);
+                changed(Collections.singletonList(event));
                 firePropertyChange(event);
                 return result;
             } catch (RollbackException e) {
                 return oldValue;
             }
         } finally {
-            writeLock.unlock();
+            unlockAndNotify();
         }
     }
 
@@ -469,12 +993,13 @@ class PropertiesManager implements Reloadable, Accessible, Mutable {
             PropertyChangeEvent event = new PropertyChangeEvent(proxy, key, oldValue, null);
             fireBeforePropertyChange(event);
             String result = performRemoveProperty(key);
+            changed(Collections.singletonList(event));
             firePropertyChange(event);
             return result;
         } catch (RollbackException e) {
             return properties.getProperty(key);
         } finally {
-            writeLock.unlock();
+            unlockAndNotify();
         }
     }
 
@@ -489,11 +1014,12 @@ class PropertiesManager implements Reloadable, Accessible, Mutable {
             List<PropertyChangeEvent> events =
                     fireBeforePropertyChangeEvents(keys(properties), properties, new Properties());
             applyPropertyChangeEvents(events);
+            changed(events);
             firePropertyChangeEvents(events);
         } catch (RollbackBatchException e) {
             ignore();
         } finally {
-            writeLock.unlock();
+            unlockAndNotify();
         }
     }
 
@@ -507,13 +1033,14 @@ class PropertiesManager implements Reloadable, Accessible, Mutable {
         } catch (RollbackBatchException ex) {
             ignore();
         } finally {
-            writeLock.unlock();
+            unlockAndNotify();
         }
     }
 
     private void performLoad(Set keys, Properties props) throws RollbackBatchException {
         List<PropertyChangeEvent> events = fireBeforePropertyChangeEvents(keys, properties, props);
         applyPropertyChangeEvents(events);
+        changed(events);
         firePropertyChangeEvents(events);
     }
 
@@ -527,7 +1054,7 @@ class PropertiesManager implements Reloadable, Accessible, Mutable {
         } catch (RollbackBatchException ex) {
             ignore();
         } finally {
-            writeLock.unlock();
+            unlockAndNotify();
         }
     }
 
@@ -550,6 +1077,10 @@ class PropertiesManager implements Reloadable, Accessible, Mutable {
         return loading;
     }
 
+    boolean isClosed() {
+        return closed;
+    }
+
     private List<PropertyChangeEvent> fireBeforePropertyChangeEvents(
             Set keys, Properties oldValues, Properties newValues) throws RollbackBatchException {
         List<PropertyChangeEvent> events = new ArrayList<PropertyChangeEvent>();
@@ -571,6 +1102,58 @@ class PropertiesManager implements Reloadable, Accessible, Mutable {
         return events;
     }
 
+    /**
+     * Increments the generation after the changes described by the given events have been applied; the generation is
+     * written last, so that who reads it sees the generations of the keys updated as well. The changed keys are kept
+     * for the value change listeners, notified once the write lock is released.
+     */
+    private void changed(List<PropertyChangeEvent> events) {
+        if (events.isEmpty())
+            return;
+        Long next = generation + 1;
+        for (PropertyChangeEvent event : events)
+            keyGenerations.put(event.getPropertyName(), next);
+        generation = next;
+        if (valueChangeSubscriptions == null)
+            return;
+        if (unnotifiedKeys == null)
+            unnotifiedKeys = new HashSet<String>();
+        for (PropertyChangeEvent event : events)
+            unnotifiedKeys.add(event.getPropertyName());
+    }
+
+    /**
+     * Releases the write lock, then notifies the value change listeners of the keys changed while it was held, if it's
+     * not held anymore: the listeners run after the property change and the reload listeners, without any lock, so
+     * that they can read or change the config object, and can't block the other threads accessing it.
+     */
+    private void unlockAndNotify() {
+        Set<String> changedKeys = null;
+        if (writeLock.getHoldCount() == 1) {
+            changedKeys = unnotifiedKeys;
+            unnotifiedKeys = null;
+        }
+        writeLock.unlock();
+        ValueChangeSubscriptions subscriptions = valueChangeSubscriptions;
+        if (changedKeys != null && subscriptions != null)
+            subscriptions.check(handler(), changedKeys);
+    }
+
+    private PropertiesInvocationHandler handler() {
+        return (PropertiesInvocationHandler) Proxy.getInvocationHandler(proxy);
+    }
+
+    @Delegate
+    public long generation() {
+        return generation;
+    }
+
+    @Delegate
+    public long generation(String key) {
+        Long result = keyGenerations.get(key);
+        return result != null ? result : 0;
+    }
+
     private void firePropertyChangeEvents(List<PropertyChangeEvent> events) {
         for (PropertyChangeEvent event : events)
             firePropertyChange(event);
@@ -601,7 +1184,9 @@ class PropertiesManager implements Reloadable, Accessible, Mutable {
     }
 
     private boolean equals(PropertiesManager that) {
-        if (!this.isAssignationCompatibleWith(that))
+        if (this == that)
+            return true;
+        if (!this.isAssignationCompatibleWith(that) || this.hashCode() != that.hashCode())
             return false;
         this.readLock.lock();
         try {
@@ -623,9 +1208,15 @@ class PropertiesManager implements Reloadable, Accessible, Mutable {
     @Delegate
     @Override
     public int hashCode() {
+        long[] cached = cachedHashCode; // the generation, and the hash code computed at that generation.
+        if (cached != null && cached[0] == generation)
+            return (int) cached[1];
         readLock.lock();
         try {
-            return properties.hashCode();
+            long currentGeneration = generation;
+            int result = properties.hashCode();
+            cachedHashCode = new long[] {currentGeneration, result};
+            return result;
         } finally {
             readLock.unlock();
         }
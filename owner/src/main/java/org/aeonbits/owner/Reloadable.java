@@ -9,6 +9,9 @@
 package org.aeonbits.owner;
 
 import org.aeonbits.owner.event.ReloadListener;
+import org.aeonbits.owner.event.ValueChangeListener;
+
+import java.util.List;
 
 /**
  * <p>Allows a <code>Config</code> object to implement the reloading of the properties at runtime.</p>
@@ -67,4 +70,75 @@ public interface Reloadable extends Config {
      */
     void removeReloadListener(ReloadListener listener);
 
+    /**
+     * Adds a {@link ValueChangeListener} notified when the value returned by the given method changes, whether the
+     * change comes from a reload or otherwise. The new value is converted once for all the listeners of the method,
+     * and they are notified only if the converted value differs from the previous one.
+     * <p>
+     * The listener is notified by the thread applying the change, after the change has been applied, after the {@link
+     * java.beans.PropertyChangeListener}s and the {@link ReloadListener}s, and once the config object is unlocked: the
+     * listener can read and change the config object, and the other threads are not blocked while it runs. The value
+     * is resolved again only if the property it maps, or one of the properties expanded in it, has changed.
+     * </p>
+     * <p>
+     * The type <code>T</code> is checked against the return type of the method only if the listener's class declares
+     * it, implementing <code>ValueChangeListener</code> with an actual type argument, like anonymous classes do: the
+     * listeners of generic classes, whose type argument is not known at runtime, must be added for methods returning
+     * values of that type, otherwise they get values of another type, failing with a {@link ClassCastException} where
+     * they are used.
+     * </p>
+     *
+     * @param methodName the name of the method of the config interface, without parameters, mapping the property.
+     * @param listener the listener to be added.
+     * @param <T> the type returned by the method, boxed if primitive.
+     * @throws IllegalArgumentException if the config interface has no such method, or if the listener declares a type
+     * that can't hold the values returned by the method.
+     *
+     * @since 1.0.13
+     */
+    <T> void addValueChangeListener(String methodName, ValueChangeListener<T> listener);
+
+    /**
+     * Removes a {@link ValueChangeListener}, from all the methods it was added for.
+     *
+     * @param listener the listener to be removed.
+     *
+     * @since 1.0.13
+     */
+    void removeValueChangeListener(ValueChangeListener<?> listener);
+
+    /**
+     * Returns the outcome of the last load of the sources of this config object: the sources attempted, in the order
+     * they are specified with {@link Config.Sources}, each one telling whether it was loaded, the error occurred
+     * otherwise, and the time spent loading it. The sources not attempted, like the ones following the first source
+     * loaded with {@link Config.LoadType#FIRST}, are not included.
+     *
+     * @return the sources attempted by the last load; empty until the sources are loaded.
+     *
+     * @since 1.0.13
+     */
+    List<LoadedSource> loadedSources();
+
+    /**
+     * Returns a number that is incremented every time some properties of this config object change, by a reload or
+     * otherwise. Components deriving some state from the config object can tell whether it's still valid, without
+     * registering any listener, comparing this number with the one read when the state was derived.
+     *
+     * @return the current generation of the properties; 0 until they are loaded.
+     *
+     * @since 1.0.13
+     */
+    long generation();
+
+    /**
+     * Returns the {@link #generation() generation} at which the given property changed last.
+     *
+     * @param key the name of the property.
+     * @return the generation at which the property changed last; 0 if it didn't change since the properties were
+     * loaded the first time.
+     *
+     * @since 1.0.13
+     */
+    long generation(String key);
+
 }
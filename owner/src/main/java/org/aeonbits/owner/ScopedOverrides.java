@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The properties overridden by {@link Overridable#withOverrides(Map, Callable)}, bound to the thread running the task.
+ * <p>
+ * The thread local is looked up only while some overrides are bound, by any thread, so that the config objects not
+ * using them don't pay for it.
+ * </p>
+ *
+ * @author Luigi R. Viggiano
+ * @since 1.0.13
+ */
+final class ScopedOverrides {
+
+    private static final ThreadLocal<ScopedOverrides> current = new ThreadLocal<ScopedOverrides>();
+    private static final AtomicInteger bound = new AtomicInteger();
+
+    private final PropertiesManager manager;
+    private final Map<String, String> overrides;
+    private final ScopedOverrides outer;
+
+    private ScopedOverrides(PropertiesManager manager, Map<String, String> overrides, ScopedOverrides outer) {
+        this.manager = manager;
+        this.overrides = overrides;
+        this.outer = outer;
+    }
+
+    /**
+     * @return the value the given key is overridden with, for the given manager and the current thread, or
+     * <code>null</code> if it isn't.
+     */
+    static String get(PropertiesManager manager, String key) {
+        if (bound.get() == 0)
+            return null;
+        for (ScopedOverrides scope = current.get(); scope != null; scope = scope.outer)
+            if (scope.manager == manager) {
+                String value = scope.overrides.get(key);
+                if (value != null)
+                    return value;
+            }
+        return null;
+    }
+
+    /**
+     * Runs the given task with the given overrides bound to the current thread, for the given manager.
+     */
+    static <V> V call(PropertiesManager manager, Map<String, String> overrides, Callable<V> task) throws Exception {
+        for (Map.Entry<String, String> entry : overrides.entrySet())
+            if (entry.getKey() == null || entry.getValue() == null)
+                throw new NullPointerException();
+        ScopedOverrides outer = current.get();
+        current.set(new ScopedOverrides(manager, new HashMap<String, String>(overrides), outer));
+        bound.incrementAndGet();
+        try {
+            return task.call();
+        } finally {
+            bound.decrementAndGet();
+            if (outer == null)
+                current.remove();
+            else
+                current.set(outer);
+        }
+    }
+
+}
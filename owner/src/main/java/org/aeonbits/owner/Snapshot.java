@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.net.URI;
+import java.util.List;
+import java.util.Properties;
+
+import static org.aeonbits.owner.util.Util.ignore;
+import static org.aeonbits.owner.util.Util.save;
+
+/**
+ * The last known good properties loaded from the sources of a config object, persisted in a local file so that they
+ * can be used when the sources are slow or unavailable.
+ *
+ * @author Luigi R. Viggiano
+ */
+class Snapshot implements Serializable {
+
+    private final File file;
+    private transient Properties lastKnownGood;
+
+    Snapshot(File directory, Class<? extends Config> clazz, List<URI> uris) {
+        // the sources can be different for the same class, due to variables expansion.
+        file = new File(directory, clazz.getName() + "-" + Integer.toHexString(uris.hashCode()) + ".properties");
+    }
+
+    /**
+     * @return the properties saved in the snapshot file, or <code>null</code> if there is no valid snapshot file.
+     */
+    synchronized Properties read() {
+        if (lastKnownGood == null && file.exists()) {
+            try {
+                Properties result = new Properties();
+                InputStream input = new FileInputStream(file);
+                try {
+                    result.load(input);
+                } finally {
+                    input.close();
+                }
+                lastKnownGood = result;
+            } catch (IOException e) {
+                ignore(/* the sources will be loaded as if there was no snapshot */);
+            }
+        }
+        return lastKnownGood;
+    }
+
+    /**
+     * Replaces the snapshot file atomically with the given properties, unless they are already the saved ones.
+     */
+    synchronized void write(Properties properties) {
+        if (properties.equals(read()))
+            return;
+        try {
+            save(file, properties);
+            Properties saved = new Properties();
+            saved.putAll(properties);
+            lastKnownGood = saved;
+        } catch (IOException e) {
+            ignore(/* the previous snapshot, if any, is left as is */);
+        }
+    }
+
+    File file() {
+        return file;
+    }
+
+}
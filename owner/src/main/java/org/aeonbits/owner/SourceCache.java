@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner;
+
+import org.aeonbits.owner.loaders.Loader;
+import org.aeonbits.owner.loaders.SystemLoader;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.net.URI;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static org.aeonbits.owner.util.Util.fileFromURI;
+
+/**
+ * Keeps the parsed content of the sources backed by a file, so that all the config objects created by the same
+ * factory and pointing to the same file share a single parse of it.
+ * <p>
+ * A cached entry is validated against the last modified time and the size of the file every time it is requested:
+ * when any of them changes, the file is parsed again, once, on behalf of all the config objects using it. Since an
+ * edit keeping the same size within the granularity of the last modified time goes unnoticed, an explicit reload
+ * always parses the file again, and the result replaces the cached entry.
+ * Sources not backed by a file (i.e. remote URLs) are never cached, except the system properties and the environment
+ * variables, that are shared through the {@link org.aeonbits.owner.util.SystemSnapshot}.
+ * </p>
+ * <p>
+ * The parsed content is referenced weakly: it's kept as long as some config object uses it, and the entries whose
+ * content has been garbage collected are removed.
+ * </p>
+ * <p>
+ * The cached {@link Properties} are shared, and must not be modified.
+ * </p>
+ *
+ * @author Luigi R. Viggiano
+ */
+class SourceCache {
+
+    private final ConcurrentMap<URI, Entry> entries = new ConcurrentHashMap<URI, Entry>();
+    private final ReferenceQueue<Properties> collected = new ReferenceQueue<Properties>();
+
+    /**
+     * @param reload    <code>true</code> to parse the file again even if it looks unchanged.
+     */
+    Properties load(Loader loader, URI uri, boolean reload) throws IOException {
+        if (loader instanceof SystemLoader)
+            return ((SystemLoader) loader).shared(uri);
+        File file = fileFromURI(uri);
+        if (file == null)
+            return parse(loader, uri);
+
+        expunge();
+        Entry entry = entries.get(uri);
+        if (entry == null) {
+            Entry newEntry = new Entry(uri);
+            entry = entries.putIfAbsent(uri, newEntry);
+            if (entry == null)
+                entry = newEntry;
+        }
+        return entry.load(loader, file, reload);
+    }
+
+    /**
+     * Removes the entries whose parsed content is not used anymore, and has been garbage collected.
+     */
+    private void expunge() {
+        Reference<? extends Properties> reference;
+        while ((reference = collected.poll()) != null) {
+            Entry entry = ((CachedProperties) reference).entry;
+            if (entry.isCollected())
+                entries.remove(entry.uri, entry);
+        }
+    }
+
+    int size() {
+        expunge();
+        return entries.size();
+    }
+
+    void clear() {
+        entries.clear();
+    }
+
+    private static Properties parse(Loader loader, URI uri) throws IOException {
+        Properties result = new Properties();
+        loader.load(result, uri);
+        return result;
+    }
+
+    private static class CachedProperties extends WeakReference<Properties> {
+        private final Entry entry;
+
+        CachedProperties(Properties properties, Entry entry, ReferenceQueue<Properties> queue) {
+            super(properties, queue);
+            this.entry = entry;
+        }
+    }
+
+    private class Entry {
+        private final URI uri;
+        private Loader loader;
+        private long lastModified;
+        private long length;
+        private CachedProperties properties;
+
+        Entry(URI uri) {
+            this.uri = uri;
+        }
+
+        synchronized Properties load(Loader loader, File file, boolean reload) throws IOException {
+            // the file is inspected before parsing, so that a change occurring while parsing is detected next time.
+            long lastModified = file.lastModified();
+            long length = file.length();
+            Properties cached = properties == null ? null : properties.get();
+            if (cached != null && !reload && loader == this.loader && lastModified == this.lastModified
+                    && length == this.length)
+                return cached;
+
+            properties = null;
+            Properties result = parse(loader, uri);
+            if (lastModified != 0L) {
+                this.loader = loader;
+                this.lastModified = lastModified;
+                this.length = length;
+                this.properties = new CachedProperties(result, this, collected);
+            }
+            return result;
+        }
+
+        synchronized boolean isCollected() {
+            return properties == null || properties.get() == null;
+        }
+    }
+
+}
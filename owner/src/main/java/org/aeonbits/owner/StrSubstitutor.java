@@ -10,6 +10,7 @@ package org.aeonbits.owner;
 
 import java.io.Serializable;
 import java.util.Properties;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -74,7 +75,7 @@ class StrSubstitutor implements Serializable {
         StringBuffer sb = new StringBuffer();
         while (m.find()) {
             String var = m.group(1);
-            String value = values.getProperty(var);
+            String value = lookup(var);
             String replacement = (value != null) ? replace(value) : "";
             m.appendReplacement(sb, Matcher.quoteReplacement(replacement));
         }
@@ -82,6 +83,33 @@ class StrSubstitutor implements Serializable {
         return sb.toString();
     }
 
+    /**
+     * Returns the value of the given variable.
+     *
+     * @param var the name of the variable
+     * @return the value of the variable, null if it has none
+     */
+    String lookup(String var) {
+        return values.getProperty(var);
+    }
+
+    /**
+     * Adds to the given set the names of the variables referenced by the given string, and by their values in turn.
+     *
+     * @param source the string to look into, null adds nothing
+     * @param result the set the names are added to
+     */
+    void collectVariables(String source, Set<String> result) {
+        if (source == null)
+            return;
+        Matcher m = PATTERN.matcher(source);
+        while (m.find()) {
+            String var = m.group(1);
+            if (result.add(var))
+                collectVariables(lookup(var), result);
+        }
+    }
+
     /**
      * Returns a string modified in according to supplied source and arguments.<br/>
      * If the source string has pattern-replacement content like {@code "a.${var}.b"},
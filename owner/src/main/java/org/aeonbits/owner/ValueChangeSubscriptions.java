@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner;
+
+import org.aeonbits.owner.event.ValueChangeListener;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * The {@link ValueChangeListener}s of a config object, grouped by the method they listen to, along with the last value
+ * returned by the method and the keys that value depends on: after each change, only the methods depending on some of
+ * the changed keys are resolved and converted, once, and their listeners are notified only if the value differs from
+ * the last one.
+ *
+ * @author Luigi R. Viggiano
+ * @since 1.0.13
+ */
+class ValueChangeSubscriptions {
+
+    private static final Map<Class<?>, Class<?>> WRAPPERS = new HashMap<Class<?>, Class<?>>();
+
+    static {
+        WRAPPERS.put(boolean.class, Boolean.class);
+        WRAPPERS.put(byte.class, Byte.class);
+        WRAPPERS.put(char.class, Character.class);
+        WRAPPERS.put(short.class, Short.class);
+        WRAPPERS.put(int.class, Integer.class);
+        WRAPPERS.put(long.class, Long.class);
+        WRAPPERS.put(float.class, Float.class);
+        WRAPPERS.put(double.class, Double.class);
+    }
+
+    private final Map<Method, Subscription> subscriptions = new LinkedHashMap<Method, Subscription>();
+
+    private static class Subscription {
+        private final Method method;
+        private Object value;
+        private Set<String> keys;
+        private final List<ValueChangeListener<Object>> listeners =
+                new CopyOnWriteArrayList<ValueChangeListener<Object>>();
+
+        Subscription(Method method, Object value, Set<String> keys) {
+            this.method = method;
+            this.value = value;
+            this.keys = keys;
+        }
+
+        boolean dependsOn(Set<String> changedKeys) {
+            for (String key : keys)
+                if (changedKeys.contains(key))
+                    return true;
+            return false;
+        }
+    }
+
+    /**
+     * Checks that the type the given listener declares, as the type argument of {@link ValueChangeListener}, can hold
+     * the values returned by the given method. The type can be told only if the class of the listener, or one of its
+     * superclasses, implements {@link ValueChangeListener} with an actual type, like an anonymous class does; otherwise
+     * it can't be checked.
+     *
+     * @throws IllegalArgumentException if the listener declares a type not assignable from the method's return type.
+     */
+    static void checkType(Method method, ValueChangeListener<?> listener) {
+        Class<?> listenedType = listenedType(listener.getClass());
+        if (listenedType == null)
+            return;
+        Class<?> returnType = method.getReturnType();
+        Class<?> wrapper = WRAPPERS.get(returnType);
+        if (!listenedType.isAssignableFrom(wrapper != null ? wrapper : returnType))
+            throw new IllegalArgumentException(String.format("Listener %s of %s values can't be notified of the " +
+                    "%s values returned by %s()", listener.getClass().getName(), listenedType.getName(),
+                    returnType.getName(), method.getName()));
+    }
+
+    private static Class<?> listenedType(Class<?> listenerClass) {
+        for (Class<?> c = listenerClass; c != null; c = c.getSuperclass())
+            for (Type type : c.getGenericInterfaces())
+                if (type instanceof ParameterizedType &&
+                        ((ParameterizedType) type).getRawType() == ValueChangeListener.class) {
+                    Type argument = ((ParameterizedType) type).getActualTypeArguments()[0];
+                    if (argument instanceof ParameterizedType)
+                        argument = ((ParameterizedType) argument).getRawType();
+                    return argument instanceof Class ? (Class<?>) argument : null;
+                }
+        return null;
+    }
+
+    /**
+     * @param value the current value returned by the method, used if no other listener is registered for it.
+     * @param keys the keys the current value depends on, used if no other listener is registered for it.
+     */
+    @SuppressWarnings("unchecked")
+    synchronized void add(Method method, Object value, Set<String> keys, ValueChangeListener<?> listener) {
+        Subscription subscription = subscriptions.get(method);
+        if (subscription == null) {
+            subscription = new Subscription(method, value, keys);
+            subscriptions.put(method, subscription);
+        }
+        subscription.listeners.add((ValueChangeListener<Object>) listener);
+    }
+
+    synchronized void remove(ValueChangeListener<?> listener) {
+        for (Iterator<Subscription> iterator = subscriptions.values().iterator(); iterator.hasNext(); ) {
+            Subscription subscription = iterator.next();
+            subscription.listeners.remove(listener);
+            if (subscription.listeners.isEmpty())
+                iterator.remove();
+        }
+    }
+
+    synchronized void clear() {
+        subscriptions.clear();
+    }
+
+    /**
+     * Resolves the methods listened to that depend on some of the given keys, and notifies their listeners if the value
+     * has changed. A method whose new value can't be converted keeps its last value, and its listeners are not
+     * notified.
+     * <p>
+     * To be called without holding the lock of the properties: the listeners are notified by the calling thread.
+     * </p>
+     */
+    void check(PropertiesInvocationHandler handler, Set<String> changedKeys) {
+        List<Subscription> current;
+        synchronized (this) {
+            if (subscriptions.isEmpty())
+                return;
+            current = new ArrayList<Subscription>(subscriptions.values());
+        }
+        for (Subscription subscription : current) {
+            Object oldValue;
+            Object newValue;
+            synchronized (this) {
+                if (!subscription.dependsOn(changedKeys))
+                    continue;
+                try {
+                    subscription.keys = handler.dependencies(subscription.method);
+                    newValue = handler.resolve(subscription.method);
+                } catch (RuntimeException e) {
+                    continue;
+                }
+                oldValue = subscription.value;
+                if (equal(oldValue, newValue))
+                    continue;
+                subscription.value = newValue;
+            }
+            for (ValueChangeListener<Object> listener : subscription.listeners)
+                listener.valueChanged(oldValue, newValue);
+        }
+    }
+
+    private static boolean equal(Object a, Object b) {
+        return Arrays.deepEquals(new Object[] {a}, new Object[] {b}); // compares arrays by content.
+    }
+
+}
@@ -9,7 +9,7 @@
 package org.aeonbits.owner;
 
 
-import org.aeonbits.owner.util.Util;
+import org.aeonbits.owner.util.SystemSnapshot;
 
 import java.io.Serializable;
 import java.util.Properties;
@@ -28,9 +28,8 @@ class VariablesExpander implements Serializable {
     private final StrSubstitutor substitutor;
 
     VariablesExpander(Properties props) {
-        Properties variables = new Properties();
-        variables.putAll(Util.system().getenv());
-        variables.putAll(Util.system().getProperties());
+        // the system properties and the environment variables are shared, only the factory properties are copied.
+        Properties variables = new Properties(SystemSnapshot.current().variables());
         variables.putAll(props);
         substitutor = new StrSubstitutor(variables);
     }
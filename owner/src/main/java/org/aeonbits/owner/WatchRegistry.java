@@ -0,0 +1,219 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner;
+
+import org.aeonbits.owner.HotReloadLogic.WatchableResource;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.aeonbits.owner.util.Util.ignore;
+
+/**
+ * Keeps track of the resources watched by the {@link Config.HotReloadType#ASYNC} hot reload, for all the config
+ * objects created by the same {@link Factory}.
+ * <p>
+ * Subscribers having the same interval share a single scheduled task, and every distinct resource is checked only
+ * once per interval; when a resource is changed, all the subscribers watching it get reloaded.
+ * </p>
+ * <p>
+ * Subscribers are weakly referenced, so config objects that are not used anymore get unsubscribed automatically once
+ * they are garbage collected, and the scheduled task is cancelled when no subscriber is left.
+ * </p>
+ * <p>
+ * The same background thread is also used to perform the checks requested by the {@link
+ * Config.HotReloadType#DEFERRED deferred} hot reload.
+ * </p>
+ *
+ * @author Luigi R. Viggiano
+ */
+class WatchRegistry {
+
+    private final ScheduledExecutorService scheduler;
+    private final Map<Long, WatchGroup> groups = new HashMap<Long, WatchGroup>();
+    private boolean closed = false;
+
+    WatchRegistry(ScheduledExecutorService scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    private static class Watch {
+        private final WatchableResource resource;
+        private final List<WeakReference<HotReloadLogic>> subscribers = new ArrayList<WeakReference<HotReloadLogic>>();
+
+        Watch(WatchableResource resource) {
+            this.resource = resource;
+        }
+
+        boolean contains(HotReloadLogic logic) {
+            for (WeakReference<HotReloadLogic> subscriber : subscribers)
+                if (subscriber.get() == logic)
+                    return true;
+            return false;
+        }
+
+        void remove(HotReloadLogic logic) {
+            for (Iterator<WeakReference<HotReloadLogic>> iterator = subscribers.iterator(); iterator.hasNext(); ) {
+                HotReloadLogic subscriber = iterator.next().get();
+                if (subscriber == null || subscriber == logic)
+                    iterator.remove();
+            }
+        }
+
+        void collectSubscribers(Set<HotReloadLogic> result) {
+            for (Iterator<WeakReference<HotReloadLogic>> iterator = subscribers.iterator(); iterator.hasNext(); ) {
+                HotReloadLogic subscriber = iterator.next().get();
+                if (subscriber == null)
+                    iterator.remove();
+                else
+                    result.add(subscriber);
+            }
+        }
+    }
+
+    private class WatchGroup implements Runnable {
+        private final long interval;
+        private final Map<WatchableResource, Watch> watches = new LinkedHashMap<WatchableResource, Watch>();
+        private ScheduledFuture<?> future;
+
+        WatchGroup(long interval) {
+            this.interval = interval;
+        }
+
+        public void run() {
+            for (HotReloadLogic subscriber : changedSubscribers(this))
+                try {
+                    subscriber.reload();
+                } catch (RuntimeException e) {
+                    // a failing reload must not prevent the other subscribers (and next checks) from being served.
+                    ignore();
+                }
+        }
+    }
+
+    synchronized void subscribe(HotReloadLogic logic) {
+        List<WatchableResource> resources = logic.watchableResources();
+        if (resources.isEmpty() || closed)
+            return;
+
+        WatchGroup group = groups.get(logic.interval());
+        if (group == null) {
+            group = new WatchGroup(logic.interval());
+            long period = Math.max(group.interval, 1); // sub-millisecond intervals are not supported by the scheduler
+            group.future = scheduler.scheduleAtFixedRate(group, period, period, MILLISECONDS);
+            groups.put(group.interval, group);
+        }
+
+        for (WatchableResource resource : resources) {
+            Watch watch = group.watches.get(resource);
+            if (watch == null) {
+                watch = new Watch(resource);
+                group.watches.put(resource, watch);
+            }
+            if (!watch.contains(logic))
+                watch.subscribers.add(new WeakReference<HotReloadLogic>(logic));
+        }
+    }
+
+    synchronized void unsubscribe(HotReloadLogic logic) {
+        WatchGroup group = groups.get(logic.interval());
+        if (group == null)
+            return;
+        for (Watch watch : group.watches.values())
+            watch.remove(logic);
+        purge(group);
+    }
+
+    private synchronized Set<HotReloadLogic> changedSubscribers(WatchGroup group) {
+        Set<HotReloadLogic> result = new LinkedHashSet<HotReloadLogic>();
+        for (Watch watch : group.watches.values()) {
+            Set<HotReloadLogic> subscribers = new LinkedHashSet<HotReloadLogic>();
+            watch.collectSubscribers(subscribers);
+            if (!subscribers.isEmpty() && watch.resource.isChanged())
+                result.addAll(subscribers);
+        }
+        purge(group);
+        return result;
+    }
+
+    private void purge(WatchGroup group) {
+        for (Iterator<Watch> iterator = group.watches.values().iterator(); iterator.hasNext(); )
+            if (iterator.next().subscribers.isEmpty())
+                iterator.remove();
+
+        if (group.watches.isEmpty()) {
+            cancel(group);
+            if (groups.get(group.interval) == group)
+                groups.remove(group.interval);
+        }
+    }
+
+    private void cancel(WatchGroup group) {
+        if (group.future == null)
+            return;
+        group.future.cancel(false);
+        // cancelled tasks would otherwise stay in the scheduler queue until their next execution time.
+        if (scheduler instanceof ThreadPoolExecutor)
+            ((ThreadPoolExecutor) scheduler).purge();
+    }
+
+    /**
+     * Cancels all the scheduled checks, and rejects further subscriptions.
+     */
+    synchronized void close() {
+        closed = true;
+        for (WatchGroup group : groups.values())
+            cancel(group);
+        groups.clear();
+    }
+
+    /**
+     * Runs the given task on the background thread used to perform the checks.
+     *
+     * @return <code>false</code> if the task has been rejected, since the registry has been closed.
+     */
+    synchronized boolean execute(Runnable task) {
+        if (closed)
+            return false;
+        try {
+            scheduler.execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    synchronized int watchedResources() {
+        int result = 0;
+        for (WatchGroup group : groups.values())
+            result += group.watches.size();
+        return result;
+    }
+
+    synchronized int subscribers() {
+        Set<HotReloadLogic> result = new LinkedHashSet<HotReloadLogic>();
+        for (WatchGroup group : groups.values())
+            for (Watch watch : group.watches.values())
+                watch.collectSubscribers(result);
+        return result.size();
+    }
+
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner.event;
+
+import java.util.EventListener;
+
+/**
+ * The listener interface for receiving the changes of the value returned by a method of a config object. The class
+ * that is interested in the changes implements this interface, and the object created with that class is registered
+ * with a config object, using its <code>addValueChangeListener</code> method, for a method of the config interface.
+ * When the value returned by that method changes, the listener's <code>valueChanged</code> method is invoked.
+ * <p>
+ * Unlike a {@link java.beans.PropertyChangeListener}, the listener receives the converted values, as returned by the
+ * method, and it's notified only when the converted value changes: a change from <code>"10"</code> to
+ * <code>"+10"</code> of a property mapped to an <code>int</code> is not notified.
+ * </p>
+ *
+ * @param <T> the type returned by the method, boxed if primitive.
+ * @author Luigi R. Viggiano
+ * @since 1.0.13
+ */
+public interface ValueChangeListener<T> extends EventListener {
+
+    /**
+     * This method is invoked after the value returned by the method has changed. The values are shared by all the
+     * listeners of the same method, and must not be modified.
+     *
+     * @param oldValue the value returned by the method before the change.
+     * @param newValue the value returned by the method after the change.
+     */
+    void valueChanged(T oldValue, T newValue);
+
+}
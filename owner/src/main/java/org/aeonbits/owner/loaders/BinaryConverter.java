@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner.loaders;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.Properties;
+
+import static java.io.File.createTempFile;
+
+/**
+ * Converts properties and XML files to the {@link BinaryProperties binary format}, read by the {@link BinaryLoader}.
+ * <p>
+ * Usage: <tt>java org.aeonbits.owner.loaders.BinaryConverter source.properties target.bin</tt>
+ * </p>
+ *
+ * @author Luigi R. Viggiano
+ * @since 1.0.13
+ */
+public final class BinaryConverter {
+
+    // Suppresses default constructor, ensuring no one instantiate this class.
+    private BinaryConverter() {}
+
+    /**
+     * Converts the given properties or XML file to the binary format.
+     *
+     * @param source the file to convert; XML files are recognized by the <tt>.xml</tt> extension.
+     * @param target the binary file to write; it is replaced only once completely written.
+     * @throws IOException if the source can't be read or the target can't be written.
+     */
+    public static void convert(File source, File target) throws IOException {
+        URI uri = source.toURI();
+        XMLLoader xmlLoader = new XMLLoader();
+        Loader loader = xmlLoader.accept(uri) ? xmlLoader : new PropertiesLoader();
+        Properties properties = new Properties();
+        loader.load(properties, uri);
+
+        File parent = target.getAbsoluteFile().getParentFile();
+        parent.mkdirs();
+        File tempFile = createTempFile(target.getName(), ".temp", parent);
+        try {
+            OutputStream output = new FileOutputStream(tempFile);
+            try {
+                BinaryProperties.write(properties, output);
+            } finally {
+                output.close();
+            }
+            if (target.exists() && !target.delete() || !tempFile.renameTo(target))
+                throw new IOException("Failed to overwrite " + target);
+        } finally {
+            tempFile.delete();
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("usage: java " + BinaryConverter.class.getName() + " <source> <target.bin>");
+            System.exit(1);
+        }
+        convert(new File(args[0]), new File(args[1]));
+    }
+
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner.loaders;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URL;
+import java.util.Properties;
+
+import static org.aeonbits.owner.util.Util.fileFromURI;
+
+/**
+ * A {@link Loader loader} able to read properties precompiled in the {@link BinaryProperties binary format}, from
+ * files having the <tt>.bin</tt> extension. Such files can be produced from properties and XML files with the
+ * {@link BinaryConverter}.
+ *
+ * @author Luigi R. Viggiano
+ * @since 1.0.13
+ */
+public class BinaryLoader implements Loader {
+
+    private static final long serialVersionUID = 2826470958718291733L;
+
+    public boolean accept(URI uri) {
+        try {
+            URL url = uri.toURL();
+            return url.getFile().toLowerCase().endsWith(".bin");
+        } catch (MalformedURLException ex) {
+            return false;
+        }
+    }
+
+    public void load(Properties result, URI uri) throws IOException {
+        if ("file".equalsIgnoreCase(uri.getScheme())) {
+            BinaryProperties.open(fileFromURI(uri)).putAll(result);
+            return;
+        }
+        InputStream input = uri.toURL().openStream();
+        try {
+            BinaryProperties.read(input).putAll(result);
+        } finally {
+            input.close();
+        }
+    }
+
+    public String defaultSpecFor(String uriPrefix) {
+        return null;
+    }
+
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner.loaders;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * A read-only set of properties stored in a compact binary format, meant for configurations that change only at
+ * deploy time, so that they don't need to be parsed at every start.
+ * <p>
+ * The format is made of a header, an index and a string table:
+ * </p>
+ * <ul>
+ *     <li>the header contains a magic number, the format version, the number of entries and the CRC32 checksum of
+ *     what follows it;</li>
+ *     <li>the index contains, for each entry, the offset and the length of the key and of the value in the string
+ *     table; the entries are sorted by key, so that a key can be found with a binary search;</li>
+ *     <li>the string table contains the keys and the values, encoded in UTF-8.</li>
+ * </ul>
+ * <p>
+ * Values are decoded only when requested: {@link #getProperty(String)} looks up a single key without materializing
+ * the others. Files are memory mapped.
+ * </p>
+ *
+ * @author Luigi R. Viggiano
+ * @see BinaryLoader
+ * @see BinaryConverter
+ * @since 1.0.13
+ */
+public final class BinaryProperties {
+
+    static final int MAGIC = 0x4F574E42; // "OWNB"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 20;
+    static final int INDEX_ENTRY_SIZE = 16;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final ByteBuffer buffer;
+    private final int size;
+    private final int stringTable;
+
+    private BinaryProperties(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC)
+            throw new IOException("not a binary properties file");
+        if (buffer.getInt(4) != VERSION)
+            throw new IOException("unsupported binary properties version: " + buffer.getInt(4));
+        size = buffer.getInt(8);
+        stringTable = HEADER_SIZE + size * INDEX_ENTRY_SIZE;
+        if (size < 0 || stringTable > buffer.limit())
+            throw new IOException("corrupted binary properties file");
+        if (buffer.getLong(12) != checksum(buffer, HEADER_SIZE, buffer.limit()))
+            throw new IOException("checksum mismatch in binary properties file");
+    }
+
+    /**
+     * Opens the given binary properties file, mapping it in memory.
+     *
+     * @param file the file to open.
+     * @return the properties contained in the file.
+     * @throws IOException if the file can't be read, or it is not a valid binary properties file.
+     */
+    public static BinaryProperties open(File file) throws IOException {
+        RandomAccessFile input = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = input.getChannel();
+            return new BinaryProperties(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } finally {
+            input.close();
+        }
+    }
+
+    /**
+     * Reads binary properties from the given stream.
+     *
+     * @param input the stream to read, it is not closed by this method.
+     * @return the properties contained in the stream.
+     * @throws IOException if the stream can't be read, or it doesn't contain valid binary properties.
+     */
+    public static BinaryProperties read(InputStream input) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = input.read(buffer)) != -1)
+            bytes.write(buffer, 0, read);
+        return new BinaryProperties(ByteBuffer.wrap(bytes.toByteArray()));
+    }
+
+    /**
+     * @return the number of properties.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Looks up a single property, decoding only its value.
+     *
+     * @param key the property key.
+     * @return the value of the property, or <code>null</code> if there is no such property.
+     */
+    public String getProperty(String key) {
+        byte[] target = key.getBytes(UTF_8);
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int entry = HEADER_SIZE + middle * INDEX_ENTRY_SIZE;
+            int comparison = compare(stringTable + buffer.getInt(entry), buffer.getInt(entry + 4), target);
+            if (comparison < 0)
+                low = middle + 1;
+            else if (comparison > 0)
+                high = middle - 1;
+            else
+                return string(buffer.getInt(entry + 8), buffer.getInt(entry + 12));
+        }
+        return null;
+    }
+
+    /**
+     * Copies all the properties into the given map.
+     *
+     * @param result the map where to put the properties.
+     */
+    public void putAll(Map<Object, Object> result) {
+        for (int i = 0; i < size; i++) {
+            int entry = HEADER_SIZE + i * INDEX_ENTRY_SIZE;
+            result.put(string(buffer.getInt(entry), buffer.getInt(entry + 4)),
+                    string(buffer.getInt(entry + 8), buffer.getInt(entry + 12)));
+        }
+    }
+
+    private int compare(int offset, int length, byte[] target) {
+        int common = Math.min(length, target.length);
+        for (int i = 0; i < common; i++) {
+            int difference = (buffer.get(offset + i) & 0xFF) - (target[i] & 0xFF);
+            if (difference != 0)
+                return difference;
+        }
+        return length - target.length;
+    }
+
+    private String string(int offset, int length) {
+        byte[] bytes = new byte[length];
+        ByteBuffer source = buffer.duplicate();
+        source.position(stringTable + offset);
+        source.get(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    /**
+     * Writes the given properties in the binary format.
+     *
+     * @param properties the properties to write; keys and values are converted to strings.
+     * @param output the stream where to write the properties to, it is not closed by this method.
+     * @throws IOException if an I/O error occurs.
+     */
+    public static void write(Map<?, ?> properties, OutputStream output) throws IOException {
+        List<byte[][]> entries = new ArrayList<byte[][]>(properties.size());
+        for (Map.Entry<?, ?> entry : properties.entrySet())
+            entries.add(new byte[][] {
+                    String.valueOf(entry.getKey()).getBytes(UTF_8),
+                    String.valueOf(entry.getValue()).getBytes(UTF_8)});
+        Collections.sort(entries, new Comparator<byte[][]>() {
+            public int compare(byte[][] o1, byte[][] o2) {
+                return compareBytes(o1[0], o2[0]);
+            }
+        });
+
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        DataOutputStream index = new DataOutputStream(body);
+        int offset = 0;
+        for (byte[][] entry : entries) {
+            index.writeInt(offset);
+            index.writeInt(entry[0].length);
+            offset += entry[0].length;
+            index.writeInt(offset);
+            index.writeInt(entry[1].length);
+            offset += entry[1].length;
+        }
+        for (byte[][] entry : entries) {
+            body.write(entry[0]);
+            body.write(entry[1]);
+        }
+        byte[] bytes = body.toByteArray();
+
+        DataOutputStream header = new DataOutputStream(output);
+        header.writeInt(MAGIC);
+        header.writeInt(VERSION);
+        header.writeInt(entries.size());
+        header.writeLong(checksum(ByteBuffer.wrap(bytes), 0, bytes.length));
+        header.write(bytes);
+        header.flush();
+    }
+
+    private static int compareBytes(byte[] b1, byte[] b2) {
+        int common = Math.min(b1.length, b2.length);
+        for (int i = 0; i < common; i++) {
+            int difference = (b1[i] & 0xFF) - (b2[i] & 0xFF);
+            if (difference != 0)
+                return difference;
+        }
+        return b1.length - b2.length;
+    }
+
+    private static long checksum(ByteBuffer buffer, int from, int to) {
+        CRC32 crc = new CRC32();
+        ByteBuffer source = buffer.duplicate();
+        source.position(from);
+        source.limit(to);
+        byte[] chunk = new byte[8192];
+        while (source.hasRemaining()) {
+            int length = Math.min(chunk.length, source.remaining());
+            source.get(chunk, 0, length);
+            crc.update(chunk, 0, length);
+        }
+        return crc.getValue();
+    }
+
+}
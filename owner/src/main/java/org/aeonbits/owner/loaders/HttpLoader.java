@@ -0,0 +1,220 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner.loaders;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+import static java.net.HttpURLConnection.HTTP_NOT_MODIFIED;
+
+/**
+ * A {@link Loader loader} for <tt>http:</tt> and <tt>https:</tt> sources, in any of the formats supported by the
+ * other loaders (properties, XML and binary, depending on the extension of the path).
+ * <p>
+ * The loader remembers the <tt>ETag</tt> and <tt>Last-Modified</tt> headers of the last response of every source,
+ * along with the parsed properties, and sends them back with <tt>If-None-Match</tt> and <tt>If-Modified-Since</tt>:
+ * when the server answers <tt>304 Not Modified</tt>, the previously parsed properties are used without downloading
+ * and parsing the source again. The {@link org.aeonbits.owner.Config.HotReload hot reload} uses the same conditional
+ * requests to detect the changes of the sources.
+ * </p>
+ * <p>
+ * Responses are requested gzip compressed, and fully consumed so that the connections are kept alive and reused.
+ * Connecting and reading are bounded by timeouts, so that an unresponsive server can't block the loading of the config
+ * objects, or their hot reload, indefinitely. The responses of the {@value #MAX_RESPONSES} sources used most recently
+ * are remembered; the other sources are downloaded again, and their version changes, when requested.
+ * </p>
+ *
+ * @author Luigi R. Viggiano
+ * @since 1.0.13
+ */
+public class HttpLoader implements Loader {
+
+    private static final long serialVersionUID = 4526390834213957154L;
+    private static final AtomicLong versions = new AtomicLong();
+
+    /** The number of sources whose last response is remembered. */
+    public static final int MAX_RESPONSES = 256;
+    /** The default timeout to connect to the server, in milliseconds. */
+    public static final int DEFAULT_CONNECT_TIMEOUT = 10000;
+    /** The default timeout to read the response, in milliseconds. */
+    public static final int DEFAULT_READ_TIMEOUT = 30000;
+
+    private final int connectTimeout;
+    private final int readTimeout;
+    private final PropertiesLoader propertiesLoader = new PropertiesLoader();
+    private final XMLLoader xmlLoader = new XMLLoader();
+    private transient Map<URI, Response> responses;
+
+    private static class Response {
+        private final long version;
+        private final String etag;
+        private final String lastModified;
+        private final Properties properties;
+
+        Response(long version, String etag, String lastModified, Properties properties) {
+            this.version = version;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.properties = properties;
+        }
+    }
+
+    /**
+     * Creates a loader with the {@link #DEFAULT_CONNECT_TIMEOUT default connect timeout} and {@link
+     * #DEFAULT_READ_TIMEOUT default read timeout}.
+     */
+    public HttpLoader() {
+        this(DEFAULT_CONNECT_TIMEOUT, DEFAULT_READ_TIMEOUT);
+    }
+
+    /**
+     * Creates a loader with the given timeouts.
+     *
+     * @param connectTimeout the timeout to connect to the server, in milliseconds.
+     * @param readTimeout    the timeout to read the response, in milliseconds.
+     */
+    public HttpLoader(int connectTimeout, int readTimeout) {
+        if (connectTimeout <= 0 || readTimeout <= 0)
+            throw new IllegalArgumentException("timeouts must be positive");
+        this.connectTimeout = connectTimeout;
+        this.readTimeout = readTimeout;
+    }
+
+    public boolean accept(URI uri) {
+        return "http".equalsIgnoreCase(uri.getScheme()) || "https".equalsIgnoreCase(uri.getScheme());
+    }
+
+    public void load(Properties result, URI uri) throws IOException {
+        result.putAll(fetch(uri).properties);
+    }
+
+    /**
+     * Returns the version of the given source as of the last request made for it.
+     *
+     * @param uri the {@link URI} of the source.
+     * @return the version of the source, or <tt>0</tt> if it has never been loaded; versions are changed only when the
+     * loaded properties change.
+     */
+    public long version(URI uri) {
+        Response response = response(uri);
+        return response == null ? 0 : response.version;
+    }
+
+    /**
+     * Checks whether the given source has changed, with a conditional request.
+     *
+     * @param uri the {@link URI} of the source.
+     * @return the {@link #version(URI) version} of the source after the check.
+     * @throws IOException if the source can't be loaded.
+     */
+    public long check(URI uri) throws IOException {
+        return fetch(uri).version;
+    }
+
+    private Response fetch(URI uri) throws IOException {
+        Response previous = response(uri);
+        HttpURLConnection connection = (HttpURLConnection) uri.toURL().openConnection();
+        connection.setConnectTimeout(connectTimeout);
+        connection.setReadTimeout(readTimeout);
+        connection.setRequestProperty("Accept-Encoding", "gzip");
+        if (previous != null) {
+            if (previous.etag != null)
+                connection.setRequestProperty("If-None-Match", previous.etag);
+            if (previous.lastModified != null)
+                connection.setRequestProperty("If-Modified-Since", previous.lastModified);
+        }
+
+        int status = connection.getResponseCode();
+        if (status == HTTP_NOT_MODIFIED && previous != null) {
+            read(connection.getInputStream());
+            return previous;
+        }
+
+        InputStream input = body(connection);
+        if ("gzip".equalsIgnoreCase(connection.getContentEncoding()))
+            input = new GZIPInputStream(input);
+        byte[] body = read(input);
+        Properties properties = new Properties();
+        parse(properties, uri, body);
+        long version = previous != null && previous.properties.equals(properties) ?
+                previous.version : versions.incrementAndGet();
+        Response response = new Response(version, connection.getHeaderField("ETag"),
+                connection.getHeaderField("Last-Modified"), properties);
+        synchronized (this) {
+            responses().put(uri, response);
+        }
+        return response;
+    }
+
+    private void parse(Properties result, URI uri, byte[] body) throws IOException {
+        String path = uri.getPath() == null ? "" : uri.getPath().toLowerCase();
+        if (path.endsWith(".xml"))
+            xmlLoader.load(result, body);
+        else if (path.endsWith(".bin"))
+            BinaryProperties.read(new ByteArrayInputStream(body)).putAll(result);
+        else
+            propertiesLoader.load(result, new ByteArrayInputStream(body));
+    }
+
+    private static InputStream body(HttpURLConnection connection) throws IOException {
+        try {
+            return connection.getInputStream();
+        } catch (IOException e) {
+            InputStream error = connection.getErrorStream();
+            if (error != null)
+                read(error);
+            throw e;
+        }
+    }
+
+    /**
+     * Reads the whole response, since connections are reused only when their responses have been fully consumed.
+     */
+    private static byte[] read(InputStream input) throws IOException {
+        try {
+            ByteArrayOutputStream result = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = input.read(buffer)) != -1)
+                result.write(buffer, 0, read);
+            return result.toByteArray();
+        } finally {
+            input.close();
+        }
+    }
+
+    private synchronized Response response(URI uri) {
+        return responses().get(uri);
+    }
+
+    private synchronized Map<URI, Response> responses() {
+        if (responses == null)
+            responses = new LinkedHashMap<URI, Response>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<URI, Response> eldest) {
+                    return size() > MAX_RESPONSES;
+                }
+            };
+        return responses;
+    }
+
+    public String defaultSpecFor(String uriPrefix) {
+        return null;
+    }
+
+}
@@ -16,6 +16,8 @@ import java.net.URI;
 import java.net.URL;
 import java.util.Properties;
 
+import static org.aeonbits.owner.util.Util.fileFromURI;
+
 /**
  * A {@link Loader loader} able to read properties from standard Java properties files.
  *
@@ -37,6 +39,10 @@ public class PropertiesLoader implements Loader {
     }
 
     public void load(Properties result, URI uri) throws IOException {
+        if ("file".equalsIgnoreCase(uri.getScheme())) {
+            PropertiesParser.load(result, fileFromURI(uri));
+            return;
+        }
         URL url = uri.toURL();
         InputStream input = url.openStream();
         try {
@@ -0,0 +1,399 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner.loaders;
+
+import java.io.CharArrayReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * A parser for properties files, producing the same result of {@link java.util.Properties#load(java.io.Reader)}.
+ * <p>
+ * The whole file is read through a {@link FileChannel} and decoded from UTF-8 at once; the characters are then parsed
+ * straight from the decoded buffer. Big files are split at line boundaries that can't be part of a multi-line
+ * entry, and the chunks are parsed concurrently; the entries are then put in the result in the order they appear in
+ * the file, so that the last occurrence of a key prevails as it does with {@link java.util.Properties}.
+ * </p>
+ * <p>
+ * A <code>&#92;uxxxx</code> escape cut off by the end of a key or of a value is handled differently by the versions of
+ * the JDK: some reject it, others read on past the key or the value, into the separator, the following characters,
+ * or what is left in their line buffer from the previous lines. The text containing one is then loaded by
+ * {@link java.util.Properties} itself, so that the result is the same on any JDK.
+ * </p>
+ *
+ * @author Luigi R. Viggiano
+ */
+final class PropertiesParser {
+
+    static final int CHUNK_SIZE = 1024 * 1024;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    // Suppresses default constructor, ensuring no one instantiate this class.
+    private PropertiesParser() {}
+
+    static void load(Map<Object, Object> result, File file) throws IOException {
+        FileInputStream input = new FileInputStream(file);
+        try {
+            FileChannel channel = input.getChannel();
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE)
+                throw new IOException("file too big: " + file);
+            ByteBuffer bytes = ByteBuffer.allocate((int) size);
+            while (bytes.hasRemaining() && channel.read(bytes) >= 0) {
+                // keep reading until the buffer is full or the end of the file is reached.
+            }
+            bytes.flip();
+            CharBuffer chars = decoder().decode(bytes);
+            parse(result, chars.array(), chars.arrayOffset() + chars.position(), chars.remaining());
+        } finally {
+            input.close();
+        }
+    }
+
+    private static CharsetDecoder decoder() {
+        // same error handling as java.io.InputStreamReader.
+        return UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+
+    static void parse(Map<Object, Object> result, char[] buf, int offset, int length) throws IOException {
+        try {
+            parseChunks(result, buf, offset, length);
+        } catch (TruncatedEscapeException e) {
+            loadWithProperties(result, buf, offset, length);
+        }
+    }
+
+    /**
+     * Loads the given text with {@link Properties#load(java.io.Reader)}, putting the entries in the given map as they
+     * are loaded, so that the map gets also the entries preceding a malformed one.
+     */
+    private static void loadWithProperties(final Map<Object, Object> result, char[] buf, int offset, int length)
+            throws IOException {
+        Properties properties = new Properties() {
+            @Override
+            public synchronized Object put(Object key, Object value) {
+                return result.put(key, value);
+            }
+        };
+        properties.load(new CharArrayReader(buf, offset, length));
+    }
+
+    private static void parseChunks(Map<Object, Object> result, char[] buf, int offset, int length)
+            throws IOException {
+        int end = offset + length;
+        int chunks = Math.min(Runtime.getRuntime().availableProcessors(), length / CHUNK_SIZE);
+        if (chunks <= 1) {
+            new Chunk(buf, offset, end).parse(result);
+            return;
+        }
+
+        List<Chunk> parts = split(buf, offset, end, chunks);
+        List<Thread> threads = new ArrayList<Thread>(parts.size());
+        for (final Chunk chunk : parts.subList(1, parts.size())) {
+            Thread thread = new Thread(chunk, "owner-properties-parser");
+            thread.setDaemon(true);
+            thread.start();
+            threads.add(thread);
+        }
+        parts.get(0).run();
+        try {
+            for (Thread thread : threads)
+                thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw (IOException) new InterruptedIOException().initCause(e);
+        }
+        for (Chunk chunk : parts)
+            if (chunk.error instanceof TruncatedEscapeException)
+                throw chunk.error;
+        for (Chunk chunk : parts)
+            chunk.drainTo(result);
+    }
+
+    /**
+     * Thrown when a <code>&#92;uxxxx</code> escape is cut off by the end of a key or a value.
+     */
+    private static class TruncatedEscapeException extends IllegalArgumentException {
+        private static final long serialVersionUID = 1L;
+
+        TruncatedEscapeException() {
+            super("Malformed \\uxxxx encoding.");
+        }
+    }
+
+    static List<Chunk> split(char[] buf, int offset, int end, int chunks) {
+        List<Chunk> result = new ArrayList<Chunk>(chunks);
+        int size = (end - offset) / chunks;
+        int start = offset;
+        for (int i = 1; i < chunks && start < end; i++) {
+            int boundary = nextLineStart(buf, start, Math.max(start, offset + i * size), end);
+            if (boundary >= end)
+                break;
+            if (boundary > start) {
+                result.add(new Chunk(buf, start, boundary));
+                start = boundary;
+            }
+        }
+        result.add(new Chunk(buf, start, end));
+        return result;
+    }
+
+    /**
+     * Finds the first position after <tt>from</tt> where a logical line surely begins: that is the position
+     * following a line terminator, when the line it terminates doesn't end with an odd number of backslashes.
+     */
+    static int nextLineStart(char[] buf, int start, int from, int end) {
+        for (int i = from; i < end; i++) {
+            char c = buf[i];
+            if (c != '\n' && c != '\r')
+                continue;
+            if (c == '\n' && i > start && buf[i - 1] == '\r')
+                continue; // already evaluated on '\r', as a continuation line may end with "\\\r\n"
+            int backslashes = 0;
+            for (int j = i - 1; j >= start && buf[j] == '\\'; j--)
+                backslashes++;
+            if (backslashes % 2 == 0)
+                return i + 1;
+        }
+        return end;
+    }
+
+    /**
+     * A portion of the file, made of whole logical lines. It mirrors the logic of the line reader in
+     * {@link java.util.Properties}, operating on the buffer instead of a stream.
+     */
+    static class Chunk implements Runnable {
+        private final char[] buf;
+        private final int end;
+        private int off;
+        private char[] line = new char[1024];
+        private char[] lineBuf;
+        private int lineStart;
+
+        private final List<String> entries = new ArrayList<String>();
+        private RuntimeException error;
+
+        Chunk(char[] buf, int start, int end) {
+            this.buf = buf;
+            this.off = start;
+            this.end = end;
+        }
+
+        public void run() {
+            try {
+                parse(null);
+            } catch (RuntimeException e) {
+                error = e;
+            }
+        }
+
+        void drainTo(Map<Object, Object> result) {
+            for (int i = 0; i < entries.size(); i += 2)
+                result.put(entries.get(i), entries.get(i + 1));
+            if (error != null)
+                throw error;
+        }
+
+        void parse(Map<Object, Object> result) {
+            StringBuilder out = new StringBuilder();
+            int len;
+            while ((len = readLine()) >= 0) {
+                char[] in = lineBuf;
+                int start = lineStart;
+                int limit = start + len;
+                int keyEnd = start;
+                int valueStart = limit;
+                boolean hasSep = false;
+                boolean precedingBackslash = false;
+                char c;
+                while (keyEnd < limit) {
+                    c = in[keyEnd];
+                    if ((c == '=' || c == ':') && !precedingBackslash) {
+                        valueStart = keyEnd + 1;
+                        hasSep = true;
+                        break;
+                    } else if ((c == ' ' || c == '\t' || c == '\f') && !precedingBackslash) {
+                        valueStart = keyEnd + 1;
+                        break;
+                    }
+                    precedingBackslash = c == '\\' && !precedingBackslash;
+                    keyEnd++;
+                }
+                while (valueStart < limit) {
+                    c = in[valueStart];
+                    if (c != ' ' && c != '\t' && c != '\f') {
+                        if (!hasSep && (c == '=' || c == ':'))
+                            hasSep = true;
+                        else
+                            break;
+                    }
+                    valueStart++;
+                }
+                String key = convert(in, start, keyEnd - start, out);
+                String value = convert(in, valueStart, limit - valueStart, out);
+                if (result != null) {
+                    result.put(key, value);
+                } else {
+                    entries.add(key);
+                    entries.add(value);
+                }
+            }
+        }
+
+        /**
+         * Reads the next logical line, and returns its length. A line not spanning multiple physical lines is left
+         * where it is in the buffer, otherwise it's copied to a separate one; either way, the line is available
+         * starting from {@link #lineStart} in {@link #lineBuf}.
+         */
+        private int readLine() {
+            int len = 0;
+            boolean copied = false;
+            boolean skipWhiteSpace = true;
+            boolean appendedLineBegin = false;
+            boolean precedingBackslash = false;
+            char c;
+
+            lineBuf = buf;
+            while (true) {
+                if (off >= end)
+                    return len == 0 ? -1 : precedingBackslash ? len - 1 : len;
+
+                c = buf[off++];
+
+                if (skipWhiteSpace) {
+                    if (c == ' ' || c == '\t' || c == '\f')
+                        continue;
+                    if (!appendedLineBegin && (c == '\r' || c == '\n'))
+                        continue;
+                    skipWhiteSpace = false;
+                    appendedLineBegin = false;
+                }
+
+                if (len == 0 && (c == '#' || c == '!')) {
+                    // comment, consume the rest of the line.
+                    while (off < end) {
+                        c = buf[off++];
+                        if (c == '\r' || c == '\n')
+                            break;
+                    }
+                    if (off >= end)
+                        return -1;
+                    skipWhiteSpace = true;
+                    continue;
+                }
+
+                if (c != '\n' && c != '\r') {
+                    if (copied) {
+                        append(len, c);
+                    } else if (len == 0) {
+                        lineStart = off - 1;
+                    }
+                    len++;
+                    precedingBackslash = c == '\\' && !precedingBackslash;
+                } else {
+                    if (len == 0) {
+                        skipWhiteSpace = true;
+                        continue;
+                    }
+                    if (off >= end)
+                        return precedingBackslash ? len - 1 : len;
+                    if (!precedingBackslash)
+                        return len;
+                    // the backslash at the end of the line is not part of it, the line continues on the next one.
+                    len--;
+                    if (!copied) {
+                        for (int i = 0; i < len; i++)
+                            append(i, buf[lineStart + i]);
+                        lineBuf = line;
+                        lineStart = 0;
+                        copied = true;
+                    }
+                    skipWhiteSpace = true;
+                    appendedLineBegin = true;
+                    precedingBackslash = false;
+                    if (c == '\r' && buf[off] == '\n')
+                        off++;
+                }
+            }
+        }
+
+        private void append(int index, char c) {
+            if (index == line.length) {
+                char[] larger = new char[index * 2];
+                System.arraycopy(line, 0, larger, 0, index);
+                line = lineBuf = larger;
+            }
+            line[index] = c;
+        }
+
+        private static String convert(char[] in, int off, int len, StringBuilder out) {
+            int end = off + len;
+            int start = off;
+            while (off < end && in[off] != '\\')
+                off++;
+            if (off == end)
+                return new String(in, start, len);
+
+            out.setLength(0);
+            out.append(in, start, off - start);
+            while (off < end) {
+                char c = in[off++];
+                if (c != '\\') {
+                    out.append(c);
+                    continue;
+                }
+                c = in[off++];
+                if (c == 'u') {
+                    if (off > end - 4)
+                        throw new TruncatedEscapeException();
+                    int value = 0;
+                    for (int i = 0; i < 4; i++)
+                        value = (value << 4) + hex(in[off++]);
+                    out.append((char) value);
+                } else if (c == 't') {
+                    out.append('\t');
+                } else if (c == 'r') {
+                    out.append('\r');
+                } else if (c == 'n') {
+                    out.append('\n');
+                } else if (c == 'f') {
+                    out.append('\f');
+                } else {
+                    out.append(c);
+                }
+            }
+            return out.toString();
+        }
+
+        private static int hex(char c) {
+            if (c >= '0' && c <= '9')
+                return c - '0';
+            if (c >= 'a' && c <= 'f')
+                return 10 + c - 'a';
+            if (c >= 'A' && c <= 'F')
+                return 10 + c - 'A';
+            throw new IllegalArgumentException("Malformed \\uxxxx encoding.");
+        }
+    }
+
+}
@@ -12,7 +12,8 @@ import java.io.IOException;
 import java.net.URI;
 import java.util.Properties;
 
-import static org.aeonbits.owner.util.Util.system;
+import org.aeonbits.owner.util.SystemSnapshot;
+
 
 /**
  * Allows specifying <code>system:properties</code> and <code>system:env</code> with the <code>@Sources</code> annotation.
@@ -40,11 +41,24 @@ public class SystemLoader implements Loader {
     }
 
     public void load(Properties result, URI uri) throws IOException {
+        result.putAll(shared(uri));
+    }
+
+    /**
+     * Returns the system properties or the environment variables, as specified by the given uri, from the current
+     * {@link SystemSnapshot}; so that the config objects loading them share the same copy.
+     *
+     * @param uri either <code>system:properties</code> or <code>system:env</code>.
+     * @return the properties of the given source, which must not be modified.
+     * @since 1.0.13
+     */
+    public Properties shared(URI uri) {
         String path = uri.toString();
         if (SYSTEM_PROPERTIES_URI.equals(path))
-            result.putAll(system().getProperties());
+            return SystemSnapshot.current().properties();
         if (ENVIRONMENT_VARIABLES_URI.equals(path))
-            result.putAll(system().getenv());
+            return SystemSnapshot.current().environment();
+        return new Properties();
     }
 
     public String defaultSpecFor(String uriPrefix) {
@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner.loaders;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URI;
+import java.util.Map;
+
+/**
+ * A {@link Loader} able to notify the changes of the sources it loads as soon as they happen, so that config objects
+ * with {@link org.aeonbits.owner.Config.HotReload hot reload} can apply them without polling the sources.
+ * <p>
+ * Only the changed properties are notified, and only those are updated in the config objects, instead of loading the
+ * whole source again.
+ * </p>
+ *
+ * @author Luigi R. Viggiano
+ * @since 1.0.13
+ */
+public interface WatchableLoader extends Loader {
+
+    /**
+     * Starts notifying the changes of the given source to the given listener.
+     *
+     * @param uri the {@link URI} of the source to watch.
+     * @param listener the listener to notify the changes to.
+     * @return a {@link Closeable} to invoke to stop the notifications.
+     * @throws IOException if the source can't be watched.
+     */
+    Closeable watch(URI uri, SourceListener listener) throws IOException;
+
+    /**
+     * Receives the changes of a source watched by a {@link WatchableLoader}.
+     *
+     * @since 1.0.13
+     */
+    interface SourceListener {
+
+        /**
+         * Invoked when some properties of the given source have changed. The listener may be invoked also with
+         * properties whose value didn't actually change.
+         *
+         * @param uri the {@link URI} of the changed source.
+         * @param changes the changed properties, with their new value, or <code>null</code> if the property has been
+         *                removed from the source.
+         */
+        void sourceChanged(URI uri, Map<String, String> changes);
+    }
+}
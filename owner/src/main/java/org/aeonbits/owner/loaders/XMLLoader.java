@@ -17,6 +17,8 @@ import org.xml.sax.ext.DefaultHandler2;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.parsers.SAXParser;
 import javax.xml.parsers.SAXParserFactory;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.StringReader;
@@ -24,7 +26,6 @@ import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URL;
 import java.util.Properties;
-import java.util.Stack;
 
 /**
  * A {@link Loader loader} able to read properties from standard XML Java properties files, as well as user defined
@@ -36,21 +37,59 @@ import java.util.Stack;
 public class XMLLoader implements Loader {
 
     private static final long serialVersionUID = -894351666332018767L;
+    private static final String PROPS_DTD_URI = "http://java.sun.com/dtd/properties.dtd";
+    private static final int SNIFF_LENGTH = 4096;
+
+    private transient SAXParserFactory validatingFactory = null;
     private transient SAXParserFactory factory = null;
+    private transient ThreadLocal<SAXParser[]> parsers = null;
 
-    private synchronized SAXParserFactory factory() {
-        if (factory == null) {
-            factory = SAXParserFactory.newInstance();
-            factory.setValidating(true);
-            factory.setNamespaceAware(true);
+    private synchronized SAXParserFactory factory(boolean validating) {
+        if (validating) {
+            if (validatingFactory == null)
+                validatingFactory = newFactory(true);
+            return validatingFactory;
         }
+        if (factory == null)
+            factory = newFactory(false);
         return factory;
     }
 
-    static class XmlToPropsHandler extends DefaultHandler2 {
+    private static SAXParserFactory newFactory(boolean validating) {
+        SAXParserFactory result = SAXParserFactory.newInstance();
+        result.setValidating(validating);
+        result.setNamespaceAware(true);
+        return result;
+    }
 
-        private static final String PROPS_DTD_URI =
-                "http://java.sun.com/dtd/properties.dtd";
+    private synchronized ThreadLocal<SAXParser[]> parsers() {
+        if (parsers == null)
+            parsers = new ThreadLocal<SAXParser[]>() {
+                @Override
+                protected SAXParser[] initialValue() {
+                    return new SAXParser[2];
+                }
+            };
+        return parsers;
+    }
+
+    /**
+     * Returns a parser owned by the calling thread; parsers are expensive to build, so they are reused across loads.
+     */
+    private SAXParser parser(boolean validating) throws ParserConfigurationException, SAXException {
+        SAXParser[] threadParsers = parsers().get();
+        int index = validating ? 1 : 0;
+        SAXParser parser = threadParsers[index];
+        if (parser == null) {
+            parser = factory(validating).newSAXParser();
+            threadParsers[index] = parser;
+        } else {
+            parser.reset();
+        }
+        return parser;
+    }
+
+    static class XmlToPropsHandler extends DefaultHandler2 {
 
         private static final String PROPS_DTD =
                 "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" +
@@ -61,16 +100,32 @@ public class XMLLoader implements Loader {
                         "<!ELEMENT entry (#PCDATA) >" +
                         "<!ATTLIST entry key CDATA #REQUIRED>";
 
-        private boolean isJavaPropertiesFormat = false;
         private final Properties props;
-        private final Stack<String> paths = new Stack<String>();
-        private final Stack<StringBuilder> value = new Stack<StringBuilder>();
+        private final boolean validating;
+        private boolean isJavaPropertiesFormat = false;
+
+        // the dotted path of the current element, and where the path of each enclosing element ends.
+        private final StringBuilder path = new StringBuilder();
+        private int[] pathEnds = new int[16];
+        // the text of the enclosing elements, and where the text of each of them begins.
+        private final StringBuilder text = new StringBuilder();
+        private int[] textStarts = new int[16];
+        // with the Java format, the keys are taken from the "key" attribute rather than from the path.
+        private String[] keys = new String[16];
+        private int depth = 0;
+
+        XmlToPropsHandler(Properties props, boolean validating) {
+            this.props = props;
+            this.validating = validating;
+        }
 
         @Override
         public InputSource resolveEntity(String name, String publicId, String baseURI,
                                          String systemId) throws SAXException, IOException {
             InputSource inputSource = null;
             if (systemId.equals(PROPS_DTD_URI)) {
+                if (!validating)
+                    throw new ValidationRequired();
                 isJavaPropertiesFormat = true;
                 inputSource = new InputSource(new StringReader(PROPS_DTD));
                 inputSource.setSystemId(PROPS_DTD_URI);
@@ -78,45 +133,68 @@ public class XMLLoader implements Loader {
             return inputSource;
         }
 
-        public XmlToPropsHandler(Properties props) {
-            this.props = props;
-        }
-
         @Override
         public void startElement(String uri, String localName, String qName,
                                  Attributes attributes) throws SAXException {
-            value.push(new StringBuilder());
+            if (depth == pathEnds.length) {
+                pathEnds = copyOf(pathEnds, depth * 2);
+                textStarts = copyOf(textStarts, depth * 2);
+                String[] largerKeys = new String[depth * 2];
+                System.arraycopy(keys, 0, largerKeys, 0, depth);
+                keys = largerKeys;
+            }
+            pathEnds[depth] = path.length();
+            textStarts[depth] = text.length();
 
             if (isJavaPropertiesFormat) {
-                if ("entry".equals(qName))
-                    paths.push(attributes.getValue("key"));
-                else
-                    paths.push(qName);
+                keys[depth] = "entry".equals(qName) ? attributes.getValue("key") : qName;
             } else {
-                String path = (paths.size() == 0) ? qName : paths.peek() + "." + qName;
-                paths.push(path);
+                if (depth > 0)
+                    path.append('.');
+                path.append(qName);
+                int length = path.length();
                 for (int i = 0; i < attributes.getLength(); i++) {
-                    String attrName = attributes.getQName(i);
-                    String attrValue = attributes.getValue(i);
-                    props.setProperty(path + "." + attrName, attrValue);
+                    path.append('.').append(attributes.getQName(i));
+                    props.setProperty(path.toString(), attributes.getValue(i));
+                    path.setLength(length);
                 }
             }
+            depth++;
         }
 
         @Override
         public void characters(char[] ch, int start, int length) throws SAXException {
-            value.peek().append(new String(ch, start, length));
+            text.append(ch, start, length);
         }
 
         @Override
         public void endElement(String uri, String localName, String qName) throws SAXException {
-            String key = paths.peek();
-            String propertyValue = this.value.peek().toString().trim();
-            if (!propertyValue.isEmpty() &&
-                    !(isJavaPropertiesFormat && "comment".equals(key)))
-                props.setProperty(key, propertyValue);
-            value.pop();
-            paths.pop();
+            depth--;
+            String propertyValue = trimmedText(textStarts[depth]);
+            if (propertyValue != null) {
+                if (!isJavaPropertiesFormat)
+                    props.setProperty(path.toString(), propertyValue);
+                else if (!"comment".equals(keys[depth]))
+                    props.setProperty(keys[depth], propertyValue);
+            }
+            text.setLength(textStarts[depth]);
+            path.setLength(pathEnds[depth]);
+            keys[depth] = null;
+        }
+
+        private String trimmedText(int start) {
+            int end = text.length();
+            while (start < end && text.charAt(start) <= ' ')
+                start++;
+            while (end > start && text.charAt(end - 1) <= ' ')
+                end--;
+            return start < end ? text.substring(start, end) : null;
+        }
+
+        private static int[] copyOf(int[] array, int length) {
+            int[] result = new int[length];
+            System.arraycopy(array, 0, result, 0, array.length);
+            return result;
         }
 
         @Override
@@ -126,6 +204,14 @@ public class XMLLoader implements Loader {
         }
     }
 
+    /**
+     * Thrown when the Java properties DTD is met by a non validating parser, so that the document is parsed again
+     * with a validating one.
+     */
+    static class ValidationRequired extends SAXException {
+        private static final long serialVersionUID = -2471532093478014217L;
+    }
+
     public boolean accept(URI uri) {
         try {
             URL url = uri.toURL();
@@ -135,13 +221,42 @@ public class XMLLoader implements Loader {
         }
     }
 
-    public void load(Properties result, URI uri) throws IOException {
-        InputStream input = uri.toURL().openStream();
+    public void load(Properties result, final URI uri) throws IOException {
+        load(result, new Content() {
+            public InputStream open() throws IOException {
+                return uri.toURL().openStream();
+            }
+        });
+    }
+
+    /**
+     * Loads the properties from a document already downloaded in memory.
+     */
+    void load(Properties result, final byte[] document) throws IOException {
+        load(result, new Content() {
+            public InputStream open() {
+                return new ByteArrayInputStream(document);
+            }
+        });
+    }
+
+    private interface Content {
+        InputStream open() throws IOException;
+    }
+
+    private void load(Properties result, Content content) throws IOException {
+        BufferedInputStream input = new BufferedInputStream(content.open(), SNIFF_LENGTH);
         try {
-            SAXParser parser = factory().newSAXParser();
-            XmlToPropsHandler h = new XmlToPropsHandler(result);
-            parser.setProperty("http://xml.org/sax/properties/lexical-handler", h);
-            parser.parse(input, h);
+            // validation is only needed for the Java properties format, which declares its DTD in the prolog.
+            boolean validating = declaresPropertiesDTD(input);
+            try {
+                parse(result, input, validating);
+            } catch (ValidationRequired e) {
+                // the DTD wasn't spotted by sniffing the beginning of the document (i.e. due to the encoding).
+                input.close();
+                input = new BufferedInputStream(content.open());
+                parse(result, input, true);
+            }
         } catch (ParserConfigurationException e) {
             throw new IllegalArgumentException(e);
         } catch (SAXException e) {
@@ -151,6 +266,28 @@ public class XMLLoader implements Loader {
         }
     }
 
+    private void parse(Properties result, InputStream input, boolean validating)
+            throws ParserConfigurationException, SAXException, IOException {
+        SAXParser parser = parser(validating);
+        XmlToPropsHandler h = new XmlToPropsHandler(result, validating);
+        parser.setProperty("http://xml.org/sax/properties/lexical-handler", h);
+        parser.parse(input, h);
+    }
+
+    private static boolean declaresPropertiesDTD(BufferedInputStream input) throws IOException {
+        input.mark(SNIFF_LENGTH);
+        try {
+            byte[] buffer = new byte[SNIFF_LENGTH];
+            int length = 0;
+            int read;
+            while (length < buffer.length && (read = input.read(buffer, length, buffer.length - length)) > 0)
+                length += read;
+            return new String(buffer, 0, length, "ISO-8859-1").contains(PROPS_DTD_URI);
+        } finally {
+            input.reset();
+        }
+    }
+
     public String defaultSpecFor(String urlPrefix) {
         return urlPrefix + ".xml";
     }
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner.util;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Detects changes in the system properties, on behalf of all the config objects that need to watch them.
+ * <p>
+ * The system properties are checked at most once per millisecond, whatever the number of callers: every time
+ * they change the {@link SystemSnapshot#version() version} of the {@link SystemSnapshot} is incremented, so that each
+ * caller only needs to compare the version it has seen last with the current one.
+ * </p>
+ *
+ * @author Luigi R. Viggiano
+ */
+public final class SystemPropertiesWatcher {
+
+    private static final long REFRESH_INTERVAL = MILLISECONDS.toNanos(1);
+    private static final Object lock = new Object();
+
+    private static boolean initialized = false;
+    private static long lastRefreshTime;
+    private static long version = 0;
+
+    // Suppresses default constructor, ensuring no one instantiate this class.
+    private SystemPropertiesWatcher() {}
+
+    /**
+     * Returns the current version of the system properties.
+     *
+     * @return a number that is incremented every time the system properties are found changed.
+     */
+    public static long version() {
+        synchronized (lock) {
+            long now = System.nanoTime();
+            if (initialized && now - lastRefreshTime < REFRESH_INTERVAL)
+                return version;
+            lastRefreshTime = now;
+            version = SystemSnapshot.current().version();
+            initialized = true;
+            return version;
+        }
+    }
+
+}
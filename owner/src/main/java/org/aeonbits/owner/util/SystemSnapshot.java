@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner.util;
+
+import org.aeonbits.owner.util.Util.SystemProvider;
+
+import java.util.Properties;
+
+import static org.aeonbits.owner.util.Util.system;
+
+/**
+ * A copy of the system properties and of the environment variables, shared by all the factories and config objects
+ * that need them, rather than copied by each of them.
+ * <p>
+ * The snapshot is replaced only when the system properties are found changed (the environment variables can't change
+ * while the JVM is running): the properties are fingerprinted every time the {@link #current() current} snapshot is
+ * requested, without copying them.
+ * </p>
+ * <p>
+ * The {@link Properties} objects returned by a snapshot are shared, and must not be modified.
+ * </p>
+ *
+ * @author Luigi R. Viggiano
+ * @since 1.0.13
+ */
+public final class SystemSnapshot {
+
+    private static final Object lock = new Object();
+    private static SystemSnapshot current;
+
+    private final SystemProvider provider;
+    private final int fingerprint;
+    private final long version;
+    private final Properties properties;
+    private final Properties environment;
+    private final Properties variables;
+
+    private SystemSnapshot(SystemProvider provider, int fingerprint, long version, Properties properties,
+                           Properties environment) {
+        this.provider = provider;
+        this.fingerprint = fingerprint;
+        this.version = version;
+        this.properties = properties;
+        this.environment = environment;
+        variables = new Properties();
+        variables.putAll(environment);
+        variables.putAll(properties);
+    }
+
+    /**
+     * Returns the snapshot of the current system properties and environment variables.
+     *
+     * @return the current snapshot; the same snapshot is returned as long as the system properties don't change.
+     */
+    public static SystemSnapshot current() {
+        SystemProvider provider = system();
+        int fingerprint = fingerprint(provider);
+        synchronized (lock) {
+            SystemSnapshot snapshot = current;
+            if (snapshot != null && snapshot.provider == provider && snapshot.fingerprint == fingerprint)
+                return snapshot;
+
+            Properties environment;
+            if (snapshot != null && snapshot.provider == provider) {
+                environment = snapshot.environment;
+            } else {
+                environment = new Properties();
+                environment.putAll(provider.getenv());
+            }
+            long version = snapshot == null ? 0 : snapshot.version + 1;
+            current = new SystemSnapshot(provider, fingerprint, version, provider.getProperties(), environment);
+            return current;
+        }
+    }
+
+    private static int fingerprint(SystemProvider provider) {
+        // the default provider would copy the system properties, which is not needed just to hash them.
+        if (provider == Util.DEFAULT_SYSTEM)
+            return System.getProperties().hashCode();
+        return provider.getProperties().hashCode();
+    }
+
+    /**
+     * @return a number that is incremented every time the system properties are found changed.
+     */
+    public long version() {
+        return version;
+    }
+
+    /**
+     * @return the system properties.
+     */
+    public Properties properties() {
+        return properties;
+    }
+
+    /**
+     * @return the environment variables.
+     */
+    public Properties environment() {
+        return environment;
+    }
+
+    /**
+     * @return the environment variables, overridden by the system properties with the same name.
+     */
+    public Properties variables() {
+        return variables;
+    }
+
+}
@@ -61,7 +61,7 @@ public abstract class Util {
         }
     };
 
-    static SystemProvider system = new SystemProvider() {
+    static final SystemProvider DEFAULT_SYSTEM = new SystemProvider() {
         public String getProperty(String key) {
             return System.getProperty(key);
         }
@@ -75,6 +75,8 @@ public abstract class Util {
         }
     };
 
+    static SystemProvider system = DEFAULT_SYSTEM;
+
     /** Don't let anyone instantiate this class */
     private Util() {}
 
@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner;
+
+import org.aeonbits.owner.Config.HotReload;
+import org.aeonbits.owner.Config.Sources;
+import org.aeonbits.owner.event.ReloadEvent;
+import org.aeonbits.owner.event.ReloadListener;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Properties;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.aeonbits.owner.Config.HotReloadType.ASYNC;
+import static org.aeonbits.owner.util.UtilTest.fileFromURI;
+import static org.aeonbits.owner.util.UtilTest.save;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Luigi R. Viggiano
+ */
+public class CloseableTest implements TestConstants {
+    private static final String SPEC = "file:" + RESOURCES_DIR + "/CloseableTest.properties";
+    private static final int CYCLES = 100000;
+
+    private File target;
+    private ScheduledThreadPoolExecutor scheduler;
+    private DefaultFactory factory;
+
+    @Sources(SPEC)
+    @HotReload(value = 10, unit = MILLISECONDS, type = ASYNC)
+    interface CloseableConfig extends Config, Reloadable, Closeable {
+        @DefaultValue("5")
+        Integer someValue();
+    }
+
+    @Before
+    public void before() throws Exception {
+        target = fileFromURI(SPEC);
+        save(target, new Properties() {{
+            setProperty("someValue", "10");
+        }});
+        scheduler = new ScheduledThreadPoolExecutor(1);
+        factory = new DefaultFactory(scheduler, new Properties());
+        ConfigCache.clear();
+    }
+
+    @After
+    public void after() {
+        factory.close();
+        target.delete();
+    }
+
+    @Test
+    public void shouldReleaseHotReloadAndListenersOnClose() {
+        CloseableConfig cfg = factory.create(CloseableConfig.class);
+        cfg.addReloadListener(new ReloadListener() {
+            public void reloadPerformed(ReloadEvent event) {
+            }
+        });
+        assertEquals(1, factory.watchRegistry.subscribers());
+        assertEquals(1, scheduler.getQueue().size());
+
+        cfg.close();
+
+        assertEquals(0, factory.watchRegistry.subscribers());
+        assertEquals(0, scheduler.getQueue().size());
+        assertEquals(Integer.valueOf(10), cfg.someValue());
+
+        cfg.close();
+    }
+
+    @Test
+    public void shouldEvictFromCacheOnClose() {
+        CloseableConfig cfg = ConfigCache.getOrCreate(factory, "foo", CloseableConfig.class);
+        assertSame(cfg, ConfigCache.get("foo"));
+
+        cfg.close();
+
+        assertNull(ConfigCache.get("foo"));
+    }
+
+    @Test
+    public void shouldEvictFromCacheOnCloseByTheKeysItWasAddedWith() {
+        CloseableConfig cfg = factory.create(CloseableConfig.class);
+        CloseableConfig other = factory.create(CloseableConfig.class);
+        ConfigCache.add("foo", cfg);
+        ConfigCache.add("bar", cfg);
+        ConfigCache.add("baz", other);
+        ConfigCache.add("qux", cfg);
+        ConfigCache.remove("qux");
+
+        PropertiesManager manager = ((PropertiesInvocationHandler) Proxy.getInvocationHandler(cfg)).propertiesManager;
+        assertEquals(new HashSet<Object>(Arrays.asList("foo", "bar")), new HashSet<Object>(manager.cacheKeys()));
+
+        cfg.close();
+
+        assertNull(ConfigCache.get("foo"));
+        assertNull(ConfigCache.get("bar"));
+        assertSame(other, ConfigCache.get("baz"));
+        assertTrue(manager.cacheKeys().isEmpty());
+    }
+
+    @Test
+    public void shouldShutdownSchedulerOnFactoryClose() {
+        factory.create(CloseableConfig.class);
+
+        factory.close();
+
+        assertTrue(scheduler.isShutdown());
+        assertEquals(0, factory.watchRegistry.subscribers());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldNotCreateAfterFactoryClose() {
+        factory.close();
+        factory.create(CloseableConfig.class);
+    }
+
+    @Test
+    public void shouldNotLeakOnCreateAndCloseCycles() {
+        runCycles(CYCLES / 10);
+        long usedBefore = usedMemory();
+
+        runCycles(CYCLES);
+
+        assertEquals(0, scheduler.getQueue().size());
+        assertEquals(0, factory.watchRegistry.subscribers());
+        assertEquals(0, factory.watchRegistry.watchedResources());
+        long leakTolerance = 16 * 1024 * 1024;
+        assertTrue(usedMemory() - usedBefore < leakTolerance);
+    }
+
+    private void runCycles(int cycles) {
+        for (int i = 0; i < cycles; i++) {
+            CloseableConfig cfg = ConfigCache.getOrCreate(factory, i, CloseableConfig.class);
+            cfg.close();
+        }
+    }
+
+    private long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++)
+            System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner;
+
+import org.aeonbits.owner.Config.DefaultValue;
+import org.aeonbits.owner.Config.EncryptedValue;
+import org.aeonbits.owner.Config.HotReload;
+import org.aeonbits.owner.Config.LoadPolicy;
+import org.aeonbits.owner.Config.Sources;
+import org.aeonbits.owner.crypto.IdentityDecryptor;
+import org.junit.Test;
+
+import static org.aeonbits.owner.Config.LoadType.FIRST;
+import static org.aeonbits.owner.Config.LoadType.MERGE;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Luigi R. Viggiano
+ */
+public class ConfigClassMetadataTest {
+
+    @Sources("file:base.properties")
+    @LoadPolicy(value = MERGE, lazy = true)
+    @HotReload
+    interface BaseConfig extends Config {}
+
+    @Sources("file:my.properties")
+    interface MyConfig extends BaseConfig {
+        @DefaultValue("hello")
+        String greeting();
+
+        @EncryptedValue
+        String password();
+    }
+
+    interface PlainConfig extends Config {}
+
+    @Test
+    public void shouldBeCollectedOncePerInterface() {
+        assertSame(ConfigClassMetadata.of(MyConfig.class), ConfigClassMetadata.of(MyConfig.class));
+    }
+
+    @Test
+    public void shouldCollectTheAnnotationsOfTheInterfaceAndOfTheInterfacesItExtends() throws Exception {
+        ConfigClassMetadata metadata = ConfigClassMetadata.of(MyConfig.class);
+
+        assertEquals(2, metadata.sourceSpecs().size());
+        assertArrayEquals(new String[]{"file:my.properties"}, metadata.sourceSpecs().get(0));
+        assertArrayEquals(new String[]{"file:base.properties"}, metadata.sourceSpecs().get(1));
+        assertEquals(MERGE, metadata.loadType());
+        assertTrue(metadata.lazyLoad());
+        assertFalse(metadata.parallelLoad());
+        assertNotNull(metadata.hotReload());
+        assertEquals(IdentityDecryptor.class, metadata.decryptorClass());
+        assertEquals(1, metadata.encryptedValues().size());
+        assertTrue(metadata.encryptedValues().containsKey(MyConfig.class.getMethod("password")));
+
+        assertEquals("hello", metadata.defaults().getProperty("greeting"));
+    }
+
+    @Test
+    public void shouldUseTheDefaultsWhenNotAnnotated() {
+        ConfigClassMetadata metadata = ConfigClassMetadata.of(PlainConfig.class);
+
+        assertEquals(2, metadata.sourceSpecs().size()); // PlainConfig and Config
+        assertNull(metadata.sourceSpecs().get(0));
+        assertNull(metadata.sourceSpecs().get(1));
+        assertEquals(FIRST, metadata.loadType());
+        assertFalse(metadata.lazyLoad());
+        assertNull(metadata.hotReload());
+        assertTrue(metadata.encryptedValues().isEmpty());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void shouldNotBeModifiable() {
+        ConfigClassMetadata.of(MyConfig.class).sourceSpecs().clear();
+    }
+
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Collections;
+import java.util.Properties;
+
+import static org.aeonbits.owner.util.UtilTest.save;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * @author Luigi R. Viggiano
+ */
+public class ConfigIndexTest implements TestConstants {
+    private final File root = new File(RESOURCES_DIR, "ConfigIndexTest");
+    private final File indexFile = new File(root, ConfigIndex.RESOURCE);
+    private URLClassLoader classLoader;
+
+    interface IndexedConfig extends Config {
+        @DefaultValue("8080")
+        int port();
+
+        @Key("server.host")
+        @DefaultValue("localhost")
+        String host();
+
+        String noDefault();
+    }
+
+    @Before
+    public void before() throws Exception {
+        indexFile.getParentFile().mkdirs();
+        classLoader = new URLClassLoader(new URL[] {root.toURI().toURL()}, getClass().getClassLoader());
+    }
+
+    @After
+    public void after() {
+        indexFile.delete();
+    }
+
+    @Test
+    public void shouldReadDefaultsFromIndex() throws IOException {
+        write(IndexedConfig.class);
+
+        Properties expected = new Properties();
+        PropertiesMapper.defaults(expected, IndexedConfig.class);
+        Properties indexed = ConfigIndex.indexed(IndexedConfig.class, classLoader);
+
+        assertEquals(expected, indexed);
+        assertEquals("8080", indexed.getProperty("port"));
+        assertEquals("localhost", indexed.getProperty("server.host"));
+    }
+
+    @Test
+    public void shouldIgnoreStaleIndex() throws IOException {
+        save(indexFile, new Properties() {{
+            setProperty(IndexedConfig.class.getName(), "1");
+            setProperty(IndexedConfig.class.getName() + "/port", "1234");
+        }});
+
+        assertNull(ConfigIndex.indexed(IndexedConfig.class, classLoader));
+    }
+
+    interface ChangedConfig extends Config {
+        @DefaultValue("9090")
+        int port();
+
+        @Key("server.host")
+        @DefaultValue("localhost")
+        String host();
+
+        String noDefault();
+    }
+
+    @Test
+    public void shouldIgnoreIndexOfChangedAnnotations() throws IOException {
+        save(indexFile, new Properties() {{
+            setProperty(IndexedConfig.class.getName(), ConfigIndex.fingerprint(ChangedConfig.class));
+            setProperty(IndexedConfig.class.getName() + "/port", "9090");
+        }});
+
+        assertNull(ConfigIndex.indexed(IndexedConfig.class, classLoader));
+    }
+
+    @Test
+    public void shouldIgnoreInterfacesNotIndexed() throws IOException {
+        assertNull(ConfigIndex.indexed(IndexedConfig.class, classLoader));
+
+        Properties defaults = new Properties();
+        ConfigIndex.defaults(defaults, IndexedConfig.class);
+        assertEquals("8080", defaults.getProperty("port"));
+    }
+
+    private void write(Class<? extends Config> clazz) throws IOException {
+        OutputStream output = new FileOutputStream(indexFile);
+        try {
+            ConfigIndex.write(Collections.<Class<? extends Config>>singletonList(clazz), output);
+        } finally {
+            output.close();
+        }
+    }
+
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner;
+
+import org.aeonbits.owner.Config.LoadPolicy;
+import org.aeonbits.owner.Config.Sources;
+import org.aeonbits.owner.LazyLoadTest.CountingLoader;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.aeonbits.owner.Config.LoadType.MERGE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Luigi R. Viggiano
+ */
+public class CreateAllTest {
+
+    private final CountingLoader loader = new CountingLoader();
+    private Factory factory;
+
+    @Sources({"counting://host/greeting=hello", "counting://host/name=world"})
+    @LoadPolicy(MERGE)
+    interface FirstConfig extends Config {
+        String greeting();
+
+        String name();
+    }
+
+    @Sources({"counting://host/greeting=hello", "counting://host/port=8080"})
+    @LoadPolicy(MERGE)
+    interface SecondConfig extends Config {
+        String greeting();
+
+        int port();
+    }
+
+    @Sources("counting://host/greeting=hello")
+    interface ThirdConfig extends Config, Reloadable {
+        String greeting();
+    }
+
+    @Sources("counting://host/port=eighty")
+    interface BrokenConfig extends Config {
+        int port();
+    }
+
+    @Before
+    public void before() {
+        factory = ConfigFactory.newInstance();
+        factory.registerLoader(loader);
+    }
+
+    @After
+    public void after() {
+        factory.close();
+    }
+
+    @Test
+    public void shouldLoadSharedSourcesOnceAndConcurrently() {
+        long start = System.currentTimeMillis();
+        List<Config> configs = factory.createAll(false, FirstConfig.class, SecondConfig.class, ThirdConfig.class);
+        long elapsed = System.currentTimeMillis() - start;
+
+        assertEquals(3, loader.loads.get());
+        assertTrue("elapsed: " + elapsed, elapsed < 400);
+
+        FirstConfig first = (FirstConfig) configs.get(0);
+        SecondConfig second = (SecondConfig) configs.get(1);
+        ThirdConfig third = (ThirdConfig) configs.get(2);
+        assertEquals("hello", first.greeting());
+        assertEquals("world", first.name());
+        assertEquals("hello", second.greeting());
+        assertEquals(8080, second.port());
+        assertEquals("hello", third.greeting());
+    }
+
+    @Test
+    public void shouldLoadAgainAfterCreation() {
+        List<Config> configs = factory.createAll(false, FirstConfig.class, ThirdConfig.class);
+        assertEquals(2, loader.loads.get());
+
+        ((ThirdConfig) configs.get(1)).reload();
+        assertEquals(3, loader.loads.get());
+    }
+
+    @Test
+    public void shouldCreateInBackground() throws Exception {
+        Future<List<Config>> future = factory.createAllAsync(true, FirstConfig.class, SecondConfig.class);
+        List<Config> configs = future.get(5, SECONDS);
+
+        assertEquals(2, configs.size());
+        assertEquals(8080, ((SecondConfig) configs.get(1)).port());
+        assertEquals(3, loader.loads.get());
+    }
+
+    @Test
+    public void shouldNotWarmUpWhenNotRequested() {
+        List<Config> configs = factory.createAll(false, BrokenConfig.class);
+        assertEquals(1, configs.size());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void shouldReportConversionErrorsOnWarmUp() {
+        factory.createAll(true, FirstConfig.class, BrokenConfig.class);
+    }
+
+    @Test
+    public void shouldReportConversionErrorsOnBackgroundWarmUp() throws Exception {
+        Future<List<Config>> future = factory.createAllAsync(true, BrokenConfig.class);
+        try {
+            future.get(5, SECONDS);
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof UnsupportedOperationException);
+            return;
+        }
+        throw new AssertionError("conversion error not reported");
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldNotCreateWhenClosed() {
+        factory.close();
+        factory.createAll(false, FirstConfig.class);
+    }
+
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner;
+
+import org.aeonbits.owner.Config.DefaultValue;
+import org.aeonbits.owner.Config.Sources;
+import org.aeonbits.owner.LazyLoadTest.CountingLoader;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+
+/**
+ * @author Luigi R. Viggiano
+ */
+public class DerivableTest {
+
+    private final CountingLoader loader = new CountingLoader();
+    private Factory factory;
+
+    @Sources("counting://host/greeting=hello")
+    interface DerivableConfig extends Config, Derivable, Mutable, Reloadable {
+        String greeting();
+
+        @DefaultValue("world")
+        String name();
+    }
+
+    @Before
+    public void before() {
+        factory = ConfigFactory.newInstance();
+        factory.registerLoader(loader);
+    }
+
+    @After
+    public void after() {
+        factory.close();
+    }
+
+    private static Map<String, String> map(String key, String value) {
+        return Collections.singletonMap(key, value);
+    }
+
+    @Test
+    public void shouldOverrideThePropertiesWithoutLoadingThem() {
+        DerivableConfig config = factory.create(DerivableConfig.class);
+        DerivableConfig derived = config.derive(map("name", "luigi"));
+
+        assertNotSame(config, derived);
+        assertEquals(1, loader.loads.get());
+        assertEquals("hello", derived.greeting());
+        assertEquals("luigi", derived.name());
+        assertEquals("world", config.name());
+    }
+
+    @Test
+    public void shouldChangeIndependentlyOfTheOriginal() {
+        DerivableConfig config = factory.create(DerivableConfig.class);
+        DerivableConfig derived = config.derive(map("name", "luigi"));
+
+        config.setProperty("greeting", "ciao");
+        derived.setProperty("name", "mario");
+
+        assertEquals("hello", derived.greeting());
+        assertEquals("ciao", config.greeting());
+        assertEquals("world", config.name());
+        assertEquals("mario", derived.name());
+    }
+
+    @Test
+    public void shouldDeriveFromDerivedConfigs() {
+        DerivableConfig config = factory.create(DerivableConfig.class);
+        DerivableConfig derived = config.<DerivableConfig>derive(map("name", "luigi")).derive(map("greeting", "hi"));
+
+        assertEquals("hi", derived.greeting());
+        assertEquals("luigi", derived.name());
+    }
+
+    @Test
+    public void shouldKeepTheOverridesOnReload() {
+        DerivableConfig config = factory.create(DerivableConfig.class);
+        DerivableConfig derived = config.derive(map("name", "luigi"));
+
+        derived.reload();
+        assertEquals(2, loader.loads.get());
+        assertEquals("hello", derived.greeting());
+        assertEquals("luigi", derived.name());
+    }
+
+    @Test
+    public void shouldNotSeeTheChangesPushedToTheOriginal() throws Exception {
+        DerivableConfig config = factory.create(DerivableConfig.class);
+        DerivableConfig derived = config.derive(map("name", "luigi"));
+        assertEquals("hello", derived.greeting());
+
+        PropertiesManager manager = ((PropertiesInvocationHandler) Proxy.getInvocationHandler(config)).propertiesManager;
+        manager.applySourceChanges(new URI("counting://host/greeting=hello"), map("greeting", "ciao"));
+
+        assertEquals("ciao", config.greeting());
+        assertEquals("hello", derived.greeting());
+        assertEquals(1, loader.loads.get());
+    }
+
+}
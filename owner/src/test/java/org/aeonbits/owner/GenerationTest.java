@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner;
+
+import org.aeonbits.owner.Config.DefaultValue;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * @author Luigi R. Viggiano
+ */
+public class GenerationTest {
+
+    interface GenerationConfig extends Config, Reloadable, Mutable {
+        @DefaultValue("10")
+        int poolSize();
+
+        @DefaultValue("blue")
+        String color();
+    }
+
+    @Test
+    public void shouldBeIncrementedByTheLoad() {
+        GenerationConfig config = ConfigFactory.create(GenerationConfig.class);
+        assertEquals(1, config.generation());
+        assertEquals(0, config.generation("poolSize"));
+    }
+
+    @Test
+    public void shouldBeIncrementedByEachChange() {
+        GenerationConfig config = ConfigFactory.create(GenerationConfig.class);
+
+        config.setProperty("poolSize", "20");
+        assertEquals(2, config.generation());
+        assertEquals(2, config.generation("poolSize"));
+
+        config.removeProperty("color");
+        assertEquals(3, config.generation());
+        assertEquals(2, config.generation("poolSize"));
+        assertEquals(3, config.generation("color"));
+    }
+
+    @Test
+    public void shouldNotBeIncrementedWhenNothingChanges() {
+        GenerationConfig config = ConfigFactory.create(GenerationConfig.class);
+
+        config.setProperty("poolSize", "10");
+        config.reload();
+        assertEquals(1, config.generation());
+    }
+
+    @Test
+    public void shouldBeIncrementedOnceByEachReloadChangingSomething() {
+        Map<String, String> imports = new HashMap<String, String>();
+        GenerationConfig config = ConfigFactory.create(GenerationConfig.class, imports);
+        int hashCode = config.hashCode();
+
+        imports.put("poolSize", "20");
+        imports.put("color", "red");
+        config.reload();
+
+        assertEquals(2, config.generation());
+        assertEquals(2, config.generation("poolSize"));
+        assertEquals(2, config.generation("color"));
+        assertEquals(20, config.poolSize());
+        assertEquals(ConfigFactory.create(GenerationConfig.class, imports).hashCode(), config.hashCode());
+        assertFalse(hashCode == config.hashCode());
+    }
+
+}
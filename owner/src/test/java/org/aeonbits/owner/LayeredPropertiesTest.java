@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner;
+
+import org.aeonbits.owner.Config.DefaultValue;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Luigi R. Viggiano
+ */
+public class LayeredPropertiesTest {
+
+    private Properties imported;
+    private Properties source;
+    private Properties defaults;
+    private LayeredProperties properties;
+
+    @Before
+    public void before() {
+        imported = properties("color", "red");
+        source = properties("color", "green", "size", "large");
+        defaults = properties("color", "blue", "size", "small", "shape", "round");
+        properties = new LayeredProperties();
+        properties.setLayers(Arrays.asList(imported, source, defaults));
+    }
+
+    private static Properties properties(String... keyValues) {
+        Properties result = new Properties();
+        for (int i = 0; i < keyValues.length; i += 2)
+            result.setProperty(keyValues[i], keyValues[i + 1]);
+        return result;
+    }
+
+    @Test
+    public void shouldResolveKeysWithTheHighestPriorityLayerFirst() {
+        assertEquals("red", properties.getProperty("color"));
+        assertEquals("large", properties.getProperty("size"));
+        assertEquals("round", properties.getProperty("shape"));
+        assertNull(properties.getProperty("weight"));
+        assertEquals(properties("color", "red", "size", "large", "shape", "round"), properties);
+        assertEquals(3, properties.size());
+    }
+
+    @Test
+    public void shouldReferenceTheLayersWithoutCopyingThem() {
+        assertSame(source, properties.layers().get(1));
+    }
+
+    @Test
+    public void shouldKeepTheChangesAsOverridesOfTheLayers() {
+        properties.setProperty("size", "medium");
+        properties.remove("shape");
+
+        assertEquals("medium", properties.getProperty("size"));
+        assertNull(properties.getProperty("shape"));
+        assertFalse(properties.containsKey("shape"));
+        assertEquals("large", source.getProperty("size"));
+        assertEquals("round", defaults.getProperty("shape"));
+
+        properties.clear();
+        assertTrue(properties.isEmpty());
+        assertNull(properties.getProperty("color"));
+    }
+
+    @Test
+    public void shouldReplaceALayerOnlyForThePropertiesItIsReplacedOn() {
+        LayeredProperties copy = properties.derive(properties("shape", "square"));
+        assertEquals("large", properties.getProperty("size"));
+        assertEquals("large", copy.getProperty("size"));
+
+        Properties replacement = properties("color", "green", "size", "huge");
+        properties.replaceLayer(source, replacement, Collections.singleton("size"));
+
+        assertSame(replacement, properties.layers().get(1));
+        assertEquals("huge", properties.getProperty("size"));
+        assertEquals("large", copy.getProperty("size"));
+        assertEquals("large", source.getProperty("size"));
+    }
+
+    @Test
+    public void shouldBeSerializedWithTheResolvedProperties() throws Exception {
+        properties.setProperty("weight", "light");
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(properties);
+        out.close();
+        ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        Properties deserialized = (Properties) in.readObject();
+
+        assertEquals(properties, deserialized);
+        assertEquals("light", deserialized.getProperty("weight"));
+    }
+
+    interface ColorConfig extends Config {
+        @DefaultValue("blue")
+        String color();
+    }
+
+    @Test
+    public void shouldShareTheDefaultValuesAcrossConfigObjects() {
+        ColorConfig first = ConfigFactory.create(ColorConfig.class);
+        ColorConfig second = ConfigFactory.create(ColorConfig.class);
+        Properties defaults = ConfigClassMetadata.of(ColorConfig.class).defaults();
+
+        assertSame(defaults, last(first));
+        assertSame(defaults, last(second));
+        assertEquals("blue", first.color());
+    }
+
+    private static Object last(Config config) {
+        PropertiesManager manager = ((PropertiesInvocationHandler) Proxy.getInvocationHandler(config)).propertiesManager;
+        List<Map<?, ?>> layers = manager.layers();
+        return layers.get(layers.size() - 1);
+    }
+
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner;
+
+import org.aeonbits.owner.Config.LoadPolicy;
+import org.aeonbits.owner.Config.Sources;
+import org.aeonbits.owner.loaders.Loader;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Luigi R. Viggiano
+ */
+public class LazyLoadTest {
+
+    private final CountingLoader loader = new CountingLoader();
+    private Factory factory;
+
+    /**
+     * Loads URIs like <code>counting://host/key=value</code>, slowly, counting the loads.
+     */
+    static class CountingLoader implements Loader {
+        final AtomicInteger loads = new AtomicInteger();
+
+        public boolean accept(URI uri) {
+            return "counting".equals(uri.getScheme());
+        }
+
+        public void load(Properties result, URI uri) throws IOException {
+            loads.incrementAndGet();
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            String[] entry = uri.getPath().substring(1).split("=");
+            result.setProperty(entry[0], entry[1]);
+        }
+
+        public String defaultSpecFor(String uriPrefix) {
+            return null;
+        }
+    }
+
+    @Sources("counting://host/greeting=hello")
+    @LoadPolicy(lazy = true)
+    interface LazyConfig extends Config, Accessible, Reloadable, Closeable {
+        String greeting();
+    }
+
+    @Sources("counting://host/greeting=hello")
+    interface EagerConfig extends Config {
+        String greeting();
+    }
+
+    @Before
+    public void before() {
+        factory = ConfigFactory.newInstance();
+        factory.registerLoader(loader);
+    }
+
+    @After
+    public void after() {
+        factory.close();
+    }
+
+    @Test
+    public void shouldLoadEagerConfigsOnCreation() {
+        EagerConfig config = factory.create(EagerConfig.class);
+        assertEquals(1, loader.loads.get());
+        assertEquals("hello", config.greeting());
+        assertEquals(1, loader.loads.get());
+    }
+
+    @Test
+    public void shouldLoadLazyConfigsOnFirstAccess() {
+        LazyConfig config = factory.create(LazyConfig.class);
+        assertEquals(0, loader.loads.get());
+
+        assertEquals("hello", config.greeting());
+        assertEquals("hello", config.getProperty("greeting"));
+        assertEquals(1, loader.loads.get());
+    }
+
+    @Test
+    public void shouldLoadOnceForConcurrentFirstAccesses() throws Exception {
+        final LazyConfig config = factory.create(LazyConfig.class);
+        final CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<Future<String>>();
+            for (int i = 0; i < 8; i++)
+                results.add(executor.submit(new Callable<String>() {
+                    public String call() throws Exception {
+                        start.await();
+                        return config.greeting();
+                    }
+                }));
+            start.countDown();
+            for (Future<String> result : results)
+                assertEquals("hello", result.get());
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(1, loader.loads.get());
+    }
+
+    @Test
+    public void shouldNotLoadToClose() {
+        LazyConfig config = factory.create(LazyConfig.class);
+        config.close();
+        assertEquals(0, loader.loads.get());
+    }
+
+    @Test
+    public void shouldNotLoadTwiceWhenReloadedBeforeFirstAccess() {
+        LazyConfig config = factory.create(LazyConfig.class);
+        config.reload();
+        assertEquals("hello", config.greeting());
+        assertEquals(1, loader.loads.get());
+    }
+
+}
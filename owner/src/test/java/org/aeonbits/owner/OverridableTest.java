@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner;
+
+import org.aeonbits.owner.Config.DefaultValue;
+import org.aeonbits.owner.Config.Key;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * @author Luigi R. Viggiano
+ */
+public class OverridableTest {
+
+    interface TenantConfig extends Config, Overridable, Accessible {
+        @DefaultValue("10")
+        int maxConnections();
+
+        @DefaultValue("blue")
+        String theme();
+
+        @DefaultValue("/themes/${theme}.css")
+        String stylesheet();
+
+        @Key("${theme}.logo")
+        String logo();
+    }
+
+    private final TenantConfig config = ConfigFactory.create(TenantConfig.class);
+
+    private static Map<String, String> map(String key, String value) {
+        return Collections.singletonMap(key, value);
+    }
+
+    @Test
+    public void shouldOverrideThePropertiesWhileTheTaskRuns() throws Exception {
+        int result = config.withOverrides(map("maxConnections", "20"), new Callable<Integer>() {
+            public Integer call() {
+                assertEquals("blue", config.theme());
+                return config.maxConnections();
+            }
+        });
+
+        assertEquals(20, result);
+        assertEquals(10, config.maxConnections());
+    }
+
+    @Test
+    public void shouldGiveNestedOverridesPrecedence() {
+        config.withOverrides(map("maxConnections", "20"), new Runnable() {
+            public void run() {
+                config.withOverrides(map("maxConnections", "30"), new Runnable() {
+                    public void run() {
+                        assertEquals(30, config.maxConnections());
+                    }
+                });
+                assertEquals(20, config.maxConnections());
+            }
+        });
+    }
+
+    @Test
+    public void shouldOverrideForTheCurrentThreadAndConfigObjectOnly() {
+        final TenantConfig other = ConfigFactory.create(TenantConfig.class);
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            config.withOverrides(map("maxConnections", "20"), new Runnable() {
+                public void run() {
+                    assertEquals(10, other.maxConnections());
+                    try {
+                        assertEquals(Integer.valueOf(10), executor.submit(new Callable<Integer>() {
+                            public Integer call() {
+                                return config.maxConnections();
+                            }
+                        }).get());
+                    } catch (Exception e) {
+                        throw new AssertionError(e);
+                    }
+                }
+            });
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldExpandTheVariablesWithTheOverrides() {
+        final TenantConfig config = ConfigFactory.create(TenantConfig.class, map("red.logo", "red.png"));
+        config.withOverrides(map("theme", "red"), new Runnable() {
+            public void run() {
+                assertEquals("/themes/red.css", config.stylesheet());
+                assertEquals("red.png", config.logo());
+            }
+        });
+        assertEquals("/themes/blue.css", config.stylesheet());
+        assertNull(config.logo());
+    }
+
+    @Test
+    public void shouldGetTheOverriddenProperties() {
+        config.withOverrides(map("theme", "red"), new Runnable() {
+            public void run() {
+                assertEquals("red", config.getProperty("theme"));
+                assertEquals("red", config.getProperty("theme", "green"));
+                assertEquals("green", config.getProperty("font", "green"));
+            }
+        });
+        assertEquals("blue", config.getProperty("theme"));
+    }
+
+    @Test
+    public void shouldUnbindTheOverridesWhenTheTaskFails() {
+        try {
+            config.withOverrides(map("maxConnections", "20"), new Runnable() {
+                public void run() {
+                    throw new IllegalStateException();
+                }
+            });
+        } catch (IllegalStateException expected) {
+        }
+        assertEquals(10, config.maxConnections());
+        PropertiesManager manager = ((PropertiesInvocationHandler) Proxy.getInvocationHandler(config)).propertiesManager;
+        assertNull(ScopedOverrides.get(manager, "maxConnections"));
+    }
+
+}
@@ -0,0 +1,246 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner;
+
+import org.aeonbits.owner.Config.LoadPolicy;
+import org.aeonbits.owner.Config.Sources;
+import org.aeonbits.owner.loaders.Loader;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.aeonbits.owner.Config.LoadType.FIRST;
+import static org.aeonbits.owner.Config.LoadType.MERGE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Luigi R. Viggiano
+ */
+public class ParallelLoadTest {
+    private static final long DELAY = 200;
+
+    private LoadersManager loaders;
+
+    /**
+     * Loads URIs like <code>slow://name/key=value</code> after sleeping {@link #DELAY} milliseconds; the host
+     * <code>missing</code> stands for a source that doesn't exist.
+     */
+    public static class SlowLoader implements Loader {
+        public boolean accept(URI uri) {
+            return "slow".equals(uri.getScheme());
+        }
+
+        public void load(Properties result, URI uri) throws IOException {
+            try {
+                Thread.sleep(DELAY);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if ("missing".equals(uri.getHost()))
+                throw new FileNotFoundException(uri.toString());
+            String[] entry = uri.getPath().substring(1).split("=");
+            result.setProperty(entry[0], entry[1]);
+        }
+
+        public String defaultSpecFor(String uriPrefix) {
+            return null;
+        }
+    }
+
+    @Before
+    public void before() {
+        loaders = new LoadersManager();
+        loaders.registerLoader(new SlowLoader());
+    }
+
+    @After
+    public void after() {
+        loaders.close();
+    }
+
+    @Test
+    public void testParallelMergeIsFasterThanSequential() {
+        List<URI> uris = uris("slow://a/foo=1", "slow://b/bar=2", "slow://missing/baz=3", "slow://c/foo=3");
+
+        long start = System.nanoTime();
+        List<LoadedSource> sources = MERGE.load(uris, loaders, true, null, false);
+        long elapsed = NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue(elapsed < uris.size() * DELAY);
+        assertEquals(uris.size(), sources.size());
+        for (int i = 0; i < uris.size(); i++) {
+            assertEquals(uris.get(i), sources.get(i).uri());
+            assertTrue(sources.get(i).elapsedTime() >= MILLISECONDS.toNanos(DELAY));
+        }
+        assertFalse(sources.get(2).isLoaded());
+        assertTrue(sources.get(2).error() instanceof FileNotFoundException);
+    }
+
+    @Test
+    public void testParallelFirstHonoursSourcesOrder() {
+        List<URI> uris = uris("slow://missing/foo=1", "slow://a/foo=2", "slow://b/foo=3");
+
+        List<LoadedSource> sources = FIRST.load(uris, loaders, true, null, false);
+
+        assertEquals(2, sources.size());
+        assertFalse(sources.get(0).isLoaded());
+        assertTrue(sources.get(1).isLoaded());
+        assertEquals("2", sources.get(1).properties().getProperty("foo"));
+    }
+
+    @Test
+    public void testSequentialLoadRecordsSources() {
+        List<URI> uris = uris("slow://missing/foo=1", "slow://a/foo=2", "slow://b/foo=3");
+
+        List<LoadedSource> sources = FIRST.load(uris, loaders, false, null, false);
+
+        assertEquals(2, sources.size());
+        assertEquals("2", sources.get(1).properties().getProperty("foo"));
+        assertEquals(3, MERGE.load(uris, loaders, false, null, false).size());
+    }
+
+    @Test
+    public void testInterruptedLoadReportsTheSourceNotLoaded() throws InterruptedException {
+        final Thread loading = Thread.currentThread();
+        Thread interrupter = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    Thread.sleep(DELAY / 4);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                loading.interrupt();
+            }
+        };
+        interrupter.start();
+        List<URI> uris = uris("slow://a/foo=1", "slow://b/bar=2");
+
+        List<LoadedSource> sources;
+        try {
+            sources = MERGE.load(uris, loaders, true, null, false);
+        } finally {
+            Thread.interrupted();
+            interrupter.join();
+        }
+
+        assertEquals(uris.get(1), sources.get(1).uri());
+        assertFalse(sources.get(1).isLoaded());
+        assertTrue(sources.get(1).error() instanceof InterruptedIOException);
+    }
+
+    @Test
+    public void testLoadAfterCloseIsSequential() {
+        loaders.close();
+        List<LoadedSource> sources = MERGE.load(uris("slow://a/foo=1", "slow://b/bar=2"), loaders, true, null, false);
+
+        assertEquals("1", sources.get(0).properties().getProperty("foo"));
+        assertEquals("2", sources.get(1).properties().getProperty("bar"));
+    }
+
+    @Sources({"classpath:org/aeonbits/owner/first.properties",
+              "classpath:foo/bar/thisDoesntExists.properties",
+              "classpath:org/aeonbits/owner/second.properties",
+              "file:${user.dir}/src/test/resources/foo/bar/thisDoesntExists.properties",
+              "file:${user.dir}/src/test/resources/org/aeonbits/owner/third.properties"})
+    @LoadPolicy(value = MERGE, parallel = true)
+    public static interface ParallelMergeConfig extends Config {
+        @DefaultValue("this should be ignored")
+        String foo();
+        @DefaultValue("this should be ignored")
+        String bar();
+        @DefaultValue("this should be ignored")
+        String qux();
+
+        String quux(); // this should return null;
+        @DefaultValue("theDefaultValue")
+        String fubar();
+    }
+
+    @Test
+    public void testParallelMergeKeepsPrecedence() {
+        for (int i = 0; i < 20; i++) {
+            ParallelMergeConfig cfg = ConfigFactory.create(ParallelMergeConfig.class);
+            assertEquals("first", cfg.foo());
+            assertEquals("second", cfg.bar());
+            assertEquals("third", cfg.qux());
+            assertNull(cfg.quux());
+            assertEquals("theDefaultValue", cfg.fubar());
+        }
+    }
+
+    @Sources({"classpath:foo/bar/thisDoesntExists.properties",
+              "classpath:org/aeonbits/owner/second.properties",
+              "classpath:org/aeonbits/owner/first.properties"})
+    @LoadPolicy(value = FIRST, parallel = true)
+    public static interface ParallelFirstConfig extends Config {
+        String foo();
+        String bar();
+    }
+
+    @Test
+    public void testParallelFirstUsesFirstAvailableSource() {
+        ParallelFirstConfig cfg = ConfigFactory.create(ParallelFirstConfig.class);
+        assertEquals("second", cfg.foo());
+        assertEquals("second", cfg.bar());
+    }
+
+    @Sources({"file:${user.dir}/src/test/resources/foo/bar/thisDoesntExists.properties",
+              "classpath:org/aeonbits/owner/second.properties",
+              "classpath:org/aeonbits/owner/first.properties"})
+    @LoadPolicy(value = FIRST, parallel = true)
+    public static interface ReportedSourcesConfig extends Config, Reloadable {
+    }
+
+    @Test
+    public void testConfigReportsTheSourcesAttempted() {
+        ReportedSourcesConfig cfg = ConfigFactory.create(ReportedSourcesConfig.class);
+
+        List<LoadedSource> sources = cfg.loadedSources();
+
+        assertEquals(2, sources.size());
+        assertFalse(sources.get(0).isLoaded());
+        assertTrue(sources.get(0).error() instanceof IOException);
+        assertTrue(sources.get(1).isLoaded());
+        assertNull(sources.get(1).error());
+        assertTrue(sources.get(1).uri().toString().endsWith("org/aeonbits/owner/second.properties"));
+        assertTrue(sources.get(1).elapsedTime() > 0);
+    }
+
+    @Sources("httpz://foo.bar.baz")
+    @LoadPolicy(value = MERGE, parallel = true)
+    interface InvalidURLConfig extends Config {
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testWhenURLIsInvalid() {
+        ConfigFactory.create(InvalidURLConfig.class);
+    }
+
+    private static List<URI> uris(String... specs) {
+        List<URI> result = new ArrayList<URI>();
+        for (String spec : specs)
+            result.add(URI.create(spec));
+        return result;
+    }
+
+}
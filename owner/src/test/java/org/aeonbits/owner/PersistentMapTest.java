@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * @author Luigi R. Viggiano
+ */
+public class PersistentMapTest {
+
+    /**
+     * A key whose hash code is given, to force collisions.
+     */
+    static class Key {
+        private final String name;
+        private final int hash;
+
+        Key(String name, int hash) {
+            this.name = name;
+            this.hash = hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Key && ((Key) obj).name.equals(name);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    @Test
+    public void shouldBehaveLikeAHashMap() {
+        Random random = new Random(42);
+        Map<Object, Object> expected = new HashMap<Object, Object>();
+        PersistentMap<Object, Object> map = PersistentMap.empty();
+        for (int i = 0; i < 20000; i++) {
+            Key key = new Key("k" + random.nextInt(2000), random.nextInt(64));
+            if (random.nextInt(3) == 0) {
+                expected.remove(key);
+                map = map.minus(key);
+            } else {
+                String value = "v" + i;
+                expected.put(key, value);
+                map = map.plus(key, value);
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        for (Map.Entry<Object, Object> entry : expected.entrySet())
+            assertEquals(entry.getValue(), map.get(entry.getKey()));
+        Map<Object, Object> actual = new HashMap<Object, Object>();
+        for (Map.Entry<Object, Object> entry : map)
+            actual.put(entry.getKey(), entry.getValue());
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void shouldLeaveThePreviousVersionsUnchanged() {
+        PersistentMap<String, String> first = PersistentMap.<String, String>empty().plus("a", "1");
+        PersistentMap<String, String> second = first.plus("a", "2").plus("b", "3");
+        PersistentMap<String, String> third = second.minus("a");
+
+        assertEquals("1", first.get("a"));
+        assertNull(first.get("b"));
+        assertEquals("2", second.get("a"));
+        assertNull(third.get("a"));
+        assertEquals("3", third.get("b"));
+        assertEquals(1, first.size());
+        assertEquals(2, second.size());
+        assertEquals(1, third.size());
+    }
+
+    @Test
+    public void shouldReturnTheSameMapWhenNothingChanges() {
+        PersistentMap<String, String> map = PersistentMap.<String, String>empty().plus("a", "1");
+        assertSame(map, map.plus("a", "1"));
+        assertSame(map, map.minus("b"));
+    }
+
+}
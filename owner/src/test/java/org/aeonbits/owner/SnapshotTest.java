@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner;
+
+import org.aeonbits.owner.Config.Sources;
+import org.aeonbits.owner.event.ReloadEvent;
+import org.aeonbits.owner.event.ReloadListener;
+import org.aeonbits.owner.loaders.Loader;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.aeonbits.owner.util.Util.delete;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Luigi R. Viggiano
+ */
+public class SnapshotTest implements TestConstants {
+
+    private final File directory = new File(RESOURCES_DIR, "SnapshotTest");
+    private Factory factory;
+
+    /**
+     * Loads URIs like <code>remote://host/</code>, waiting for the test to release it; the properties to load are set
+     * by the test, and <code>null</code> stands for a source that can't be loaded.
+     */
+    static class RemoteLoader implements Loader {
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final CountDownLatch released = new CountDownLatch(1);
+        private final Properties properties;
+
+        RemoteLoader(Properties properties, boolean released) {
+            this.properties = properties;
+            if (released)
+                this.released.countDown();
+        }
+
+        public boolean accept(URI uri) {
+            return "remote".equals(uri.getScheme());
+        }
+
+        public void load(Properties result, URI uri) throws IOException {
+            started.countDown();
+            try {
+                if (!released.await(5, SECONDS))
+                    throw new IOException("not released " + uri);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (properties == null)
+                throw new IOException("unreachable " + uri);
+            result.putAll(properties);
+        }
+
+        public String defaultSpecFor(String uriPrefix) {
+            return null;
+        }
+    }
+
+    @Sources("remote://config-server/")
+    interface RemoteConfig extends Config, Reloadable {
+        @DefaultValue("default")
+        String greeting();
+
+        String name();
+    }
+
+    @Before
+    public void before() {
+        clean();
+        // writes the snapshot
+        Factory first = factory(new RemoteLoader(properties("greeting", "hello", "name", "world"), true));
+        RemoteConfig config = first.create(RemoteConfig.class);
+        assertEquals("hello", config.greeting());
+        first.close();
+    }
+
+    @After
+    public void after() {
+        if (factory != null)
+            factory.close();
+        clean();
+    }
+
+    private void clean() {
+        File[] files = directory.listFiles();
+        if (files != null)
+            for (File file : files)
+                delete(file);
+        delete(directory);
+    }
+
+    private Factory factory(Loader loader) {
+        Factory result = ConfigFactory.newInstance();
+        result.registerLoader(loader);
+        result.setSnapshotDirectory(directory);
+        return result;
+    }
+
+    @Test
+    public void shouldServeSnapshotWhileLoadingSources() throws Exception {
+        RemoteLoader loader = new RemoteLoader(properties("greeting", "hi", "name", "world"), false);
+        factory = factory(loader);
+
+        RemoteConfig config = factory.create(RemoteConfig.class);
+        CountDownLatch reloaded = reloaded(config);
+        assertTrue(loader.started.await(5, SECONDS));
+        // the sources are being loaded in background, and don't hold the config object.
+        assertEquals("hello", config.greeting());
+        assertEquals("world", config.name());
+
+        loader.released.countDown();
+        assertTrue(reloaded.await(5, SECONDS));
+        assertEquals("hi", config.greeting());
+    }
+
+    @Test
+    public void shouldKeepLastKnownGoodWhenSourcesFail() throws Exception {
+        RemoteLoader loader = new RemoteLoader(null, false);
+        factory = factory(loader);
+
+        RemoteConfig config = factory.create(RemoteConfig.class);
+        CountDownLatch reloaded = reloaded(config);
+        loader.released.countDown();
+        assertTrue(reloaded.await(5, SECONDS));
+
+        assertEquals("hello", config.greeting());
+        assertEquals("world", config.name());
+        assertEquals(1, directory.list().length);
+    }
+
+    @Test
+    public void shouldUpdateSnapshotWhenSourcesLoad() throws Exception {
+        RemoteLoader loader = new RemoteLoader(properties("greeting", "hi"), false);
+        factory = factory(loader);
+
+        RemoteConfig config = factory.create(RemoteConfig.class);
+        CountDownLatch reloaded = reloaded(config);
+        loader.released.countDown();
+        assertTrue(reloaded.await(5, SECONDS));
+        assertEquals("hi", config.greeting());
+
+        File[] snapshots = directory.listFiles();
+        assertEquals(1, snapshots.length);
+        Properties saved = new Properties();
+        InputStream input = new FileInputStream(snapshots[0]);
+        try {
+            saved.load(input);
+        } finally {
+            input.close();
+        }
+        assertEquals(properties("greeting", "hi"), saved);
+    }
+
+    @Test
+    public void shouldLoadSynchronouslyWithoutSnapshot() {
+        factory = ConfigFactory.newInstance();
+        factory.registerLoader(new RemoteLoader(properties("greeting", "hi"), true));
+
+        RemoteConfig config = factory.create(RemoteConfig.class);
+        assertEquals("hi", config.greeting());
+    }
+
+    private static CountDownLatch reloaded(RemoteConfig config) {
+        final CountDownLatch result = new CountDownLatch(1);
+        config.addReloadListener(new ReloadListener() {
+            public void reloadPerformed(ReloadEvent event) {
+                result.countDown();
+            }
+        });
+        return result;
+    }
+
+    private static Properties properties(String... keyValues) {
+        Properties result = new Properties();
+        for (int i = 0; i < keyValues.length; i += 2)
+            result.setProperty(keyValues[i], keyValues[i + 1]);
+        return result;
+    }
+
+}
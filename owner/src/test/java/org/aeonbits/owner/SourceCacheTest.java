@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner;
+
+import org.aeonbits.owner.Config.Sources;
+import org.aeonbits.owner.loaders.PropertiesLoader;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.util.Properties;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+import static org.aeonbits.owner.util.UtilTest.fileFromURI;
+import static org.aeonbits.owner.util.UtilTest.save;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * @author Luigi R. Viggiano
+ */
+public class SourceCacheTest implements TestConstants {
+    private static final String SPEC = "file:" + RESOURCES_DIR + "/SourceCacheTest.properties";
+
+    private File target;
+    private DefaultFactory factory;
+    private CountingLoader loader;
+
+    public static class CountingLoader extends PropertiesLoader {
+        int count = 0;
+
+        @Override
+        public void load(Properties result, URI uri) throws IOException {
+            count++;
+            super.load(result, uri);
+        }
+    }
+
+    @Sources(SPEC)
+    interface FirstConfig extends Config, Reloadable {
+        String foo();
+    }
+
+    @Sources(SPEC)
+    interface SecondConfig extends Config, Reloadable {
+        String foo();
+    }
+
+    @Sources(SPEC)
+    interface ThirdConfig extends Config {
+        @DefaultValue("default")
+        String bar();
+    }
+
+    @Before
+    public void before() throws Exception {
+        target = fileFromURI(SPEC);
+        save(target, new Properties() {{
+            setProperty("foo", "1");
+        }});
+        factory = new DefaultFactory(new ScheduledThreadPoolExecutor(1), new Properties());
+        loader = new CountingLoader();
+        factory.registerLoader(loader);
+    }
+
+    @After
+    public void after() {
+        factory.close();
+        target.delete();
+    }
+
+    @Test
+    public void shouldParseSharedSourceOnce() {
+        FirstConfig first = factory.create(FirstConfig.class);
+        SecondConfig second = factory.create(SecondConfig.class);
+        ThirdConfig third = factory.create(ThirdConfig.class);
+
+        assertEquals("1", first.foo());
+        assertEquals("1", second.foo());
+        assertEquals("default", third.bar());
+        assertEquals(1, loader.count);
+        assertEquals(1, factory.loadersManager.sourceCache().size());
+    }
+
+    @Test
+    public void shouldParseAgainOnceWhenSourceChanges() throws Throwable {
+        FirstConfig first = factory.create(FirstConfig.class);
+
+        save(target, new Properties() {{
+            setProperty("foo", "22");
+        }});
+        first.reload();
+        SecondConfig second = factory.create(SecondConfig.class);
+
+        assertEquals("22", first.foo());
+        assertEquals("22", second.foo());
+        assertEquals(2, loader.count);
+    }
+
+    @Test
+    public void shouldParseAgainOnReloadWhenSourceChangesKeepingSizeAndTime() throws Throwable {
+        FirstConfig first = factory.create(FirstConfig.class);
+        long lastModified = target.lastModified();
+
+        save(target, new Properties() {{
+            setProperty("foo", "2");
+        }});
+        target.setLastModified(lastModified);
+        first.reload();
+
+        assertEquals("2", first.foo());
+        assertEquals(2, loader.count);
+    }
+
+    @Test
+    public void shouldRemoveEntriesNotUsedAnymore() throws Exception {
+        URI uri = new URI(SPEC);
+        SourceCache cache = new SourceCache();
+        cache.load(loader, uri, false);
+
+        for (int i = 0; i < 50 && cache.size() > 0; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void shouldShareParsedProperties() throws Exception {
+        URI uri = new URI(SPEC);
+        SourceCache cache = new SourceCache();
+
+        Properties first = cache.load(loader, uri, false);
+        Properties second = cache.load(loader, uri, false);
+
+        assertSame(first, second);
+        assertEquals(1, loader.count);
+    }
+
+    @Test
+    public void shouldNotCacheMissingSources() throws Exception {
+        URI uri = new URI(SPEC);
+        SourceCache cache = new SourceCache();
+        target.delete();
+
+        try {
+            cache.load(loader, uri, false);
+        } catch (IOException expected) {
+        }
+        save(target, new Properties() {{
+            setProperty("foo", "333");
+        }});
+
+        assertEquals("333", cache.load(loader, uri, false).getProperty("foo"));
+    }
+
+}
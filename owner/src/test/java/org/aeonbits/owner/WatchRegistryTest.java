@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner;
+
+import org.aeonbits.owner.Config.HotReload;
+import org.aeonbits.owner.Config.Sources;
+import org.aeonbits.owner.event.ReloadEvent;
+import org.aeonbits.owner.event.ReloadListener;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.aeonbits.owner.Config.HotReloadType.ASYNC;
+import static org.aeonbits.owner.util.UtilTest.fileFromURI;
+import static org.aeonbits.owner.util.UtilTest.save;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Luigi R. Viggiano
+ */
+public class WatchRegistryTest implements TestConstants {
+    private static final String SPEC = "file:" + RESOURCES_DIR + "/WatchRegistryTest.properties";
+    private static final String OTHER_SPEC = "file:" + RESOURCES_DIR + "/WatchRegistryTestOther.properties";
+
+    private File target;
+    private DefaultFactory factory;
+
+    @Sources(SPEC)
+    @HotReload(value = 10, unit = MILLISECONDS, type = ASYNC)
+    interface WatchedConfig extends Config, Reloadable {
+        @DefaultValue("5")
+        Integer someValue();
+    }
+
+    @Sources({SPEC, OTHER_SPEC})
+    @HotReload(value = 10, unit = MILLISECONDS, type = ASYNC)
+    interface OtherWatchedConfig extends Config, Reloadable {
+        @DefaultValue("5")
+        Integer someValue();
+    }
+
+    @Before
+    public void before() throws Exception {
+        target = fileFromURI(SPEC);
+        save(target, new Properties() {{
+            setProperty("someValue", "10");
+        }});
+        factory = (DefaultFactory) ConfigFactory.newInstance();
+    }
+
+    @After
+    public void after() {
+        target.delete();
+    }
+
+    @Test
+    public void shouldWatchEachDistinctResourceOnce() {
+        List<Config> configs = new ArrayList<Config>();
+        for (int i = 0; i < 100; i++) {
+            configs.add(factory.create(WatchedConfig.class));
+            configs.add(factory.create(OtherWatchedConfig.class));
+        }
+
+        assertEquals(2, factory.watchRegistry.watchedResources());
+        assertEquals(200, factory.watchRegistry.subscribers());
+    }
+
+    @Test
+    public void shouldFanOutChangesToAllSubscribers() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(2);
+        ReloadListener listener = new ReloadListener() {
+            public void reloadPerformed(ReloadEvent event) {
+                latch.countDown();
+            }
+        };
+
+        WatchedConfig first = factory.create(WatchedConfig.class);
+        OtherWatchedConfig second = factory.create(OtherWatchedConfig.class);
+        first.addReloadListener(listener);
+        second.addReloadListener(listener);
+        assertEquals(Integer.valueOf(10), first.someValue());
+        assertEquals(Integer.valueOf(10), second.someValue());
+
+        long lastModified = target.lastModified();
+        save(target, new Properties() {{
+            setProperty("someValue", "20");
+        }});
+        target.setLastModified(lastModified - 5000);    // make sure the change is noticed, despite the fs resolution
+
+        assertTrue(latch.await(5, SECONDS));
+        assertEquals(Integer.valueOf(20), first.someValue());
+        assertEquals(Integer.valueOf(20), second.someValue());
+    }
+
+    @Test
+    public void shouldUnsubscribeGarbageCollectedConfigs() throws Exception {
+        for (int i = 0; i < 100; i++)
+            factory.create(WatchedConfig.class);
+        WatchedConfig survivor = factory.create(WatchedConfig.class);
+
+        for (int i = 0; i < 50 && factory.watchRegistry.subscribers() > 1; i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+
+        assertEquals(1, factory.watchRegistry.subscribers());
+        assertEquals(Integer.valueOf(10), survivor.someValue());
+    }
+
+}
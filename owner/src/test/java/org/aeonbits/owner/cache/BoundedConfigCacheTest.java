@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner.cache;
+
+import org.aeonbits.owner.ConfigCache;
+import org.aeonbits.owner.ConfigCache.EvictionPolicy;
+import org.aeonbits.owner.ConfigCache.ValueReferences;
+import org.aeonbits.owner.ConfigCacheStatistics;
+import org.aeonbits.owner.ConfigFactory;
+import org.aeonbits.owner.Reloadable;
+import org.aeonbits.owner.event.ReloadEvent;
+import org.aeonbits.owner.event.ReloadListener;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Luigi R. Viggiano
+ */
+public class BoundedConfigCacheTest {
+
+    interface MyConfig extends Reloadable {}
+
+    @Before
+    public void before() {
+        ConfigCache.clear();
+        ConfigCache.statistics().reset();
+    }
+
+    @After
+    public void after() {
+        ConfigCache.setMaximumSize(0);
+        ConfigCache.setEvictionPolicy(EvictionPolicy.LRU);
+        ConfigCache.setExpireAfterAccess(0, MILLISECONDS);
+        ConfigCache.setValueReferences(ValueReferences.STRONG);
+        ConfigCache.clear();
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsed() {
+        ConfigCache.setMaximumSize(2);
+        MyConfig first = ConfigCache.getOrCreate("first", MyConfig.class);
+        MyConfig second = ConfigCache.getOrCreate("second", MyConfig.class);
+        AtomicInteger reloads = reloads(second);
+        assertSame(first, ConfigCache.getOrCreate("first", MyConfig.class));
+
+        ConfigCache.getOrCreate("third", MyConfig.class);
+
+        assertEquals(2, ConfigCache.list().size());
+        assertNull(ConfigCache.get("second"));
+        assertSame(first, ConfigCache.get("first"));
+        assertEquals(1, ConfigCache.statistics().getEvictionCount());
+
+        // evicted instances are closed.
+        second.reload();
+        assertEquals(0, reloads.get());
+    }
+
+    @Test
+    public void shouldEvictLeastFrequentlyUsed() {
+        ConfigCache.setMaximumSize(2);
+        ConfigCache.setEvictionPolicy(EvictionPolicy.LFU);
+        ConfigCache.getOrCreate("first", MyConfig.class);
+        ConfigCache.getOrCreate("second", MyConfig.class);
+        ConfigCache.getOrCreate("second", MyConfig.class);
+        ConfigCache.getOrCreate("first", MyConfig.class);
+        ConfigCache.getOrCreate("first", MyConfig.class);
+
+        ConfigCache.getOrCreate("third", MyConfig.class);
+
+        assertNotNull(ConfigCache.get("first"));
+        assertNull(ConfigCache.get("second"));
+    }
+
+    @Test
+    public void shouldEvictWhenShrinking() {
+        for (int i = 0; i < 10; i++)
+            ConfigCache.getOrCreate(i, MyConfig.class);
+
+        ConfigCache.setMaximumSize(3);
+
+        assertEquals(3, ConfigCache.list().size());
+        assertTrue(ConfigCache.list().contains(9));
+    }
+
+    @Test
+    public void shouldExpireAfterAccess() throws InterruptedException {
+        ConfigCache.setExpireAfterAccess(50, MILLISECONDS);
+        MyConfig first = ConfigCache.getOrCreate("first", MyConfig.class);
+        AtomicInteger reloads = reloads(first);
+        Thread.sleep(100);
+
+        assertNull(ConfigCache.get("first"));
+        assertEquals(1, ConfigCache.statistics().getEvictionCount());
+        first.reload();
+        assertEquals(0, reloads.get());
+    }
+
+    @Test
+    public void shouldReleaseWeaklyReferencedInstances() throws InterruptedException {
+        ConfigCache.setValueReferences(ValueReferences.WEAK);
+        ConfigCache.add("first", ConfigFactory.create(MyConfig.class));
+
+        for (int i = 0; i < 50 && ConfigCache.get("first") != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(ConfigCache.get("first"));
+        assertEquals(0, ConfigCache.list().size());
+    }
+
+    @Test
+    public void shouldCollectStatistics() throws Exception {
+        ConfigCache.getOrCreate("first", MyConfig.class);
+        ConfigCache.getOrCreate("first", MyConfig.class);
+        ConfigCache.getOrCreate("first", MyConfig.class);
+        ConfigCache.getOrCreate("second", MyConfig.class);
+
+        ConfigCacheStatistics statistics = ConfigCache.statistics();
+        assertEquals(2, statistics.getSize());
+        assertEquals(2, statistics.getHitCount());
+        assertEquals(2, statistics.getMissCount());
+        assertEquals(2, statistics.getLoadCount());
+        assertEquals(0, statistics.getLoadFailureCount());
+        assertTrue(statistics.getTotalLoadTime() > 0);
+        assertEquals(0.5, statistics.getHitRate(), 0.001);
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName("org.aeonbits.owner:type=ConfigCache");
+        server.registerMBean(statistics, name);
+        try {
+            assertEquals(2L, server.getAttribute(name, "HitCount"));
+            server.invoke(name, "reset", null, null);
+            assertEquals(0L, server.getAttribute(name, "HitCount"));
+        } finally {
+            server.unregisterMBean(name);
+        }
+    }
+
+    @Test
+    public void shouldKeepTheEvictionOrderAcrossAccesses() {
+        ConfigCache.setMaximumSize(3);
+        for (int i = 0; i < 3; i++)
+            ConfigCache.getOrCreate(i, MyConfig.class);
+        ConfigCache.get(0);
+        ConfigCache.get(1);
+
+        ConfigCache.getOrCreate(3, MyConfig.class);
+        assertNull(ConfigCache.get(2));
+        ConfigCache.getOrCreate(4, MyConfig.class);
+        assertNull(ConfigCache.get(0));
+        assertEquals(3, ConfigCache.list().size());
+    }
+
+    @Test
+    public void shouldNotCloseRemovedInstances() {
+        ConfigCache.setMaximumSize(2);
+        MyConfig first = ConfigCache.getOrCreate("first", MyConfig.class);
+        AtomicInteger reloads = reloads(first);
+
+        assertSame(first, ConfigCache.remove("first"));
+        ConfigCache.getOrCreate("second", MyConfig.class);
+        ConfigCache.getOrCreate("third", MyConfig.class);
+
+        assertEquals(2, ConfigCache.list().size());
+        first.reload();
+        assertEquals(1, reloads.get());
+    }
+
+    private static AtomicInteger reloads(MyConfig config) {
+        final AtomicInteger result = new AtomicInteger();
+        config.addReloadListener(new ReloadListener() {
+            public void reloadPerformed(ReloadEvent event) {
+                result.incrementAndGet();
+            }
+        });
+        return result;
+    }
+
+}
@@ -9,15 +9,28 @@
 package org.aeonbits.owner.cache;
 
 import org.aeonbits.owner.Config;
+import org.aeonbits.owner.Config.Sources;
 import org.aeonbits.owner.ConfigCache;
 import org.aeonbits.owner.ConfigFactory;
 import org.aeonbits.owner.Factory;
+import org.aeonbits.owner.loaders.Loader;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.ArgumentMatchers;
 
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.*;
 import static org.mockito.ArgumentMatchers.eq;
@@ -140,4 +153,80 @@ public class CacheConfigTest {
         assertSame(dummy, cached);
     }
 
+    @Sources("slow://host/greeting=hello")
+    interface SlowConfig extends Config {
+        String greeting();
+    }
+
+    /**
+     * Loads URIs like <code>slow://host/key=value</code>, slowly, counting the loads.
+     */
+    static class SlowLoader implements Loader {
+        final AtomicInteger loads = new AtomicInteger();
+
+        public boolean accept(URI uri) {
+            return "slow".equals(uri.getScheme());
+        }
+
+        public void load(Properties result, URI uri) throws IOException {
+            loads.incrementAndGet();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            String[] entry = uri.getPath().substring(1).split("=");
+            result.setProperty(entry[0], entry[1]);
+        }
+
+        public String defaultSpecFor(String uriPrefix) {
+            return null;
+        }
+    }
+
+    @Test
+    public void testGetOrCreateConcurrentlyCreatesOnce() throws Exception {
+        SlowLoader loader = new SlowLoader();
+        final Factory factory = ConfigFactory.newInstance();
+        factory.registerLoader(loader);
+        final CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(32);
+        try {
+            List<Future<SlowConfig>> results = new ArrayList<Future<SlowConfig>>();
+            for (int i = 0; i < 64; i++)
+                results.add(executor.submit(new Callable<SlowConfig>() {
+                    public SlowConfig call() throws Exception {
+                        start.await();
+                        return ConfigCache.getOrCreate(factory, SlowConfig.class);
+                    }
+                }));
+            start.countDown();
+
+            SlowConfig first = results.get(0).get();
+            for (Future<SlowConfig> result : results)
+                assertSame(first, result.get());
+            assertEquals("hello", first.greeting());
+            assertEquals(1, loader.loads.get());
+        } finally {
+            executor.shutdown();
+            factory.close();
+        }
+    }
+
+    @Test
+    public void testGetOrCreateRetriesFailedCreations() {
+        Factory spy = spy(ConfigFactory.newInstance());
+        doThrow(new IllegalStateException("failed")).doCallRealMethod()
+                .when(spy).create(eq(MyConfig.class), ArgumentMatchers.<Map<?, ?>[]>any());
+        try {
+            ConfigCache.getOrCreate(spy, MyConfig.class);
+            fail("the creation should have failed");
+        } catch (IllegalStateException expected) {
+            assertNull(ConfigCache.get(MyConfig.class));
+        }
+
+        MyConfig created = ConfigCache.getOrCreate(spy, MyConfig.class);
+        assertSame(created, ConfigCache.get(MyConfig.class));
+    }
+
 }
@@ -0,0 +1,226 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner.event;
+
+import org.aeonbits.owner.Config;
+import org.aeonbits.owner.ConfigFactory;
+import org.aeonbits.owner.Converter;
+import org.aeonbits.owner.Mutable;
+import org.aeonbits.owner.Reloadable;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Luigi R. Viggiano
+ */
+public class ValueChangeListenerTest {
+
+    interface PoolConfig extends Config, Reloadable, Mutable {
+        @DefaultValue("10")
+        int poolSize();
+
+        @DefaultValue("a,b")
+        List<String> hosts();
+    }
+
+    static class Recorder<T> implements ValueChangeListener<T> {
+        final List<T> oldValues = new ArrayList<T>();
+        final List<T> newValues = new ArrayList<T>();
+
+        public void valueChanged(T oldValue, T newValue) {
+            oldValues.add(oldValue);
+            newValues.add(newValue);
+        }
+    }
+
+    private PoolConfig config;
+
+    @Before
+    public void before() {
+        config = ConfigFactory.create(PoolConfig.class);
+    }
+
+    @Test
+    public void shouldNotifyTheConvertedValues() {
+        Recorder<Integer> recorder = new Recorder<Integer>();
+        config.addValueChangeListener("poolSize", recorder);
+
+        config.setProperty("poolSize", "20");
+
+        assertEquals(Arrays.asList(10), recorder.oldValues);
+        assertEquals(Arrays.asList(20), recorder.newValues);
+    }
+
+    @Test
+    public void shouldNotNotifyWhenTheConvertedValueIsTheSame() {
+        Recorder<Integer> poolSize = new Recorder<Integer>();
+        Recorder<List<String>> hosts = new Recorder<List<String>>();
+        config.addValueChangeListener("poolSize", poolSize);
+        config.addValueChangeListener("hosts", hosts);
+
+        config.setProperty("poolSize", "+10");
+        config.setProperty("hosts", "a, b");
+
+        assertTrue(poolSize.newValues.isEmpty());
+        assertTrue(hosts.newValues.isEmpty());
+    }
+
+    @Test
+    public void shouldShareTheConvertedValueAmongTheListeners() {
+        Recorder<List<String>> first = new Recorder<List<String>>();
+        Recorder<List<String>> second = new Recorder<List<String>>();
+        config.addValueChangeListener("hosts", first);
+        config.addValueChangeListener("hosts", second);
+
+        config.setProperty("hosts", "c,d");
+
+        assertEquals(Arrays.asList("c", "d"), first.newValues.get(0));
+        assertSame(first.newValues.get(0), second.newValues.get(0));
+    }
+
+    @Test
+    public void shouldNotifyTheChangesOfTheReload() {
+        Map<String, String> imports = new HashMap<String, String>();
+        config = ConfigFactory.create(PoolConfig.class, imports);
+        Recorder<Integer> recorder = new Recorder<Integer>();
+        config.addValueChangeListener("poolSize", recorder);
+
+        imports.put("poolSize", "30");
+        config.reload();
+
+        assertEquals(Arrays.asList(30), recorder.newValues);
+    }
+
+    @Test
+    public void shouldNotNotifyRemovedListeners() {
+        Recorder<Integer> recorder = new Recorder<Integer>();
+        config.addValueChangeListener("poolSize", recorder);
+        config.removeValueChangeListener(recorder);
+
+        config.setProperty("poolSize", "20");
+
+        assertTrue(recorder.newValues.isEmpty());
+    }
+
+    @Test
+    public void shouldNotifyAfterThePropertyChangeListenersOnceUnlocked() throws InterruptedException {
+        final List<String> notified = new ArrayList<String>();
+        final List<Boolean> unlocked = new ArrayList<Boolean>();
+        config.addPropertyChangeListener(new PropertyChangeListener() {
+            public void propertyChange(PropertyChangeEvent evt) {
+                notified.add("property");
+            }
+        });
+        config.addValueChangeListener("poolSize", new ValueChangeListener<Integer>() {
+            public void valueChanged(Integer oldValue, Integer newValue) {
+                notified.add("value");
+                Thread other = new Thread() {
+                    @Override
+                    public void run() {
+                        config.setProperty("hosts", "c,d");
+                    }
+                };
+                other.start();
+                try {
+                    other.join(5000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                unlocked.add(!other.isAlive());
+            }
+        });
+
+        config.setProperty("poolSize", "20");
+
+        assertEquals(Arrays.asList("property", "value", "property"), notified);
+        assertEquals(Arrays.asList(true), unlocked);
+    }
+
+    interface ServerConfig extends Config, Reloadable, Mutable {
+        @DefaultValue("localhost")
+        String host();
+
+        @DefaultValue("http://${host}/")
+        @ConverterClass(CountingConverter.class)
+        String url();
+
+        @DefaultValue("10")
+        int timeout();
+    }
+
+    public static class CountingConverter implements Converter<String> {
+        static int conversions;
+
+        public String convert(Method method, String input) {
+            conversions++;
+            return input;
+        }
+    }
+
+    @Test
+    public void shouldResolveAgainOnlyTheValuesDependingOnTheChangedProperties() {
+        ServerConfig server = ConfigFactory.create(ServerConfig.class);
+        Recorder<String> recorder = new Recorder<String>();
+        server.addValueChangeListener("url", recorder);
+        int conversions = CountingConverter.conversions;
+
+        server.setProperty("timeout", "20");
+        assertEquals(conversions, CountingConverter.conversions);
+        assertTrue(recorder.newValues.isEmpty());
+
+        server.setProperty("host", "example.com");
+        assertEquals(Arrays.asList("http://example.com/"), recorder.newValues);
+
+        server.setProperty("url", "https://${host}:${port}/");
+        server.setProperty("port", "8443");
+        assertEquals(Arrays.asList("http://example.com/", "https://example.com:/", "https://example.com:8443/"),
+                recorder.newValues);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectListenersOfValuesOfAnotherType() {
+        config.addValueChangeListener("poolSize", new ValueChangeListener<String>() {
+            public void valueChanged(String oldValue, String newValue) {
+            }
+        });
+    }
+
+    @Test
+    public void shouldAcceptListenersOfASupertypeOfTheValues() {
+        final List<Number> newValues = new ArrayList<Number>();
+        config.addValueChangeListener("poolSize", new ValueChangeListener<Number>() {
+            public void valueChanged(Number oldValue, Number newValue) {
+                newValues.add(newValue);
+            }
+        });
+
+        config.setProperty("poolSize", "20");
+
+        assertEquals(Arrays.<Number>asList(20), newValues);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectUnknownMethods() {
+        config.addValueChangeListener("reload", new Recorder<Object>());
+    }
+
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner.loaders;
+
+import org.aeonbits.owner.Config;
+import org.aeonbits.owner.Config.Sources;
+import org.aeonbits.owner.ConfigFactory;
+import org.aeonbits.owner.TestConstants;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Properties;
+
+import static org.aeonbits.owner.util.UtilTest.save;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * @author Luigi R. Viggiano
+ */
+public class BinaryLoaderTest implements TestConstants {
+    private static final int KEYS = 100000;
+
+    private final File source = new File(RESOURCES_DIR, "BinaryLoaderTest.properties");
+    private final File xmlSource = new File(RESOURCES_DIR, "BinaryLoaderTest.xml");
+    private final File target = new File(RESOURCES_DIR, "BinaryLoaderTest.bin");
+    private Properties properties;
+
+    @Before
+    public void before() throws IOException {
+        properties = new Properties();
+        for (int i = 0; i < KEYS; i++)
+            properties.setProperty("some.generated.key." + i, "value " + i);
+        properties.setProperty("unicode.цвет", "синий € ü");
+        properties.setProperty("empty", "");
+        save(source, properties);
+    }
+
+    @After
+    public void after() {
+        source.delete();
+        xmlSource.delete();
+        target.delete();
+    }
+
+    @Test
+    public void shouldLoadSameAsPropertiesLoader() throws Exception {
+        BinaryConverter.convert(source, target);
+
+        assertEquals(load(new PropertiesLoader(), source), load(new BinaryLoader(), target));
+    }
+
+    @Test
+    public void shouldLoadSameAsXMLLoader() throws Exception {
+        FileOutputStream output = new FileOutputStream(xmlSource);
+        try {
+            properties.storeToXML(output, null);
+        } finally {
+            output.close();
+        }
+        BinaryConverter.convert(xmlSource, target);
+
+        assertEquals(load(new XMLLoader(), xmlSource), load(new BinaryLoader(), target));
+    }
+
+    @Test
+    public void shouldLookupSingleKeys() throws Exception {
+        BinaryConverter.convert(source, target);
+        BinaryProperties binary = BinaryProperties.open(target);
+
+        assertEquals(KEYS + 2, binary.size());
+        assertEquals("value 12345", binary.getProperty("some.generated.key.12345"));
+        assertEquals("синий € ü", binary.getProperty("unicode.цвет"));
+        assertEquals("", binary.getProperty("empty"));
+        assertNull(binary.getProperty("some.generated.key"));
+        assertNull(binary.getProperty("zzz"));
+        assertNull(binary.getProperty(""));
+    }
+
+    @Test(expected = IOException.class)
+    public void shouldRejectCorruptedFiles() throws Exception {
+        BinaryConverter.convert(source, target);
+        RandomAccessFile file = new RandomAccessFile(target, "rw");
+        try {
+            file.seek(file.length() - 1);
+            file.write('X');
+        } finally {
+            file.close();
+        }
+
+        BinaryProperties.open(target);
+    }
+
+    @Test(expected = IOException.class)
+    public void shouldRejectOtherFormats() throws Exception {
+        BinaryProperties.open(source);
+    }
+
+    @Sources("file:" + RESOURCES_DIR + "/BinaryLoaderTest.bin")
+    interface BinaryConfig extends Config {
+        @Key("some.generated.key.42")
+        String someKey();
+
+        @Key("unicode.цвет")
+        String unicodeKey();
+    }
+
+    @Test
+    public void shouldBeUsedForBinFiles() throws Exception {
+        BinaryConverter.convert(source, target);
+        BinaryConfig cfg = ConfigFactory.create(BinaryConfig.class);
+
+        assertEquals("value 42", cfg.someKey());
+        assertEquals("синий € ü", cfg.unicodeKey());
+    }
+
+    private static Properties load(Loader loader, File file) throws IOException {
+        Properties result = new Properties();
+        loader.load(result, file.toURI());
+        return result;
+    }
+
+}
@@ -0,0 +1,279 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner.loaders;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.aeonbits.owner.Config;
+import org.aeonbits.owner.Config.HotReload;
+import org.aeonbits.owner.Config.Sources;
+import org.aeonbits.owner.ConfigFactory;
+import org.aeonbits.owner.Factory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Luigi R. Viggiano
+ */
+public class HttpLoaderTest {
+
+    private HttpServer server;
+    private final ConfigServer configServer = new ConfigServer();
+    private final HttpLoader loader = new HttpLoader();
+
+    static class ConfigServer implements HttpHandler {
+        final Map<String, String> contents = new ConcurrentHashMap<String, String>();
+        final AtomicInteger requests = new AtomicInteger();
+        final AtomicInteger fullResponses = new AtomicInteger();
+        final Set<Integer> clientPorts = new HashSet<Integer>();
+        volatile boolean gzipRequested = false;
+
+        public void handle(HttpExchange exchange) throws IOException {
+            requests.incrementAndGet();
+            synchronized (clientPorts) {
+                clientPorts.add(exchange.getRemoteAddress().getPort());
+            }
+            exchange.getRequestBody().close(); // otherwise the server doesn't keep the connection alive.
+            String content = contents.get(exchange.getRequestURI().getPath());
+            if (content == null) {
+                exchange.sendResponseHeaders(404, -1);
+                exchange.close();
+                return;
+            }
+
+            String etag = "\"" + Integer.toHexString(content.hashCode()) + "\"";
+            exchange.getResponseHeaders().set("ETag", etag);
+            if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+
+            fullResponses.incrementAndGet();
+            byte[] body = content.getBytes("UTF-8");
+            String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+            if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+                gzipRequested = true;
+                body = gzip(body);
+                exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+            }
+            exchange.sendResponseHeaders(200, body.length);
+            OutputStream output = exchange.getResponseBody();
+            output.write(body);
+            output.close();
+        }
+
+        private static byte[] gzip(byte[] body) throws IOException {
+            ByteArrayOutputStream result = new ByteArrayOutputStream();
+            GZIPOutputStream output = new GZIPOutputStream(result);
+            output.write(body);
+            output.close();
+            return result.toByteArray();
+        }
+    }
+
+    @Before
+    public void before() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", configServer);
+        server.createContext("/slow", new HttpHandler() {
+            public void handle(HttpExchange exchange) throws IOException {
+                try {
+                    Thread.sleep(500);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                exchange.sendResponseHeaders(404, -1);
+                exchange.close();
+            }
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        configServer.contents.put("/config.properties", "greeting=hello\nname=world\n");
+        configServer.contents.put("/config.xml",
+                "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+                "<!DOCTYPE properties SYSTEM \"http://java.sun.com/dtd/properties.dtd\">\n" +
+                "<properties><entry key=\"greeting\">ciao</entry></properties>");
+    }
+
+    @After
+    public void after() {
+        server.stop(0);
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://127.0.0.1:" + server.getAddress().getPort() + path);
+    }
+
+    private Properties load(URI uri) throws IOException {
+        Properties result = new Properties();
+        loader.load(result, uri);
+        return result;
+    }
+
+    @Test
+    public void shouldDownloadOnlyWhenChanged() throws IOException {
+        URI uri = uri("/config.properties");
+
+        assertEquals("hello", load(uri).getProperty("greeting"));
+        assertEquals("hello", load(uri).getProperty("greeting"));
+        assertEquals("world", load(uri).getProperty("name"));
+        assertEquals(3, configServer.requests.get());
+        assertEquals(1, configServer.fullResponses.get());
+        assertTrue(configServer.gzipRequested);
+
+        configServer.contents.put("/config.properties", "greeting=hi\n");
+        Properties changed = load(uri);
+        assertEquals("hi", changed.getProperty("greeting"));
+        assertEquals(1, changed.size());
+        assertEquals(2, configServer.fullResponses.get());
+    }
+
+    @Test
+    public void shouldReuseConnections() throws IOException {
+        URI uri = uri("/config.properties");
+        for (int i = 0; i < 10; i++)
+            load(uri);
+
+        assertEquals(10, configServer.requests.get());
+        assertEquals(1, configServer.clientPorts.size());
+    }
+
+    @Test
+    public void shouldLoadXMLSources() throws IOException {
+        URI uri = uri("/config.xml");
+
+        assertEquals("ciao", load(uri).getProperty("greeting"));
+        assertEquals("ciao", load(uri).getProperty("greeting"));
+        assertEquals(1, configServer.fullResponses.get());
+    }
+
+    @Test(expected = IOException.class)
+    public void shouldFailOnMissingSources() throws IOException {
+        load(uri("/missing.properties"));
+    }
+
+    @Test
+    public void shouldChangeVersionOnlyWhenPropertiesChange() throws IOException {
+        URI uri = uri("/config.properties");
+        load(uri);
+        long version = loader.version(uri);
+
+        assertEquals(version, loader.check(uri));
+        configServer.contents.put("/config.properties", "name=world\ngreeting=hello\n");
+        assertEquals(version, loader.check(uri));
+        configServer.contents.put("/config.properties", "greeting=hi\n");
+        assertTrue(loader.check(uri) != version);
+    }
+
+    @Sources("http://127.0.0.1:${port}/config.properties")
+    @HotReload(value = 10, unit = MILLISECONDS)
+    interface HttpConfig extends Config {
+        String greeting();
+    }
+
+    @Test
+    public void shouldHotReloadWithConditionalRequests() throws Exception {
+        Factory factory = ConfigFactory.newInstance();
+        factory.setProperty("port", String.valueOf(server.getAddress().getPort()));
+        try {
+            HttpConfig config = factory.create(HttpConfig.class);
+            for (int i = 0; i < 5; i++) {
+                assertEquals("hello", config.greeting());
+                Thread.sleep(20);
+            }
+            assertTrue(configServer.requests.get() > 2);
+            assertEquals(1, configServer.fullResponses.get());
+
+            configServer.contents.put("/config.properties", "greeting=hi\n");
+            Thread.sleep(20);
+            assertEquals("hi", config.greeting());
+            assertEquals(2, configServer.fullResponses.get());
+        } finally {
+            factory.close();
+        }
+    }
+
+    @Test(expected = SocketTimeoutException.class)
+    public void shouldTimeOutOnUnresponsiveServers() throws IOException {
+        new HttpLoader(1000, 100).load(new Properties(), uri("/slow/config.properties"));
+    }
+
+    @Test
+    public void shouldHotReloadChangesLoadedByOtherConfigs() throws Exception {
+        Factory factory = ConfigFactory.newInstance();
+        factory.setProperty("port", String.valueOf(server.getAddress().getPort()));
+        try {
+            HttpConfig first = factory.create(HttpConfig.class);
+
+            configServer.contents.put("/config.properties", "greeting=hi\n");
+            HttpConfig second = factory.create(HttpConfig.class);
+            assertEquals("hi", second.greeting());
+
+            Thread.sleep(20);
+            assertEquals("hi", first.greeting());
+        } finally {
+            factory.close();
+        }
+    }
+
+    @Test
+    public void shouldNotReloadDeserializedConfigsUntilChanged() throws Exception {
+        Factory factory = ConfigFactory.newInstance();
+        factory.setProperty("port", String.valueOf(server.getAddress().getPort()));
+        try {
+            HttpConfig deserialized = copy(factory.create(HttpConfig.class));
+            int requests = configServer.requests.get();
+
+            Thread.sleep(20);
+            assertEquals("hello", deserialized.greeting());
+            assertEquals(requests + 1, configServer.requests.get()); // just the check, no reload.
+
+            configServer.contents.put("/config.properties", "greeting=hi\n");
+            Thread.sleep(20);
+            assertEquals("hi", deserialized.greeting());
+        } finally {
+            factory.close();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T copy(T object) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(object);
+        out.close();
+        return (T) new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject();
+    }
+
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner.loaders;
+
+import org.aeonbits.owner.TestConstants;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.util.Properties;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Verifies that {@link PropertiesParser} gives the same result of {@link Properties#load(java.io.Reader)}.
+ *
+ * @author Luigi R. Viggiano
+ */
+public class PropertiesParserTest implements TestConstants {
+
+    private static final String[] CASES = {
+            "",
+            "key=value",
+            "key = value",
+            "key:value",
+            "key value",
+            "key\tvalue",
+            "key\fvalue",
+            "   key   =   value   ",
+            "key",
+            "key=",
+            "=value",
+            ":value",
+            "key==value",
+            "key =:value",
+            "key : = value",
+            "key\\=with\\:separators=value",
+            "key\\ with\\ spaces=value",
+            "key=value\\\n    continued",
+            "key=value\\\r\n    continued\\\r    twice",
+            "key=value\\\\\nother=value",
+            "key=value\\\\\\\nstill",
+            "key=value\\",
+            "key=value\\\n",
+            "key=value\\\n\nother=1",
+            "key=value\\\n   \nother=1",
+            "# comment\nkey=value",
+            "! comment\nkey=value",
+            "   # indented comment\nkey=value",
+            "# comment ending with backslash\\\nkey=value",
+            "key=value\\\n#not a comment",
+            "key=#not a comment",
+            "a=1\rb=2\r\nc=3\n\n\r\rd=4",
+            "key=\\t\\n\\r\\f\\\\\\z\\ ",
+            "key=\\u0041\\u00e9\\u20AC",
+            "\\u0041key=value",
+            "key=value\nkey=override",
+            "\n\n\n",
+            "# only a comment",
+            "# comment\\",
+            "\uFEFFkey=bom",
+            "цвет=синий\nκλειδί = τιμή",
+    };
+
+    private static Properties expected(String text) {
+        Properties result = new Properties();
+        try {
+            result.load(new StringReader(text));
+        } catch (Exception e) {
+            result.put(Exception.class, e.getClass());
+        }
+        return result;
+    }
+
+    private static Properties actual(String text) {
+        Properties result = new Properties();
+        try {
+            PropertiesParser.parse(result, text.toCharArray(), 0, text.length());
+        } catch (Exception e) {
+            result.put(Exception.class, e.getClass());
+        }
+        return result;
+    }
+
+    /**
+     * Parses the text in two chunks, split at the line boundary following <tt>from</tt>.
+     */
+    private static Properties split(String text, int from) {
+        char[] chars = text.toCharArray();
+        int boundary = PropertiesParser.nextLineStart(chars, 0, from, chars.length);
+        Properties result = new Properties();
+        try {
+            new PropertiesParser.Chunk(chars, 0, boundary).parse(result);
+            new PropertiesParser.Chunk(chars, boundary, chars.length).parse(result);
+        } catch (Exception e) {
+            result.put(Exception.class, e.getClass());
+        }
+        return result;
+    }
+
+    @Test
+    public void shouldParseAsPropertiesLoad() {
+        for (String text : CASES)
+            assertEquals(text, expected(text), actual(text));
+    }
+
+    @Test
+    public void shouldReportMalformedUnicodeEscapes() {
+        for (String text : new String[] {"key=\\u004", "key=\\u00G1\nother=1", "a=1\n\\uzzzz=2"})
+            assertEquals(text, expected(text), actual(text));
+    }
+
+    @Test
+    public void shouldLoadEscapesCutOffByTheEndOfKeysAndValuesAsPropertiesLoad() {
+        String[] texts = {"\\u=F=F", "a=\nkey\\u12 = value", "\\u00:ab", "a=1\nb=\\u1",
+                "long.key=0123456789abcdef\nk=\\u", "x=0\\\n  \\u0\ny=1"};
+        for (String text : texts)
+            assertEquals(text, expected(text), actual(text));
+    }
+
+    @Test
+    public void shouldParseRandomTextAsPropertiesLoad() {
+        Random random = new Random(42);
+        for (int i = 0; i < 20000; i++) {
+            String text = random(random, 1 + random.nextInt(40), "ab=: \t\f\\\n\r#!u0Fé");
+            assertEquals(text, expected(text), actual(text));
+        }
+    }
+
+    @Test
+    public void shouldSplitAtLogicalLineBoundaries() {
+        Random random = new Random(42);
+        for (int i = 0; i < 2000; i++) {
+            String text = random(random, 1 + random.nextInt(40), "ab=: \t\\\n\r#!");
+            Properties expected = expected(text);
+            for (int from = 0; from <= text.length(); from++)
+                assertEquals(text, expected, split(text, from));
+        }
+    }
+
+    @Test
+    public void shouldLoadBigFilesInChunksAsPropertiesLoad() throws IOException {
+        Random random = new Random(42);
+        StringBuilder text = new StringBuilder();
+        while (text.length() < 3 * PropertiesParser.CHUNK_SIZE)
+            text.append(random(random, 1 + random.nextInt(60), "abcdefgh=: \t\\\n\r#!é€")).append('\n');
+        File file = save(text.toString().getBytes("UTF-8"));
+
+        Properties expected = new Properties();
+        expected.load(new StringReader(text.toString()));
+        Properties actual = new Properties();
+        PropertiesParser.load(actual, file);
+
+        assertTrue(expected.size() > 1000);
+        assertEquals(expected, actual);
+        file.delete();
+    }
+
+    @Test
+    public void shouldDecodeAsInputStreamReader() throws IOException {
+        byte[] bytes = {'k', '=', (byte) 0xC3, (byte) 0xA9, (byte) 0xFF, 'x', (byte) 0xE2, (byte) 0x82, '\n',
+                'j', '=', (byte) 0xF0, (byte) 0x9F, (byte) 0x98, (byte) 0x80};
+        File file = save(bytes);
+
+        Properties expected = new Properties();
+        expected.load(new InputStreamReader(new ByteArrayInputStream(bytes), "UTF-8"));
+        Properties actual = new Properties();
+        new PropertiesLoader().load(actual, file.toURI());
+
+        assertEquals(expected, actual);
+        file.delete();
+    }
+
+    private static String random(Random random, int length, String alphabet) {
+        StringBuilder result = new StringBuilder(length);
+        for (int i = 0; i < length; i++)
+            result.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        return result.toString();
+    }
+
+    private static File save(byte[] bytes) throws IOException {
+        File file = new File(RESOURCES_DIR, "PropertiesParserTest.properties");
+        file.getParentFile().mkdirs();
+        FileOutputStream output = new FileOutputStream(file);
+        try {
+            output.write(bytes);
+        } finally {
+            output.close();
+        }
+        return file;
+    }
+
+}
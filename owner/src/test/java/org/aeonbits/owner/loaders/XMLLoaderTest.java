@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner.loaders;
+
+import org.aeonbits.owner.TestConstants;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * @author Luigi R. Viggiano
+ */
+public class XMLLoaderTest implements TestConstants {
+
+    private static final String JAVA_FORMAT =
+            "<?xml version=\"1.0\" encoding=\"%s\" standalone=\"no\"?>\n" +
+            "<!DOCTYPE properties SYSTEM \"http://java.sun.com/dtd/properties.dtd\">\n" +
+            "<properties>\n" +
+            "    <comment>this is an example</comment>\n" +
+            "    <entry key=\"server.http.port\">8080</entry>\n" +
+            "    <entry key=\"server.http.hostname\"> foobar </entry>\n" +
+            "</properties>";
+
+    private final XMLLoader loader = new XMLLoader();
+    private final File target = new File(RESOURCES_DIR, "XMLLoaderTest.xml");
+
+    @After
+    public void after() {
+        target.delete();
+    }
+
+    @Test
+    public void testUserDefinedFormat() throws Exception {
+        Properties result = load("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+                "<foo>\n" +
+                "    fooValue\n" +
+                "    <bar><![CDATA[ <tags> =  and\nlines ]]></bar>\n" +
+                "    <baz attr=\"bazValue\" special=\"å∫ç\"/>\n" +
+                "    between\n" +
+                "    <qux value=\"quxValue\"><quux>deep</quux>  quux  </qux>\n" +
+                "    <empty>   </empty>\n" +
+                "</foo>", "UTF-8");
+
+        Properties expected = new Properties();
+        expected.setProperty("foo", "fooValue\n    \n    \n    between");
+        expected.setProperty("foo.bar", "<tags> =  and\nlines");
+        expected.setProperty("foo.baz.attr", "bazValue");
+        expected.setProperty("foo.baz.special", "å∫ç");
+        expected.setProperty("foo.qux.value", "quxValue");
+        expected.setProperty("foo.qux.quux", "deep");
+        expected.setProperty("foo.qux", "quux");
+        assertEquals(expected, result);
+    }
+
+    @Test
+    public void testJavaFormat() throws Exception {
+        Properties result = load(String.format(JAVA_FORMAT, "UTF-8"), "UTF-8");
+
+        Properties expected = new Properties();
+        expected.setProperty("server.http.port", "8080");
+        expected.setProperty("server.http.hostname", "foobar");
+        assertEquals(expected, result);
+    }
+
+    @Test
+    public void testJavaFormatNotDetectedBySniffing() throws Exception {
+        Properties result = load(String.format(JAVA_FORMAT, "UTF-16"), "UTF-16");
+
+        assertEquals("8080", result.getProperty("server.http.port"));
+        assertEquals("foobar", result.getProperty("server.http.hostname"));
+        assertFalse(result.containsKey("comment"));
+    }
+
+    @Test(expected = IOException.class)
+    public void testJavaFormatIsValidated() throws Exception {
+        load(String.format(JAVA_FORMAT, "UTF-8").replace("comment", "wrong"), "UTF-8");
+    }
+
+    @Test
+    public void testParsersAreReusedSafelyAcrossLoadsAndThreads() throws Exception {
+        save(String.format(JAVA_FORMAT, "UTF-8"), "UTF-8");
+        final URI uri = target.toURI();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Properties>> results = new ArrayList<Future<Properties>>();
+            for (int i = 0; i < 200; i++)
+                results.add(executor.submit(new Callable<Properties>() {
+                    public Properties call() throws Exception {
+                        Properties result = new Properties();
+                        loader.load(result, uri);
+                        return result;
+                    }
+                }));
+            for (Future<Properties> result : results)
+                assertEquals("foobar", result.get().getProperty("server.http.hostname"));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private Properties load(String xml, String encoding) throws IOException {
+        save(xml, encoding);
+        Properties result = new Properties();
+        loader.load(result, target.toURI());
+        return result;
+    }
+
+    private void save(String xml, String encoding) throws IOException {
+        target.getParentFile().mkdirs();
+        FileOutputStream output = new FileOutputStream(target);
+        try {
+            output.write(xml.getBytes(encoding));
+        } finally {
+            output.close();
+        }
+    }
+
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner.reload;
+
+import org.aeonbits.owner.Config;
+import org.aeonbits.owner.Config.HotReload;
+import org.aeonbits.owner.Config.Sources;
+import org.aeonbits.owner.ConfigFactory;
+import org.aeonbits.owner.Factory;
+import org.aeonbits.owner.Reloadable;
+import org.aeonbits.owner.TestConstants;
+import org.aeonbits.owner.event.ReloadEvent;
+import org.aeonbits.owner.event.ReloadListener;
+import org.aeonbits.owner.util.TimeProviderForTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.aeonbits.owner.Config.HotReloadType.DEFERRED;
+import static org.aeonbits.owner.util.UtilTest.fileFromURI;
+import static org.aeonbits.owner.util.UtilTest.save;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Luigi R. Viggiano
+ */
+public class DeferredAutoReloadTest implements TestConstants {
+
+    private static final String SPEC = "file:" + RESOURCES_DIR + "/DeferredAutoReloadConfig.properties";
+
+    private File target;
+    private TimeProviderForTest time;
+    private Factory factory;
+
+    @Sources(SPEC)
+    @HotReload(value = 5, type = DEFERRED)
+    interface DeferredAutoReloadConfig extends Config, Reloadable {
+        @DefaultValue("5")
+        Integer someValue();
+    }
+
+    @Before
+    public void before() throws Exception {
+        target = fileFromURI(SPEC);
+        time = new TimeProviderForTest();
+        time.setup();
+        factory = ConfigFactory.newInstance();
+    }
+
+    @After
+    public void after() {
+        factory.close();
+        time.tearDown();
+        target.delete();
+    }
+
+    @Test
+    public void testAutoReloadIsPerformedInBackground() throws Exception {
+        save(target, new Properties() {{
+            setProperty("someValue", "10");
+        }});
+        assertTrue(target.setLastModified(target.lastModified() - 15000));
+        time.setTime(target.lastModified());
+
+        DeferredAutoReloadConfig cfg = factory.create(DeferredAutoReloadConfig.class);
+        final CountDownLatch reloaded = new CountDownLatch(1);
+        final Thread[] reloadThread = new Thread[1];
+        cfg.addReloadListener(new ReloadListener() {
+            public void reloadPerformed(ReloadEvent event) {
+                reloadThread[0] = Thread.currentThread();
+                reloaded.countDown();
+            }
+        });
+        assertEquals(Integer.valueOf(10), cfg.someValue());
+
+        save(target, new Properties() {{
+            setProperty("someValue", "20");
+        }});
+
+        time.elapse(4, SECONDS);
+        assertEquals(Integer.valueOf(10), cfg.someValue());  // interval is not elapsed yet: no check is triggered.
+        assertEquals(1, reloaded.getCount());
+
+        time.elapse(1, SECONDS);
+        cfg.someValue();                                     // triggers the check, but doesn't wait for it.
+
+        assertTrue(reloaded.await(5, SECONDS));
+        assertTrue(reloadThread[0] != Thread.currentThread());
+        assertEquals(Integer.valueOf(20), cfg.someValue());
+    }
+
+}
@@ -6,6 +6,7 @@ import org.aeonbits.owner.Config.Sources;
 import org.aeonbits.owner.event.ReloadEvent;
 import org.aeonbits.owner.event.ReloadListener;
 import org.aeonbits.owner.util.SystemProviderForTest;
+import org.aeonbits.owner.util.TimeProviderForTest;
 import org.aeonbits.owner.util.UtilTest;
 import org.junit.After;
 import org.junit.Before;
@@ -15,6 +16,7 @@ import java.util.HashMap;
 import java.util.Properties;
 
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.aeonbits.owner.Config.HotReloadType.ASYNC;
 import static org.junit.Assert.assertEquals;
 
@@ -69,4 +71,37 @@ public class SystemPropertiesReloadTest extends AsyncReloadSupport {
         waitForReload(10);
         assertEquals(Integer.valueOf(30), cfg.someValue());
     }
+
+    @Sources("system:properties")
+    @HotReload(5)
+    interface SyncAutoReloadConfig extends Config {
+        @Key("owner.SystemPropertiesReloadTest.someValue")
+        @DefaultValue("5")
+        Integer someValue();
+    }
+
+    @Test
+    public void testReloadObservesLiveSystemProperties() throws Throwable {
+        UtilTest.setSystem(save);
+        TimeProviderForTest time = new TimeProviderForTest();
+        time.setup();
+        String propKey = "owner.SystemPropertiesReloadTest.someValue";
+        try {
+            SyncAutoReloadConfig cfg = ConfigFactory.create(SyncAutoReloadConfig.class);
+            assertEquals(Integer.valueOf(5), cfg.someValue());
+
+            System.setProperty(propKey, "20");
+            Thread.sleep(2);                                    // let the fingerprint of system properties expire.
+            time.elapse(5, SECONDS);
+            assertEquals(Integer.valueOf(20), cfg.someValue());
+
+            System.clearProperty(propKey);
+            Thread.sleep(2);
+            time.elapse(5, SECONDS);
+            assertEquals(Integer.valueOf(5), cfg.someValue());
+        } finally {
+            System.clearProperty(propKey);
+            time.tearDown();
+        }
+    }
 }
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner.util;
+
+import org.aeonbits.owner.util.Util.SystemProvider;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * @author Luigi R. Viggiano
+ */
+public class SystemSnapshotTest {
+
+    private SystemProvider save;
+    private SystemProviderForTest system;
+
+    @Before
+    public void before() {
+        Properties properties = new Properties();
+        properties.setProperty("user.name", "luigi");
+        Map<String, String> env = new HashMap<String, String>();
+        env.put("HOME", "/home/luigi");
+        env.put("user.name", "root");
+        system = new SystemProviderForTest(properties, env);
+        save = UtilTest.setSystem(system);
+    }
+
+    @After
+    public void after() {
+        UtilTest.setSystem(save);
+    }
+
+    @Test
+    public void shouldBeSharedWhileUnchanged() {
+        SystemSnapshot snapshot = SystemSnapshot.current();
+        assertSame(snapshot, SystemSnapshot.current());
+        assertEquals("luigi", snapshot.properties().getProperty("user.name"));
+        assertEquals("/home/luigi", snapshot.environment().getProperty("HOME"));
+    }
+
+    @Test
+    public void shouldBeReplacedWhenSystemPropertiesChange() {
+        SystemSnapshot snapshot = SystemSnapshot.current();
+        system.setProperty("user.dir", "/tmp");
+
+        SystemSnapshot changed = SystemSnapshot.current();
+        assertNotSame(snapshot, changed);
+        assertEquals(snapshot.version() + 1, changed.version());
+        assertEquals("/tmp", changed.properties().getProperty("user.dir"));
+        assertSame(snapshot.environment(), changed.environment());
+    }
+
+    @Test
+    public void shouldOverrideEnvironmentVariablesWithSystemProperties() {
+        Properties variables = SystemSnapshot.current().variables();
+        assertEquals("luigi", variables.getProperty("user.name"));
+        assertEquals("/home/luigi", variables.getProperty("HOME"));
+    }
+
+}